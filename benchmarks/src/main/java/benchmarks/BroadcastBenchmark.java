@@ -0,0 +1,106 @@
+package benchmarks;
+
+import ServerClient.MessageBatch;
+import ServerClient.OutboundQueue;
+import ServerClient.Room;
+import ServerClient.Server;
+import ServerClient.ServerConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends a game message to every player and spectator of a room. Every recipient is an in-memory
+ * client whose queue is emptied after each message, so only encoding and queueing are measured, not
+ * the network.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BroadcastBenchmark {
+
+    /** The number of recipients: a full table, or a table with spectators. */
+    @Param({"4", "16", "64", "256"})
+    public int recipients;
+
+    private Server server;
+    private Room room;
+    private OutboundQueue[] queues;
+
+    /**
+     * Fills a room with players and spectators up to the number of recipients.
+     */
+    @Setup
+    public void setUp() {
+        ServerConfig config = new ServerConfig();
+        server = new Server(config);
+        room = new Room("bench", server);
+        queues = new OutboundQueue[recipients];
+        for (int i = 0; i < recipients; i++) {
+            queues[i] = new OutboundQueue(config.outboundCapacity, config.outboundMaxBytes, config.overflowPolicy);
+            Server.ConnectionHandler handler = server.new ConnectionHandler(server, queues[i]);
+            handler.nickname = "client" + i;
+            if (i < Room.MAX_PLAYERS) {
+                room.members.add(handler);
+            } else {
+                room.spectators.add(handler);
+            }
+        }
+    }
+
+    /**
+     * Stops the thread pools of the server.
+     */
+    @TearDown
+    public void tearDown() {
+        server.shutdownServer();
+    }
+
+    /**
+     * Broadcasts one message, queued right away for every recipient.
+     */
+    @Benchmark
+    public void broadcastToAll(Blackhole blackhole) {
+        room.broadcastToAll("Bench played Guard on client1 and guessed Priest");
+        drain(blackhole);
+    }
+
+    /**
+     * Broadcasts the messages of a turn within one step, held back and released once per recipient.
+     */
+    @Benchmark
+    public void broadcastStep(Blackhole blackhole) {
+        try (MessageBatch batch = room.beginStep()) {
+            room.broadcastToAll("Bench played Guard on client1 and guessed Priest");
+            room.broadcastToAll("client1 is knocked out of the round");
+            room.broadcastToAll("It is client2's turn");
+        }
+        drain(blackhole);
+    }
+
+    /**
+     * Takes the messages out of every queue, as the writers of the connections would.
+     */
+    private void drain(Blackhole blackhole) {
+        for (OutboundQueue queue : queues) {
+            for (byte[] bytes = queue.poll(); bytes != null; bytes = queue.poll()) {
+                blackhole.consume(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package benchmarks;
+
+import engine.Action;
+import engine.Card;
+import engine.Engine;
+import engine.Result;
+import engine.RoundState;
+import engine.Seeds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays one card in a four player round: checks the move, applies the effect of the card and draws
+ * for the next seat, see {@link Engine#apply(RoundState, Action)}. Cards that are played on a player
+ * are played on a seat that is not protected.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CardEffectBenchmark {
+
+    /** The card that is played. */
+    @Param({"Guard", "Priest", "Baron", "Handmaid", "Prince", "King", "Countess", "Princess"})
+    public String card;
+
+    private RoundState state;
+    private Action action;
+
+    /**
+     * Plays random rounds until the current seat can play the card.
+     */
+    @Setup
+    public void setUp() {
+        int value = Card.byName(card);
+        boolean targeted = (Card.TARGETED & Card.bit(value)) != 0;
+        RandomGenerator random = Seeds.root(1);
+        while (action == null) {
+            RoundState round = Engine.deal(4, 0, random).state();
+            while (!round.isOver() && action == null) {
+                List<Action> actions = Engine.legalActions(round);
+                for (Action legal : actions) {
+                    if (legal.card() == value && (!targeted || legal.target() != Action.NONE)) {
+                        state = round;
+                        action = legal;
+                        break;
+                    }
+                }
+                round = Engine.apply(round, actions.get(random.nextInt(actions.size()))).state();
+            }
+        }
+    }
+
+    /**
+     * Plays the card on the same state every time; the state itself is never changed.
+     */
+    @Benchmark
+    public Result apply() {
+        return Engine.apply(state, action);
+    }
+}
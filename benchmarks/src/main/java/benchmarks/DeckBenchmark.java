@@ -0,0 +1,93 @@
+package benchmarks;
+
+import Game.Deck;
+import engine.PackedDeck;
+import engine.Seeds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Builds, shuffles and draws a whole deck, once with the {@link Deck} of the server's game and once
+ * with the {@link PackedDeck} of the engine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DeckBenchmark {
+
+    private RandomGenerator random;
+    private Deck shuffled;
+
+    /**
+     * Creates the generator and a deck that is shuffled again and again.
+     */
+    @Setup
+    public void setUp() {
+        random = Seeds.root(1);
+        shuffled = new Deck();
+    }
+
+    /**
+     * Builds a new deck of all sixteen cards.
+     */
+    @Benchmark
+    public Deck construct() {
+        return new Deck();
+    }
+
+    /**
+     * Shuffles a deck of sixteen cards.
+     */
+    @Benchmark
+    public Deck shuffle() {
+        shuffled.shuffleDeck(random);
+        return shuffled;
+    }
+
+    /**
+     * Builds, shuffles and draws a deck until it is empty, like a round that is played to the end.
+     */
+    @Benchmark
+    public void drawAll(Blackhole blackhole) {
+        Deck deck = new Deck();
+        deck.shuffleDeck(random);
+        while (!deck.isEmpty()) {
+            blackhole.consume(deck.drawCard());
+        }
+    }
+
+    /**
+     * Shuffles a packed deck of sixteen cards.
+     */
+    @Benchmark
+    public long packedShuffle() {
+        return PackedDeck.shuffle(PackedDeck.FULL, random);
+    }
+
+    /**
+     * Shuffles a packed deck and draws it until it is empty.
+     */
+    @Benchmark
+    public void packedDrawAll(Blackhole blackhole) {
+        long deck = PackedDeck.shuffle(PackedDeck.FULL, random);
+        while (PackedDeck.size(deck) > 0) {
+            blackhole.consume(PackedDeck.top(deck));
+            deck = PackedDeck.draw(deck);
+        }
+    }
+}
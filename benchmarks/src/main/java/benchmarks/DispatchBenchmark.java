@@ -0,0 +1,76 @@
+package benchmarks;
+
+import ServerClient.OutboundQueue;
+import ServerClient.Server;
+import ServerClient.ServerConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses and runs one line of a client in the lobby, the way the reader of a connection does for
+ * every line it receives: split the command, run it and flush its messages. The messages land in an
+ * in-memory queue that is emptied after every line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DispatchBenchmark {
+
+    /** The line the client sends: commands with short and long answers, an unknown one and chat. */
+    @Param({"/help", "/rooms", "/players", "/unknown", "hello everyone"})
+    public String line;
+
+    private Server server;
+    private OutboundQueue outbound;
+    private Server.ConnectionHandler handler;
+
+    /**
+     * Logs a client in to a server that does not listen on any port.
+     */
+    @Setup
+    public void setUp() {
+        ServerConfig config = new ServerConfig();
+        server = new Server(config);
+        outbound = new OutboundQueue(config.outboundCapacity, config.outboundMaxBytes, config.overflowPolicy);
+        handler = server.new ConnectionHandler(server, outbound);
+        handler.handleLine("bench");
+        while (outbound.poll() != null) {
+            // drop the welcome messages
+        }
+    }
+
+    /**
+     * Stops the thread pools of the server.
+     */
+    @TearDown
+    public void tearDown() {
+        server.shutdownServer();
+    }
+
+    /**
+     * Handles the line and takes its answers out of the queue.
+     */
+    @Benchmark
+    public void handleLine(Blackhole blackhole) {
+        handler.handleLine(line);
+        for (byte[] bytes = outbound.poll(); bytes != null; bytes = outbound.poll()) {
+            blackhole.consume(bytes);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks like the JMH launcher, but records the results as JSON in
+ * {@code jmh-result.json} unless another result file or format is given, so every run can be compared
+ * with an earlier one.
+ */
+public final class Main {
+
+    /** The result file used when none is given. */
+    public static final String RESULT_FILE = "jmh-result.json";
+
+    private Main() {
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args the options of the JMH launcher, e.g. a benchmark name pattern or {@code -f 1}
+     * @throws Exception if JMH fails
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")) {
+            options.addAll(List.of("-rf", "json"));
+        }
+        if (!options.contains("-rff")) {
+            options.addAll(List.of("-rff", RESULT_FILE));
+        }
+        org.openjdk.jmh.Main.main(options.toArray(String[]::new));
+    }
+}
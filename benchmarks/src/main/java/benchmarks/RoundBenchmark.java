@@ -0,0 +1,81 @@
+package benchmarks;
+
+import engine.Action;
+import engine.Engine;
+import engine.RoundState;
+import engine.Seeds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import simulation.Bot;
+import simulation.HeuristicBot;
+import simulation.Match;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays complete rounds and games on the headless engine, without a server or clients: the deal,
+ * every move and the scoring.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RoundBenchmark {
+
+    /** The number of players. */
+    @Param({"2", "3", "4"})
+    public int players;
+
+    private RandomGenerator random;
+    private Bot[] bots;
+
+    /**
+     * Creates the generator and the bots.
+     */
+    @Setup
+    public void setUp() {
+        random = Seeds.root(1);
+        bots = new Bot[players];
+        for (int seat = 0; seat < players; seat++) {
+            bots[seat] = new HeuristicBot();
+        }
+    }
+
+    /**
+     * Deals a round and plays random legal moves until it is over.
+     *
+     * @return the winners of the round
+     */
+    @Benchmark
+    public int[] randomRound() {
+        RoundState state = Engine.deal(players, 0, random).state();
+        while (!state.isOver()) {
+            List<Action> actions = Engine.legalActions(state);
+            state = Engine.apply(state, actions.get(random.nextInt(actions.size()))).state();
+        }
+        return state.winners();
+    }
+
+    /**
+     * Plays a game between heuristic bots until a seat has the tokens to win, as a tournament does.
+     *
+     * @return the winners of the game
+     */
+    @Benchmark
+    public int heuristicGame() {
+        return Match.play(bots, Engine.tokensToWin(players), random);
+    }
+}
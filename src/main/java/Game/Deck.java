@@ -1,9 +1,12 @@
 package Game;
 
+import ServerClient.Log;
 import cards.*;
+import engine.Card;
 
 import java.util.Collections;
 import java.util.ArrayList;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents the deck of cards used in the game.
@@ -11,6 +14,7 @@ import java.util.ArrayList;
  * It provides functionality to shuffle the deck, remove cards, draw cards, and check if the deck is empty.
  */
 public class Deck {
+    private static final Log LOG = Log.get("Deck");
     public ArrayList<Cards> deckOfCards = new ArrayList<>();
     public int numOfCards;
     public String[] removedThreeCards = new String[3];
@@ -19,25 +23,15 @@ public class Deck {
 
     /**
      * Constructs a Deck object, initializing it with the full set of cards needed for the game.
+     * The cards are the shared instances of {@link Cards#of(int)}.
      * It also sets the initial number of cards in the deck.
      */
     public Deck() {
-        deckOfCards.add(new Princess());
-        deckOfCards.add(new Countess());
-        deckOfCards.add(new King());
-        deckOfCards.add(new Prince());
-        deckOfCards.add(new Prince());
-        deckOfCards.add(new Handmaid());
-        deckOfCards.add(new Handmaid());
-        deckOfCards.add(new Baron());
-        deckOfCards.add(new Baron());
-        deckOfCards.add(new Priest());
-        deckOfCards.add(new Priest());
-        deckOfCards.add(new Guard());
-        deckOfCards.add(new Guard());
-        deckOfCards.add(new Guard());
-        deckOfCards.add(new Guard());
-        deckOfCards.add(new Guard());
+        for (int value = Card.PRINCESS; value >= Card.GUARD; value--) {
+            for (int copy = 0; copy < Card.copies(value); copy++) {
+                deckOfCards.add(Cards.of(value));
+            }
+        }
         numOfCards = deckOfCards.size();
     }
 
@@ -48,6 +42,15 @@ public class Deck {
         Collections.shuffle(deckOfCards);
     }
 
+    /**
+     * Shuffles the deck of cards with the given random generator, e.g. a game's own generator.
+     *
+     * @param random the random generator
+     */
+    public void shuffleDeck(RandomGenerator random) {
+        Collections.shuffle(deckOfCards, random);
+    }
+
     /**
      * Removes the first card from the deck and sets it aside without revealing it to players.
      */
@@ -98,13 +101,16 @@ public class Deck {
     }
 
     /**
-     * Prints the current contents of the deck to the console, mainly for debugging purposes.
+     * Logs the current contents of the deck at debug level, mainly for debugging purposes. The list
+     * is only built if debug messages are written.
      */
     public void showDeck(){
-        System.out.println("deck is ::");
-        for(Cards c : deckOfCards){
-            System.out.println(c.getName());
-        }
-        System.out.println("end of deck");
+        LOG.debug(() -> {
+            StringBuilder cards = new StringBuilder("deck is ::");
+            for(Cards c : deckOfCards){
+                cards.append(' ').append(c.getName());
+            }
+            return cards.toString();
+        });
     }
 }
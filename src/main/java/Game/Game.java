@@ -1,338 +1,523 @@
 package Game;
 
-import ServerClient.Server;
+import ServerClient.JfrEvents;
+import ServerClient.Log;
+import ServerClient.MessageBatch;
+import ServerClient.Payload;
+import ServerClient.Room;
 import cards.Cards;
+import engine.Action;
+import engine.Beliefs;
+import engine.Card;
+import engine.Engine;
+import engine.Event;
+import engine.Rejection;
+import engine.Result;
+import engine.RoundState;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.random.RandomGenerator;
 
 
 /**
- * Represents the main game logic for the card game. The Game class handles the initialization,
- * turn management, round play, scoring, and winner determination. It manages the communication
- * between players and ensures that each round and the game overall follows the rules.
+ * Runs a game of the card game for the players of a room. The rules of a round are played by the
+ * {@link Engine}; the Game is the adapter around it. It keeps the match going (tokens, turn order,
+ * game winner), passes the players' actions to the engine and turns the engine's events into
+ * messages for the players.
  */
-public class Game implements Runnable {
-    public Server server;
-    public Deck deck;
+public class Game {
+    private static final Log LOG = Log.get("Game");
+    /** Separator sent when a round starts. */
+    private static final Payload ROUND_SEPARATOR = Payload.of("--------------------------------------------");
+    /** Separator around the turn announcement. */
+    private static final Payload TURN_SEPARATOR = Payload.of("------------------------------------------------");
+    /** Separator sent when the deck is empty. */
+    private static final Payload DECK_EMPTY_SEPARATOR = Payload.of("-----------------------------------------");
+    /** Separator sent before the new turn order. */
+    private static final Payload TURN_ORDER_SEPARATOR = Payload.of("---------------------------------------------");
+    /** Separator sent when the game is over. */
+    private static final Payload GAME_OVER_SEPARATOR = Payload.of("-----------------------------------");
+
+    public Room room;
     public int tokensToWin;
     public int maxTokens;
     public final int roundNumber = 1;
-    private int whosTurn = 0;
     private String firstPlayerName;
-    public Map<Integer, Player> turnOrderMap = new HashMap<>();
-    public HashSet<Player> knockedOutPlayersSet = new HashSet<>();
-    public HashSet<Player> immunePlayersList = new HashSet<>();
-    public boolean isCountessPlayed = false;
+    /** The players by seat; a player's seat in the engine is its turn order. */
+    public Player[] seats = new Player[0];
+    // All game state is changed by tasks of this mailbox only, one task at a time
+    private final Mailbox mailbox;
+    private final RandomGenerator random;
+    /** The seed of every round played so far, in order; a round can be replayed from its seed. */
+    public final List<Long> roundSeeds = new ArrayList<>();
+    private RoundState state;
+    // What every seat knows about the cards of the round, updated with every step
+    private Beliefs[] beliefs = new Beliefs[0];
+    private int lastPlayedCard = Card.NONE;
+    private boolean isShowdownStarted = false;
+    // Flight recorder events of the running round and turn, committed when they end
+    private JfrEvents.Round roundEvent;
+    private JfrEvents.TurnWait turnEvent;
 
     /**
-     * Initializes a new Game instance with the provided server.
+     * Initializes a new Game instance for the players of the provided room.
      *
-     * @param server the server that hosts the game
+     * @param room the room that hosts the game
+     * @param scheduler the executor shared by the games of the server
+     * @param random the game's own random generator, which seeds the rounds
      */
-    public Game(Server server){
-        this.server = server;
+    public Game(Room room, Executor scheduler, RandomGenerator random){
+        this.room = room;
+        this.mailbox = new Mailbox(scheduler);
+        this.random = random;
     }
 
     /**
-     * Runs the main game loop, checking for the winning condition based on tokens and
-     * playing rounds until the game is complete.
+     * Starts the game. Returns immediately; the game runs on the scheduler whenever it has
+     * something to do and holds no thread while it waits for a player.
      */
-    public void run(){
-        game();
+    public void start(){
+        submit(this::game);
+    }
 
+    /**
+     * Queues a command for this game. Commands run one at a time in the order they were submitted.
+     * Everything sent while a command runs is one step and is flushed once per connection.
+     *
+     * @param command the command to run on the game
+     */
+    public void submit(Runnable command){
+        mailbox.post(() -> {
+            MessageBatch step = room.beginStep();
+            try{
+                command.run();
+            }finally{
+                step.close();
+            }
+        });
     }
 
     /**
      * Main game logic to initialize token requirements, determine player order,
-     * and manage rounds until the win condition is met.
+     * and start the first round.
      */
     public void game(){
-        if(server.playerMap.size() == 2){
-            tokensToWin = 7; //7
-        }else if(server.playerMap.size() == 3){
-            tokensToWin = 5; //5
-        }else{
-            tokensToWin = 4; // 4
-        }
+        tokensToWin = Engine.tokensToWin(room.playerMap.size());
         orderOfLastDate();
-        turnOrderMap.forEach( (key, value) -> {
-            System.out.println("key" + key + " value" + value);
-            System.out.println("key" + key + " value" + value.nickname);
-        });
-        System.out.println(turnOrderMap.size() + " Turn Order Map Size");
-        server.connectionsMap.get(firstPlayerName).broadcastToAll(firstPlayerName + " starts the round");
-        while(tokensToWin != maxTokens){
-            playRound();
-        }
-        gameWinner();
-        resetGameStats();
+        LOG.debug(() -> Arrays.toString(seats) + " " + seats.length + " seats");
+        room.broadcastToAll(firstPlayerName + " starts the round");
+        playRound();
     }
 
     /**
-     * Initializes the round by resetting player stats, shuffling the deck,
-     * and dealing cards to players.
+     * Starts a round: resets the players, lets the engine deal and starts the turn of the first
+     * player in turn order.
      */
-    public void initializeRound(){
+    public void playRound(){
+        room.broadcastToAll(ROUND_SEPARATOR);
         tokenInfo();
-
-        whosTurn = 0;
-        System.out.println("initializeRound: whosTurn ist " + whosTurn);
-        deck = new Deck();
-        System.out.println("new deck");
         resetPlayerStats();
-        deck.showDeck();
-        deck.shuffleDeck();
-        deck.showDeck();
-        deck.removeOneCard();
-        deck.showDeck();
-        if(server.playerMap.size() == 2){
-            deck.removeThreeCards();
-            server.connectionsMap.values().iterator().next().broadcastToAll("The 3 removed cards are: " +
-                                                                            deck.showThreeRemovedCards() + " | Type " +
-                                                                            "/3cards to see them again.");
-        }
-        turnOrderMap.forEach((key,val)->{
-            Cards c = deck.drawCard();
-            val.drawFirstCard(c);
-        });
-        deck.showDeck();
-        System.out.println("turnOrderMap " + turnOrderMap);
+        long seed = random.nextLong();
+        roundSeeds.add(seed);
+        LOG.info(() -> "room " + room.id + " round " + roundSeeds.size() + " seed " + seed);
+        roundEvent = new JfrEvents.Round();
+        roundEvent.begin();
+        roundEvent.seed = seed;
+        Result result = Engine.deal(seats.length, 0, seed);
+        state = result.state();
+        track(result);
+        LOG.debug("playRound: {}", state);
+        if(seats.length == 2){
+            room.broadcastToAll("The 3 removed cards are: " + threeRemovedCards() + " | Type " +
+                                "/3cards to see them again.");
+        }
+        render(result.events());
     }
 
     /**
-     * Manages the sequence of turns in a round until one player remains or the deck is empty.
-     * Determines the winner if the round ends.
+     * Gets the state of the current round.
+     *
+     * @return the state, or null before the first round
      */
-    public synchronized void playRound(){
-        server.connectionsMap.get(firstPlayerName).broadcastToAll("--------------------------------------------");
-        System.out.println("playRound: whosTurn startet bei " + whosTurn);
-        initializeRound();
-        while(lastManStanding() > 1){
-            while (turnOrderMap.get(whosTurn).isKnockedOutOfRound){
-                whosTurn = (whosTurn + 1) % turnOrderMap.size();
-            }
-            server.connectionsMap.get(firstPlayerName).broadcastToAll(
-                    "------------------------------------------------");
-            server.connectionsMap.get(firstPlayerName).broadcastToAll("Now it is " + turnOrderMap.get(whosTurn).nickname +
-                                                                      "'s turn." );
-            server.connectionsMap.get(firstPlayerName).broadcastToAll(
-                    "------------------------------------------------");
-            turnOrderMap.get(whosTurn).drawCard(deck.drawCard());
-            try{
-                System.out.println("watit");
-                if(!isCountessPlayed){
-                    wait();
-                }
-                isCountessPlayed = false;
-            }catch(InterruptedException e){
-                Thread.currentThread().interrupt();
+    public RoundState state(){
+        return state;
+    }
+
+    /**
+     * Gets what a seat knows about the cards of the current round.
+     *
+     * @param seat the seat
+     * @return the seat's card count, or null before the first round
+     */
+    public Beliefs beliefs(int seat){
+        return seat < beliefs.length ? beliefs[seat] : null;
+    }
+
+    /**
+     * Updates the card count of every seat with a step, and tells the computer players about it.
+     * A deal starts new counts.
+     */
+    private void track(Result result){
+        boolean deal = result.events().get(0) instanceof Event.Dealt;
+        if(deal){
+            beliefs = new Beliefs[seats.length];
+        }
+        for(int seat = 0; seat < seats.length; seat++){
+            if(deal){
+                beliefs[seat] = new Beliefs(result.state(), seat);
+            }else{
+                beliefs[seat].observe(result.events());
             }
-            System.out.println("after wait");
-            if(deck.isEmpty()){
-                break;
+            if(seats[seat].connectionHandler.isBot()){
+                seats[seat].connectionHandler.botObserve(seat, result);
             }
-            whosTurn = (whosTurn + 1) % turnOrderMap.size();
         }
-        if(deck.isEmpty()){
-            System.out.println("deck is empty round winner chcked ealsf");
-            roundWinnerDeck();
-            return;
-        }
-        roundWinner();
     }
 
     /**
-     * Notifies the game that the current player has finished their turn.
+     * Plays an action for a player. The action is checked by the engine first; a rejected action
+     * changes nothing and can be sent again.
+     *
+     * @param player the player who plays
+     * @param action the action, with the target given as seat
+     * @return why the action was rejected, or null if it was played
      */
-    public synchronized void playerFinishedTurn(){
-        System.out.println("playerFinishedTurn() aufgerufen: Notify wird jetzt ausgeführt");
-        notify();
+    public Rejection play(Player player, Action action){
+        if(state == null || state.isOver() || seats[state.current()] != player){
+            return Rejection.ROUND_OVER;
+        }
+        Rejection rejection = Engine.check(state, action);
+        if(rejection != null){
+            return rejection;
+        }
+        apply(action);
+        return null;
     }
+
     /**
-     * Counts players still in the round who are not knocked out.
-     *
-     * @return the count of players still in the round.
+     * Lets the engine play a legal action and renders what happened.
      */
-    public int lastManStanding(){
-        int lastManStand = 0;
-       for(Player p : turnOrderMap.values()){
-           if(p.isKnockedOutOfRound == false){
-               lastManStand += 1;
-           }
-       }
-       return lastManStand;
+    private void apply(Action action){
+        LOG.debug("{} plays {}", seats[state.current()].nickname, action);
+        if(turnEvent != null && turnEvent.shouldCommit()){
+            Player player = seats[state.current()];
+            turnEvent.room = room.id;
+            turnEvent.player = player.nickname;
+            turnEvent.bot = player.connectionHandler.isBot();
+            turnEvent.commit();
+        }
+        turnEvent = null;
+        lastPlayedCard = action.card();
+        JfrEvents.CardEffect effect = new JfrEvents.CardEffect();
+        effect.begin();
+        Result result = Engine.apply(state, action);
+        if(effect.shouldCommit()){
+            effect.room = room.id;
+            effect.card = Card.name(action.card());
+            effect.target = action.target();
+            effect.guess = action.guess();
+            effect.events = result.events().size();
+            effect.commit();
+        }
+        state = result.state();
+        track(result);
+        render(result.events());
     }
 
     /**
-     * Determines the winner of a round and updates their token count.
+     * Updates the players from the state and sends the events of a step to the players. Ends the
+     * round when the engine says so, and plays the Countess for a player who is forced to.
+     *
+     * @param events the events of the step
      */
-    public void roundWinner(){
-        //only on left with isknoked out == false
-        Player pl = null;
-        for(Player p : turnOrderMap.values()){
-            if(p.isKnockedOutOfRound == false){
-                pl = p;
+    private void render(List<Event> events){
+        syncPlayers();
+        boolean countess = false;
+        for(Event event : events){
+            switch(event){
+                case Event.Dealt e -> {
+                    Player p = seats[e.seat()];
+                    p.hand.clear();
+                    p.drawFirstCard(Cards.of(e.card()));
+                }
+                case Event.TurnStarted e -> {
+                    turnEvent = new JfrEvents.TurnWait();
+                    turnEvent.begin();
+                    room.broadcastToAll(TURN_SEPARATOR);
+                    room.broadcastToAll("Now it is " + seats[e.seat()].nickname + "'s turn." );
+                    room.broadcastToAll(TURN_SEPARATOR);
+                }
+                case Event.Drew e -> countess = drew(e);
+                case Event.CardPlayed e -> {
+                    Player p = seats[e.seat()];
+                    p.discardedCards.add(Card.name(e.card()));
+                    room.broadcastToAll(p.nickname + " has played & discarded " + Card.name(e.card()));
+                }
+                case Event.NoTarget e -> room.broadcastToAll(seats[e.seat()].nickname
+                                                             + " is the only player who is not immune. The card is "
+                                                             + "discarded without an effect");
+                case Event.Targeted e -> room.broadcastToAll(seats[e.target()].nickname
+                                                             + " is being targeted");
+                case Event.GuardGuess e -> {
+                    String target = seats[e.target()].nickname;
+                    if(e.hit()){
+                        room.broadcastToAll(target + " has the number " + e.guess() + " on his hand. " + target
+                                            + " is knocked out of the round.");
+                    }else{
+                        room.broadcastToAll(target + " does not have the number " + e.guess() + " on his hand. "
+                                            + "The Guard card is discarded without effect.");
+                    }
+                }
+                case Event.PriestPeek e -> {
+                    Player p = seats[e.seat()];
+                    String target = seats[e.target()].nickname;
+                    room.broadcastToAll(p.nickname + " has looked at " + target + "'s hand.");
+                    p.connectionHandler.sendMessage("You viewed " + target + "'s hand, which contains: "
+                                                    + Card.name(e.card()) + " | ");
+                }
+                case Event.BaronCompare e -> baronCompare(e);
+                case Event.Protected e -> room.broadcastToAll(seats[e.seat()].nickname
+                                                              + " is now immune for the round.");
+                case Event.PrinceDiscard e -> {
+                    Player p = seats[e.target()];
+                    p.discardedCards.add(Card.name(e.card()));
+                    room.broadcastToAll(p.nickname + " has discarded " + Card.name(e.card()));
+                }
+                case Event.PrinceDraw e -> {
+                    Player p = seats[e.target()];
+                    p.connectionHandler.sendMessage("You have drawn the card: " + Card.name(e.card()));
+                    p.connectionHandler.sendMessage("Your hand: " + Card.name(e.card()));
+                }
+                case Event.KingSwap e -> {
+                    seats[e.seat()].connectionHandler.sendMessage(
+                            "Your new hand after the trade is: " + Card.name(e.seatCard()));
+                    seats[e.target()].connectionHandler.sendMessage(
+                            "Your new hand after the trade is: " + Card.name(e.targetCard()));
+                }
+                case Event.KnockedOut e -> knockedOut(e);
+                case Event.Showdown e -> showdown(e);
+                case Event.RoundOver e -> {
+                    roundWinner(e.winners());
+                    roundFinished();
+                    return;
+                }
             }
         }
-        pl.numberOfTokens += 1;
-        server.connectionsMap.get(pl.nickname).broadcastToAll(pl.nickname + " won the round and has now " + pl.numberOfTokens + " tokens.");
-        for(Player p : turnOrderMap.values()){
-            maxTokens = Math.max(maxTokens, p.numberOfTokens);
+        if(countess){
+            apply(Action.play(Card.COUNTESS));
+            return;
         }
-        System.out.println(maxTokens + " maxTokesn");
-
-        updateOrderOfPlay(pl);
+        promptBot();
     }
 
     /**
-     * Determines the winner of a round if the deck is empty, comparing card values.
+     * Lets a computer player know that it is its turn.
      */
-    public void roundWinnerDeck(){
-        compareValueOfCards();
+    private void promptBot(){
+        Player p = seats[state.current()];
+        if(!state.isOver() && p.connectionHandler.isBot()){
+            p.connectionHandler.botTurn(state);
+        }
     }
 
     /**
-     * Determines the winner of the game based on tokens.
+     * Hands the drawn card to the player whose turn it is and asks for a card to play.
+     *
+     * @return true if the Countess has to be played instead
      */
-    public void gameWinner(){
-        server.connectionsMap.get(firstPlayerName).broadcastToAll("GAME OVER");
-        int numberOfWinners = 0;
-        for(Player p: turnOrderMap.values()){
-            if(p.numberOfTokens == tokensToWin){
-                numberOfWinners += 1;
-                p.hasWonGame = true;
-            }
+    private boolean drew(Event.Drew e){
+        Player p = seats[e.seat()];
+        p.hand.clear();
+        p.hand.add(Cards.of(state.hand(e.seat())));
+        p.drawCard(Cards.of(e.card()));
+        if(Engine.mustPlayCountess(state)){
+            p.connectionHandler.sendMessage("Your hand contains the Countess and either a King or Prince. The "
+                                            + "Countess is played.");
+            return true;
         }
-        System.out.println("game Winner method");
-        System.out.println("number of Winners: " + numberOfWinners);
-        if(numberOfWinners == 1){
-            for(Player p: turnOrderMap.values()){
-                if(p.hasWonGame){
-                    server.connectionsMap.get(p.nickname).broadcastToAll(p.nickname + " has won the game.");
-                    break;
-                }
-            }
+        p.isMyTurn = true;
+        p.connectionHandler.sendMessage("Which card do you want to play? \n"
+                                        + "Type '/play <cardName>' to play a card. For example /play Guard ");
+        return false;
+    }
 
+    /**
+     * Tells both players of a Baron how the comparison went.
+     */
+    private void baronCompare(Event.BaronCompare e){
+        Player attacker = seats[e.seat()];
+        Player target = seats[e.target()];
+        if(e.seatCard() == e.targetCard()){
+            target.connectionHandler.sendMessage("It's a tie. Nothing happens");
+            attacker.connectionHandler.sendMessage("It's a tie. Nothing happens");
+        }else if(e.seatCard() < e.targetCard()){
+            target.connectionHandler.sendMessage("Your card has a higher value than " + attacker.nickname);
+            attacker.connectionHandler.sendMessage("Your card has a lower value than " + target.nickname);
         }else{
-            StringBuilder stringBuilder = new StringBuilder(100);
-            stringBuilder.append("|");
-            for(Player p : turnOrderMap.values()){
-                if(p.hasWonGame){
-                    stringBuilder.append(p.nickname).append( " | ");
-                }
-            }
-            server.connectionsMap.get(firstPlayerName).broadcastToAll(stringBuilder.toString() + "have won the game.");
+            attacker.connectionHandler.sendMessage("Your card has a higher value than " + target.nickname);
+            target.connectionHandler.sendMessage("Your card has a lower value than " + attacker.nickname);
         }
-
     }
 
     /**
-     * Compares the discarded card values of players to determine the winner when there is a tie.
-     * The player with the highest discarded card value wins the round.
+     * Announces a player who is out of the round and reveals the player's discarded cards.
      */
-    public void compareDiscardedCardsValue(){
-        int max = 0;
-        for(Player p : turnOrderMap.values()){
-            if(p.highestCardValue){
-                max = Math.max(max, p.discardedCardsValue);
-            }
+    private void knockedOut(Event.KnockedOut e){
+        Player p = seats[e.seat()];
+        if(e.card() == Card.PRINCESS || lastPlayedCard == Card.PRINCESS){
+            room.broadcastToAll(p.nickname + " discarded the Princess and is knocked out of the round.");
+        }else if(lastPlayedCard != Card.GUARD){
+            room.broadcastToAll(p.nickname + " is knocked out of the round");
         }
-        int howManyHaveHighestDiscardedCardsValue = 0;
-        for(Player p : turnOrderMap.values()){
-            if(p.discardedCardsValue == max){
-                howManyHaveHighestDiscardedCardsValue += 1;
-                p.highestDiscardedCardValue = true;
-                server.connectionsMap.get(p.nickname).broadcastToAll(p.nickname + " has the highest discarded Cards " +
-                                                                     "value " + max);
-            }
+        if(e.card() != Card.NONE){
+            p.discardedCards.add(Card.name(e.card()));
+        }
+        room.broadcastToAll(p.nickname + " discardedCards are " + p.discardedCards.toString());
+    }
 
+    /**
+     * Reveals the card of a player still in the round once the deck is empty.
+     */
+    private void showdown(Event.Showdown e){
+        if(!isShowdownStarted){
+            isShowdownStarted = true;
+            room.broadcastToAll(DECK_EMPTY_SEPARATOR);
+            room.broadcastToAll("The Deck is empty. Checking for a winner");
         }
-        if(howManyHaveHighestDiscardedCardsValue > 1){
-            StringBuilder stringBuilder = new StringBuilder(20);
-            for(Player p : turnOrderMap.values()){
-                if(p.highestDiscardedCardValue){
-                    p.numberOfTokens += 1;
-                    stringBuilder.append(p.nickname).append(" # ofTokens = ").append(p.numberOfTokens).append(" | ");
+        room.broadcastToAll(seats[e.seat()].nickname + " has the card " + Card.name(e.card())
+                            + " and discarded cards worth " + e.discardSum());
+    }
 
-                }
+    /**
+     * Starts the next round, or ends the game once a player has enough tokens.
+     */
+    private void roundFinished(){
+        if(maxTokens < tokensToWin){
+            playRound();
+            return;
+        }
+        gameWinner();
+        resetGameStats();
+    }
 
+    /**
+     * Copies the state of the round into the players, which the commands and the state frame read.
+     */
+    private void syncPlayers(){
+        for(int seat = 0; seat < seats.length; seat++){
+            Player p = seats[seat];
+            p.isMyTurn = false;
+            p.isKnockedOutOfRound = state.isKnockedOut(seat);
+            p.isImmune = state.isProtected(seat);
+            p.discardedCardsValue = state.discardSum(seat);
+            p.hand.clear();
+            if(state.hand(seat) != Card.NONE){
+                p.hand.add(Cards.of(state.hand(seat)));
             }
-            server.connectionsMap.get(firstPlayerName).broadcastToAll("It's a tie again. The following players win " +
-                                                                      "the round: " + stringBuilder.toString());
-            Player pla = youngestPlayer();
-            for(Player p : turnOrderMap.values()){
-                maxTokens = Math.max(maxTokens, p.numberOfTokens);
-            }
-            updateOrderOfPlay(pla);
-        }else{
-            Player player = null;
-            for(Player p : turnOrderMap.values()){
-                if(p.highestDiscardedCardValue){
-                    player = p;
-                    break;
-                }
+            if(seat == state.current() && state.drawn() != Card.NONE){
+                p.hand.add(Cards.of(state.drawn()));
             }
-            player.numberOfTokens += 1;
-            server.connectionsMap.get(player.nickname).broadcastToAll(player.nickname + " won the round and has now " + player.numberOfTokens + " tokens.");
+        }
+    }
+
+    /**
+     * Counts players still in the round who are not knocked out.
+     *
+     * @return the count of players still in the round.
+     */
+    public int lastManStanding(){
+        return state == null ? seats.length : state.aliveCount();
+    }
 
-            for(Player p : turnOrderMap.values()){
-                maxTokens = Math.max(maxTokens, p.numberOfTokens);
+    /**
+     * Gives the winners of a round a token each and lets the youngest of them start the next round.
+     *
+     * @param winners the seats that won the round
+     */
+    public void roundWinner(int[] winners){
+        for(int seat : winners){
+            seats[seat].numberOfTokens += 1;
+        }
+        if(winners.length == 1){
+            Player pl = seats[winners[0]];
+            room.broadcastToAll(pl.nickname + " won the round and has now " + pl.numberOfTokens + " tokens.");
+        }else{
+            StringBuilder stringBuilder = new StringBuilder(20);
+            for(int seat : winners){
+                Player p = seats[seat];
+                stringBuilder.append(p.nickname).append(" # ofTokens = ").append(p.numberOfTokens).append(" | ");
             }
-            updateOrderOfPlay(player);
+            room.broadcastToAll("It's a tie. The following players win the round: " + stringBuilder.toString());
+        }
+        for(Player p : seats){
+            maxTokens = Math.max(maxTokens, p.numberOfTokens);
         }
+        LOG.debug("{} max tokens", maxTokens);
+        if(roundEvent != null && roundEvent.shouldCommit()){
+            roundEvent.room = room.id;
+            roundEvent.round = roundSeeds.size();
+            roundEvent.players = seats.length;
+            roundEvent.winners = winners.length;
+            roundEvent.commit();
+        }
+        roundEvent = null;
+        updateOrderOfPlay(youngestPlayer(winners));
     }
+
     /**
-     * Compares the values of players' current cards to determine the round winner when the deck is empty.
-     * If there is a tie in card values, compares discarded card values to break the tie.
+     * Determines the winner of the game based on tokens.
      */
-    public void compareValueOfCards(){
-        server.connectionsMap.get(firstPlayerName).broadcastToAll("-----------------------------------------");
-
-        server.connectionsMap.get(firstPlayerName).broadcastToAll("The Deck is empty. Checking for a winner");
-        int max = 0;
-        for(Player p : turnOrderMap.values()){
-            if(p.isKnockedOutOfRound == false && !p.hand.isEmpty()){
-                max = Math.max(max, p.hand.get(0).getValue());
+    public void gameWinner(){
+        room.broadcastToAll("GAME OVER");
+        int numberOfWinners = 0;
+        for(Player p: seats){
+            if(p.numberOfTokens == maxTokens){
+                numberOfWinners += 1;
+                p.hasWonGame = true;
             }
         }
-        int howManyHaveHighestValueCard = 0;
-        for(Player p : turnOrderMap.values()){
-            if(p.isKnockedOutOfRound == false && !p.hand.isEmpty()){
-                if(p.hand.get(0).getValue() == max){
-                    p.highestCardValue = true;
-                    howManyHaveHighestValueCard += 1;
-                    server.connectionsMap.get(p.nickname).broadcastToAll(p.nickname + " has the highest card value of " + max);
+        LOG.debug("game winner, number of winners: {}", numberOfWinners);
+        if(numberOfWinners == 1){
+            for(Player p: seats){
+                if(p.hasWonGame){
+                    room.broadcastToAll(p.nickname + " has won the game.");
+                    break;
                 }
             }
 
-        }
-        if(howManyHaveHighestValueCard > 1){
-            server.connectionsMap.get(firstPlayerName).broadcastToAll("It's a tie. Highest Value of discarded Cards " +
-                                                                      "will be checked");
-            compareDiscardedCardsValue();
         }else{
-            Player player = null;
-            for(Player p : turnOrderMap.values()){
-                if(p.highestCardValue){
-                    player = p;
-                    break;
+            StringBuilder stringBuilder = new StringBuilder(100);
+            stringBuilder.append("|");
+            for(Player p : seats){
+                if(p.hasWonGame){
+                    stringBuilder.append(p.nickname).append( " | ");
                 }
             }
-            player.numberOfTokens += 1;
-            for(Player p : turnOrderMap.values()){
-                maxTokens = Math.max(maxTokens, p.numberOfTokens);
-            }
-            updateOrderOfPlay(player);
+            room.broadcastToAll(stringBuilder.toString() + "have won the game.");
         }
 
     }
 
+    /**
+     * Returns the three cards removed face up in a two player round.
+     *
+     * @return the names of the three removed cards, formatted as a string.
+     */
+    public String threeRemovedCards(){
+        StringBuilder stringBuilder = new StringBuilder("|");
+        for(int card : state.faceUp()){
+            stringBuilder.append(" ").append(Card.name(card)).append(" |");
+        }
+        return stringBuilder.toString();
+    }
+
     /**
      * Sorts players by the time of their last date, and if tied, by their age to determine the order of play.
      * Sets the first player name and updates the turn order map.
      */
     private void orderOfLastDate(){
-        List<Player> players = new ArrayList<>(server.playerMap.values());
+        List<Player> players = new ArrayList<>(room.playerMap.values());
         // Sort players based on lastDate (ascending), then age (ascending)
         players.sort((p1, p2) -> {
             if (p1.lastDate != p2.lastDate) {
@@ -341,34 +526,28 @@ public class Game implements Runnable {
                 return Long.compare(p1.age, p2.age); // Younger player first if dates are equal
             }
         });
-        for(int i = 0; i < players.size(); i++){
-            Player p = players.get(i);
+        seats = players.toArray(new Player[0]);
+        for(int i = 0; i < seats.length; i++){
+            Player p = seats[i];
             p.turnOrder = i;
             if(i == 0){
                 firstPlayerName = p.nickname;
             }
-            turnOrderMap.put(i, p);
-            server.connectionsMap.get(p.nickname).broadcastToAll(p.nickname + " turn order is " + p.turnOrder);
+            room.broadcastToAll(p.nickname + " turn order is " + p.turnOrder);
         }
     }
 
     /**
-     * Determines the youngest player among those with the highest discarded card value in case of a tie.
+     * Determines the youngest player among the winners of a round, who starts the next round.
      *
-     * @return the youngest player with the highest discarded card value.
+     * @param winners the seats that won the round
+     * @return the youngest winner
      */
-    private Player youngestPlayer(){
-        Player player = null;
-        long min = Long.MAX_VALUE;
-        for(Player p : turnOrderMap.values()){
-            if(p.highestDiscardedCardValue){
-                min = Math.min(min, p.age);
-            }
-
-        }
-        for(Player p : turnOrderMap.values()){
-            if(p.age == min){
-                player = p;
+    private Player youngestPlayer(int[] winners){
+        Player player = seats[winners[0]];
+        for(int seat : winners){
+            if(seats[seat].age < player.age){
+                player = seats[seat];
             }
         }
         return player;
@@ -381,93 +560,78 @@ public class Game implements Runnable {
      * @param player the player who won the last round and will start the next round.
      */
     private void updateOrderOfPlay(Player player){
-        System.out.println("old turnordermap");
-        turnOrderMap.forEach( (key, value) -> {
-            System.out.println("key" + key + " value" + value);
-            System.out.println("key" + key + " value" + value.nickname);
-        });
         int numberToAdd = player.turnOrder;
-        System.out.println(numberToAdd + " numberTo Add");
-
-        List<Player> newOrder = new ArrayList<>();
-        for(int i = 0; i<turnOrderMap.size(); i++){
-            int newIdx = (i + numberToAdd) % turnOrderMap.size();
-            newOrder.add(turnOrderMap.get(newIdx));
+        LOG.debug("{} number to add", numberToAdd);
+        // rotate the seats in place so the player gets seat 0
+        for(int shift = 0; shift < numberToAdd; shift++){
+            Player first = seats[0];
+            System.arraycopy(seats, 1, seats, 0, seats.length - 1);
+            seats[seats.length - 1] = first;
         }
-        turnOrderMap.clear();
-        for(int i = 0; i<newOrder.size(); i++){
-            Player p = newOrder.get(i);
-            p.turnOrder = i;
-            turnOrderMap.put(i, p);
-        }
-        whosTurn = 0;
-        System.out.println("whos turn = " + whosTurn);
-        System.out.println("new turnordermap");
-        turnOrderMap.forEach( (key, value) -> {
-            System.out.println("key" + key + " value" + value);
-            System.out.println("key" + key + " value" + value.nickname);
-        });
-        server.connectionsMap.get(player.nickname).broadcastToAll("---------------------------------------------");
-        if(tokensToWin == maxTokens){
+        for(int i = 0; i < seats.length; i++){
+            seats[i].turnOrder = i;
+        }
+        LOG.debug(() -> "new turn order " + Arrays.toString(seats));
+        room.broadcastToAll(TURN_ORDER_SEPARATOR);
+        if(maxTokens >= tokensToWin){
             return;
         }
-        server.connectionsMap.get(player.nickname).broadcastToAll("The new TurnOrder is: ");
-        for(int i = 0; i<turnOrderMap.size(); i++){
-            Player p = turnOrderMap.get(i);
-            server.connectionsMap.get(p.nickname).broadcastToAll(p.nickname + " turn order is " + p.turnOrder);
+        room.broadcastToAll("The new TurnOrder is: ");
+        for(int i = 0; i<seats.length; i++){
+            Player p = seats[i];
+            room.broadcastToAll(p.nickname + " turn order is " + p.turnOrder);
         }
-        System.out.println(player.nickname + " starts the next round");
-        server.connectionsMap.get(player.nickname).broadcastToAll(player.nickname + " starts the next round");
+        LOG.debug("{} starts the next round", player.nickname);
+        room.broadcastToAll(player.nickname + " starts the next round");
     }
 
     /**
      * Resets player statistics at the end of a round.
      */
     public void resetPlayerStats(){
-        for(Player p : turnOrderMap.values()){
+        for(Player p : seats){
             p.isMyTurn = false;
             p.isKnockedOutOfRound = false;
             p.isImmune = false;
-            p.hand = new ArrayList<>();
-            p.discardedCards = new ArrayList<>();
+            p.hand.clear();
+            p.discardedCards.clear();
             p.discardedCardsValue = 0;
-            p.highestCardValue = false;
-            p.highestDiscardedCardValue = false;
             p.hasWonGame = false;
         }
-        knockedOutPlayersSet = new HashSet<>();
-        immunePlayersList = new HashSet<>();
-        isCountessPlayed = false;
+        isShowdownStarted = false;
+    }
+
+    /**
+     * Ends the game because a player left the server; it cannot go on without them. Does nothing if
+     * the game is over already.
+     *
+     * @param nickname the player who left
+     */
+    public void abandon(String nickname){
+        if(!room.isGameRunning()){
+            return;
+        }
+        room.broadcastToAll(nickname + " left the server. The game is over.");
+        resetGameStats();
     }
 
     /**
      * Resets the game statistics, allowing a new game to be started.
      */
     public void resetGameStats(){
-        server.connectionsMap.get(firstPlayerName).broadcastToAll("-----------------------------------");
-        server.connectionsMap.get(firstPlayerName).broadcastToAll("Type /create to play another game.");
-        server.isGameCreated = false;
-        server.isGameRunning = false;
-        server.playerCounter = 0;
-        server.dateCounter = 0;
-        server.birthdayCounter = 0;
-        server.playerMap = Collections.synchronizedMap(new HashMap<>());
-        server.connectionsMap.forEach( (key, value) -> {
-            value.hasJoinedGame = false;
-        });
-        isCountessPlayed = false;
+        room.broadcastToAll(GAME_OVER_SEPARATOR);
+        room.broadcastToAll("Type /create to play another game.");
+        room.close();
     }
 
     /**
      * Broadcasts the token information for each player to all players.
      */
     public void tokenInfo(){
-        server.connectionsMap.get(firstPlayerName).broadcastToAll(tokensToWin + " tokens are required to win!");
-        for(Player p : turnOrderMap.values()){
-            server.connectionsMap.get(p.nickname).broadcastToAll(p.nickname + " has currently " + p.numberOfTokens +
-                                                                 " tokens");
+        room.broadcastToAll(tokensToWin + " tokens are required to win!");
+        for(Player p : seats){
+            room.broadcastToAll(p.nickname + " has currently " + p.numberOfTokens + " tokens");
         }
-        server.connectionsMap.get(firstPlayerName).broadcastToAll(
-                "------------------------------------------------");
+        room.broadcastToAll(TURN_SEPARATOR);
     }
 }
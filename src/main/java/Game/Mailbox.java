@@ -0,0 +1,75 @@
+package Game;
+
+import ServerClient.Log;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs posted tasks one at a time, in the order they were posted, on a shared executor.
+ * Every game owns a mailbox, so its state is only ever touched by one thread at a time without any
+ * locks, while thousands of games share a small pool of threads. A mailbox holds no thread while it
+ * is empty.
+ */
+public class Mailbox {
+
+    private static final Log LOG = Log.get("Mailbox");
+
+    /** Maximum number of tasks run in one go before the thread is given to other mailboxes. */
+    private static final int MAX_BATCH = 64;
+
+    private final Executor executor;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * Creates an empty mailbox.
+     *
+     * @param executor the executor shared by all mailboxes
+     */
+    public Mailbox(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Posts a task. Can be called from any thread, also from a task of this mailbox.
+     *
+     * @param task the task to run
+     */
+    public void post(Runnable task) {
+        tasks.add(task);
+        schedule();
+    }
+
+    /**
+     * Hands the mailbox to the executor unless it is already scheduled.
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Runs the queued tasks, then releases the mailbox and schedules it again if more tasks arrived.
+     */
+    private void drain() {
+        Runnable task;
+        int count = 0;
+        while (count < MAX_BATCH && (task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // a failing command must not stop the game
+                LOG.error("A game command failed", e);
+            }
+            count++;
+        }
+        scheduled.set(false);
+        if (!tasks.isEmpty()) {
+            schedule();
+        }
+    }
+}
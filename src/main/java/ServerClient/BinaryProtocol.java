@@ -0,0 +1,188 @@
+package ServerClient;
+
+import engine.Card;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The compact binary protocol, an alternative to the text commands for bots and load generators.
+ * <p>
+ * Every connection starts in text mode and is greeted with the usual name prompt. A client that wants
+ * the binary protocol sends {@link #MAGIC} as its very first bytes instead of a name; the server
+ * answers with the same bytes and from then on both sides exchange frames. The prompt is sent before
+ * the client's first byte is seen, so the client reads the prompt line up to its line feed before the
+ * echoed magic:
+ * <pre>
+ * +----------------+--------+-----------------+
+ * | length (u16 BE)| opcode | payload         |
+ * +----------------+--------+-----------------+
+ * </pre>
+ * The length counts the opcode and the payload. Text payloads are UTF-8 without line terminator.
+ * <p>
+ * Client to server: {@link #LOGIN}, {@link #PLAY}, {@link #TARGET}, {@link #NUMBER}, {@link #MOVE},
+ * {@link #STATE} and {@link #COMMAND}. Server to client: {@link #TEXT} for every message of the text
+ * protocol and {@link #STATE} as answer to a state request.
+ */
+public final class BinaryProtocol {
+
+    /** Sent by the client instead of a name to switch to frames, and echoed by the server. Version 1. */
+    public static final byte[] MAGIC = {0, 'L', 'L', 1};
+
+    /** Logs in, payload is the nickname. */
+    public static final int LOGIN = 0x01;
+    /** Plays a card, payload is the card value (u8). */
+    public static final int PLAY = 0x02;
+    /** Chooses the target of the played card, payload is the target's nickname. */
+    public static final int TARGET = 0x03;
+    /** Guesses a number for the Guard, payload is the number (u8). */
+    public static final int NUMBER = 0x04;
+    /**
+     * Requests the game state (empty payload) or answers it:
+     * flags (u8: 1 in game, 2 my turn, 4 knocked out, 8 immune), tokens (u8), hand size (u8),
+     * card values (u8 each), player count (u8), then per player tokens (u8), flags (u8: 1 knocked out,
+     * 2 immune), name length (u8) and name.
+     */
+    public static final int STATE = 0x05;
+    /** Any text command or chat message, payload is the line as typed in text mode. */
+    public static final int COMMAND = 0x06;
+    /**
+     * Plays a card with its target and number in one step, like {@code /move}: card value (u8),
+     * guessed number (u8, 0 if none) and the target's nickname (may be empty).
+     */
+    public static final int MOVE = 0x07;
+    /** A message of the server, payload is the text. */
+    public static final int TEXT = 0x10;
+
+    /** Flag bits of the state frame. */
+    public static final int IN_GAME = 1, MY_TURN = 2, KNOCKED_OUT = 4, IMMUNE = 8;
+
+    /** Largest frame a client may send, including the length prefix. */
+    public static final int MAX_INBOUND_FRAME = 8192;
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Builds a frame.
+     *
+     * @param opcode  the opcode
+     * @param payload the payload
+     * @param offset  start of the payload in the array
+     * @param length  length of the payload
+     * @return the encoded frame including the length prefix
+     */
+    public static byte[] frame(int opcode, byte[] payload, int offset, int length) {
+        int bodyLength = length + 1;
+        if (bodyLength > 0xFFFF) {
+            throw new IllegalArgumentException("Frame too long: " + bodyLength);
+        }
+        byte[] frame = new byte[bodyLength + 2];
+        frame[0] = (byte) (bodyLength >>> 8);
+        frame[1] = (byte) bodyLength;
+        frame[2] = (byte) opcode;
+        System.arraycopy(payload, offset, frame, 3, length);
+        return frame;
+    }
+
+    /**
+     * Builds a frame with a text payload.
+     *
+     * @param opcode the opcode
+     * @param text   the text
+     * @return the encoded frame
+     */
+    public static byte[] frame(int opcode, String text) {
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        return frame(opcode, payload, 0, payload.length);
+    }
+
+    /**
+     * Builds a frame with a single byte payload.
+     *
+     * @param opcode the opcode
+     * @param value  the payload value, 0 to 255
+     * @return the encoded frame
+     */
+    public static byte[] frame(int opcode, int value) {
+        return new byte[]{0, 2, (byte) opcode, (byte) value};
+    }
+
+    /**
+     * Turns an encoded text line into a {@link #TEXT} frame, dropping the line terminator.
+     *
+     * @param line the UTF-8 line ending with a line feed
+     * @return the encoded frame
+     */
+    static byte[] textFrame(byte[] line) {
+        int length = line.length;
+        if (length > 0 && line[length - 1] == '\n') {
+            length--;
+        }
+        return frame(TEXT, line, 0, length);
+    }
+
+    /**
+     * Checks if the bytes at the given position are the protocol magic.
+     *
+     * @param bytes  the received bytes
+     * @param offset where the magic should start
+     * @return true if the magic matches
+     */
+    static boolean isMagic(byte[] bytes, int offset) {
+        return Arrays.equals(bytes, offset, offset + MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    /**
+     * Gets the name of a card by its value.
+     *
+     * @param value the card value
+     * @return the card name, or null if no card has this value
+     */
+    public static String cardName(int value) {
+        return Card.name(value);
+    }
+
+    /**
+     * Collects the payload of a state frame.
+     */
+    static class StateWriter {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+
+        /**
+         * Appends a byte.
+         *
+         * @param value the value, 0 to 255
+         * @return this writer
+         */
+        StateWriter u8(int value) {
+            out.write(Math.min(value, 0xFF));
+            return this;
+        }
+
+        /**
+         * Appends a name, prefixed by its length.
+         *
+         * @param name the name
+         * @return this writer
+         */
+        StateWriter name(String name) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            int length = Math.min(bytes.length, 0xFF);
+            out.write(length);
+            out.write(bytes, 0, length);
+            return this;
+        }
+
+        /**
+         * Builds the state frame.
+         *
+         * @return the encoded frame
+         */
+        byte[] toFrame() {
+            byte[] payload = out.toByteArray();
+            return frame(STATE, payload, 0, payload.length);
+        }
+    }
+}
@@ -42,7 +42,7 @@ public class Client implements Runnable {
                 if (inMessage.startsWith("You left the server")) {
                     shutdown();
                     break;
-                } else if (inMessage.startsWith("Server full or a game is currently running.")) {
+                } else if (inMessage.startsWith("Server full.")) {
                     shutdown();
                     break;
                 }
@@ -0,0 +1,153 @@
+package ServerClient;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts values, e.g. latencies in nanoseconds, in buckets of fixed relative width, like an HDR
+ * histogram with two significant digits. Values below {@link #SUB_BUCKETS} have a bucket each; above,
+ * every power of two is split into {@link #SUB_BUCKETS}/2 buckets, so a percentile is at most 1/64
+ * too high. The buckets cover every non-negative long in a fixed array of about 30 KB.
+ * <p>
+ * Recording is lock-free and never allocates: an atomic increment of one bucket, a striped sum and a
+ * compare-and-set of the maximum. Any number of threads may record while another takes a
+ * {@link #snapshot()}.
+ */
+public class Histogram {
+
+    private static final int SUB_BITS = 7;
+    /** Number of values that have a bucket of their own. */
+    public static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS + 1) * HALF + HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Counts a value. Negative values are counted as 0.
+     *
+     * @param value the value
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.incrementAndGet(index(value));
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Gets the bucket of a value.
+     *
+     * @param value a non-negative value
+     * @return the index of its bucket
+     */
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    /**
+     * Gets the largest value that falls into a bucket.
+     *
+     * @param index the index of the bucket
+     * @return the upper bound of the bucket
+     */
+    static long highest(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long mantissa = index % HALF + HALF;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Copies the current counts. Values recorded while the copy is made may or may not be in it.
+     *
+     * @return the copy
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, sum.sum(), max.get());
+    }
+
+    /**
+     * The counts of a histogram at one moment.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Gets the number of recorded values.
+         *
+         * @return the count
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Gets the sum of the recorded values.
+         *
+         * @return the sum
+         */
+        public long sum() {
+            return sum;
+        }
+
+        /**
+         * Gets the largest recorded value.
+         *
+         * @return the maximum, 0 if nothing was recorded
+         */
+        public long max() {
+            return max;
+        }
+
+        /**
+         * Gets a percentile of the recorded values.
+         *
+         * @param quantile the quantile, e.g. 0.99
+         * @return the upper bound of the bucket that holds the percentile, at most the maximum; 0 if
+         *         nothing was recorded
+         */
+        public long percentile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highest(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
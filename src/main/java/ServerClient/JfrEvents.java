@@ -0,0 +1,175 @@
+package ServerClient;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events of the server, so a recording shows the games next to what the JVM did
+ * at the same time. Start a recording with {@code -XX:StartFlightRecording} or {@code jcmd <pid>
+ * JFR.start} and look at it with {@code jfr print --categories "Love Letter" recording.jfr}.
+ * <p>
+ * The events stay compiled in. While no recording enables them, {@code begin()} and {@code commit()}
+ * do nothing and {@code shouldCommit()} is false, so callers only fill in the fields behind that check.
+ * None of them records a stack trace.
+ */
+public final class JfrEvents {
+
+    private static final String CATEGORY = "Love Letter";
+
+    private JfrEvents() {
+    }
+
+    /**
+     * A round of a game, from the deal until the winners are known.
+     */
+    @Name("loveletter.Round")
+    @Label("Round")
+    @Category({CATEGORY, "Game"})
+    @Description("A round from the deal until its winners get their tokens")
+    @StackTrace(false)
+    public static final class Round extends Event {
+        @Label("Room")
+        public String room;
+        @Label("Round")
+        @Description("Number of the round in its game, starting at 1")
+        public int round;
+        @Label("Seed")
+        @Description("Seed the round can be replayed from")
+        public long seed;
+        @Label("Players")
+        public int players;
+        @Label("Winners")
+        @Description("Number of players who won the round")
+        public int winners;
+    }
+
+    /**
+     * The time a game waits for a player to move, from the start of the turn until the move is played.
+     */
+    @Name("loveletter.TurnWait")
+    @Label("Turn Wait")
+    @Category({CATEGORY, "Game"})
+    @Description("From the start of a turn until the player's move is played")
+    @StackTrace(false)
+    public static final class TurnWait extends Event {
+        @Label("Room")
+        public String room;
+        @Label("Player")
+        public String player;
+        @Label("Bot")
+        public boolean bot;
+    }
+
+    /**
+     * The engine playing one card, including its effect.
+     */
+    @Name("loveletter.CardEffect")
+    @Label("Card Effect")
+    @Category({CATEGORY, "Game"})
+    @Description("The engine playing a card and its effect")
+    @StackTrace(false)
+    public static final class CardEffect extends Event {
+        @Label("Room")
+        public String room;
+        @Label("Card")
+        public String card;
+        @Label("Target")
+        @Description("Seat of the target, -1 for none")
+        public int target;
+        @Label("Guess")
+        @Description("Guessed card of a Guard, -1 for none")
+        public int guess;
+        @Label("Events")
+        @Description("Number of events of the step")
+        public int events;
+    }
+
+    /**
+     * Queueing one message for all players and spectators of a room.
+     */
+    @Name("loveletter.Broadcast")
+    @Label("Broadcast")
+    @Category({CATEGORY, "Network"})
+    @Description("Queueing one message for every player and spectator of a room")
+    @StackTrace(false)
+    public static final class Broadcast extends Event {
+        @Label("Room")
+        public String room;
+        @Label("Recipients")
+        public int recipients;
+        @Label("Message Size")
+        @DataAmount
+        public int bytes;
+    }
+
+    /**
+     * A client connected to the server.
+     */
+    @Name("loveletter.ConnectionAccepted")
+    @Label("Connection Accepted")
+    @Category({CATEGORY, "Network"})
+    @Description("A client connected, and whether the server had room for it")
+    @StackTrace(false)
+    public static final class ConnectionAccepted extends Event {
+        @Label("Remote Address")
+        public String remote;
+        @Label("Transport")
+        @Description("\"socket\" for a thread per client, \"nio\" for the selector")
+        public String transport;
+        @Label("Admitted")
+        @Description("False if the client was turned away because the server is full")
+        public boolean admitted;
+    }
+
+    /**
+     * The server closed the connection of a client.
+     */
+    @Name("loveletter.ConnectionClosed")
+    @Label("Connection Closed")
+    @Category({CATEGORY, "Network"})
+    @Description("The connection of a client was closed")
+    @StackTrace(false)
+    public static final class ConnectionClosed extends Event {
+        @Label("Remote Address")
+        public String remote;
+        @Label("Transport")
+        public String transport;
+    }
+
+    /**
+     * Records that a client connected.
+     *
+     * @param remote    the address of the client
+     * @param transport "socket" or "nio"
+     * @param admitted  false if the server was full
+     */
+    static void accepted(Object remote, String transport, boolean admitted) {
+        ConnectionAccepted event = new ConnectionAccepted();
+        if (event.shouldCommit()) {
+            event.remote = String.valueOf(remote);
+            event.transport = transport;
+            event.admitted = admitted;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records that the connection of a client was closed.
+     *
+     * @param remote    the address of the client
+     * @param transport "socket" or "nio"
+     */
+    static void closed(Object remote, String transport) {
+        ConnectionClosed event = new ConnectionClosed();
+        if (event.shouldCommit()) {
+            event.remote = String.valueOf(remote);
+            event.transport = transport;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ServerClient;
+
+import java.util.function.Function;
+
+/**
+ * Holds the options of a load test, read from the command line in {@link LoadGenerator#main(String[])},
+ * for example {@code --clients 2000 --players 4 --ramp-ms 5000}.
+ */
+public class LoadConfig {
+
+    /** Host of the server under test. */
+    public String host = "127.0.0.1";
+    /** Port of the server under test. */
+    public int port = 8080;
+    /** Number of simulated clients; they are seated at tables of {@link #players}. */
+    public int clients = 1000;
+    /** Players at every table, 2 to 4. */
+    public int players = 4;
+    /** Time over which the clients connect, so they do not all connect at the same moment. */
+    public long rampMillis = 2000;
+    /** Time a client waits for a message before it gives up. */
+    public long timeoutMillis = 60_000;
+    /** Prefix of the nicknames, so several load tests can share a server. */
+    public String prefix = "load";
+    /** Seed of the clients' choices, or null for a random seed. */
+    public Long seed = null;
+
+    /** The options of {@link #fromArgs(String[])}, printed when the command line is wrong. */
+    public static final String USAGE = "Usage: LoadGenerator [--host <name>] [--port <number>] [--clients <number>]"
+            + " [--players <number>]\n"
+            + "                     [--ramp-ms <number>] [--timeout-ms <number>] [--prefix <name>] [--seed <number>]";
+
+    /**
+     * Creates a configuration from the given command-line arguments.
+     *
+     * @param args the command-line arguments
+     * @return the configuration described by the arguments
+     * @throws IllegalArgumentException if an option is unknown, or its value is missing or not valid
+     */
+    public static LoadConfig fromArgs(String[] args) {
+        LoadConfig config = new LoadConfig();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--host":
+                    config.host = ServerConfig.value(args, ++i, Function.identity());
+                    break;
+                case "--port":
+                    config.port = ServerConfig.value(args, ++i, Integer::parseInt);
+                    break;
+                case "--clients":
+                    config.clients = ServerConfig.value(args, ++i, Integer::parseInt);
+                    break;
+                case "--players":
+                    config.players = ServerConfig.value(args, ++i, Integer::parseInt);
+                    break;
+                case "--ramp-ms":
+                    config.rampMillis = ServerConfig.value(args, ++i, Long::parseLong);
+                    break;
+                case "--timeout-ms":
+                    config.timeoutMillis = ServerConfig.value(args, ++i, Long::parseLong);
+                    break;
+                case "--prefix":
+                    config.prefix = ServerConfig.value(args, ++i, Function.identity());
+                    break;
+                case "--seed":
+                    config.seed = ServerConfig.value(args, ++i, Long::parseLong);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        return config;
+    }
+}
@@ -0,0 +1,467 @@
+package ServerClient;
+
+import engine.Seeds;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+/**
+ * Tests a running server with many scripted clients. The clients are seated at tables of a few
+ * players; at every table the first client creates a room, the others join it, the first starts the
+ * game, everybody answers {@code /date} and {@code /bd}, and then they play legal moves with
+ * {@code /play}, {@code /target} and {@code /number} until the game is over.
+ * <p>
+ * Every client is one virtual thread reading its socket, so thousands of clients need only a few
+ * carrier threads. The latency of a command is the time from sending it to its own answer: the line
+ * the server sends only to this client in response, or the announcement of this client's own move.
+ * Messages about other players that arrive in between do not count.
+ */
+public final class LoadGenerator {
+
+    /** Answers to a move that only the player who sent it gets, e.g. why it was refused. */
+    private static final String[] MOVE_ANSWERS = {"Target is required", "Target is", "Number from 2-8",
+                                                   "Wrong card name", "You cannot", "You have to play the Countess",
+                                                   "You have been knocked out", "You are not playing", "Not your turn",
+                                                   "Player not found", "Please specify", "Please choose a number",
+                                                   "Choose a target", "Play a card that needs"};
+
+    /** The commands whose latency is reported, in the order of a game; "name" is the login. */
+    static final String[] COMMANDS = {"name", "/create", "/join", "/start", "/date", "/bd", "/play", "/target",
+                                      "/number"};
+    private static final int NAME = 0, CREATE = 1, JOIN = 2, START = 3, DATE = 4, BIRTHDAY = 5, PLAY = 6,
+            TARGET = 7, NUMBER = 8;
+
+    private LoadGenerator() {
+    }
+
+    /**
+     * The results of a load test.
+     *
+     * @param clients    the number of clients
+     * @param games      the number of games played to the end
+     * @param failures   why the other clients gave up, one entry per client
+     * @param nanos      the time from the first connection to the last client finishing
+     * @param latencies  the latencies of every command, indexed like {@link #COMMANDS}
+     */
+    public record Report(int clients, int games, List<String> failures, long nanos, Latencies[] latencies) {
+
+        /**
+         * Gets the latencies of all commands together.
+         *
+         * @return the latencies
+         */
+        public Latencies all() {
+            Latencies all = new Latencies();
+            for (Latencies command : latencies) {
+                all.addAll(command);
+            }
+            return all;
+        }
+    }
+
+    /**
+     * Latencies in nanoseconds. Each client records its own, so nothing is shared while the test
+     * runs; they are added up at the end.
+     */
+    public static final class Latencies {
+
+        private long[] values = new long[64];
+        private int size;
+        private boolean sorted = true;
+
+        /**
+         * Records a latency.
+         *
+         * @param nanos the latency
+         */
+        public void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+            sorted = false;
+        }
+
+        /**
+         * Records all latencies of another instance.
+         *
+         * @param other the latencies to add
+         */
+        public void addAll(Latencies other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        /**
+         * Counts the recorded latencies.
+         *
+         * @return the count
+         */
+        public int count() {
+            return size;
+        }
+
+        /**
+         * Gets a percentile of the recorded latencies.
+         *
+         * @param quantile the quantile, e.g. 0.99
+         * @return the smallest latency that is at least as large as that share of latencies, 0 if
+         *         nothing was recorded
+         */
+        public long percentile(double quantile) {
+            if (size == 0) {
+                return 0;
+            }
+            if (!sorted) {
+                Arrays.sort(values, 0, size);
+                sorted = true;
+            }
+            int rank = (int) Math.ceil(quantile * size) - 1;
+            return values[Math.max(0, Math.min(size - 1, rank))];
+        }
+    }
+
+    /**
+     * The clients playing at one table.
+     */
+    private static final class Table {
+
+        final String[] names;
+        /** The id of the room, once the first client created it. */
+        final CompletableFuture<String> room = new CompletableFuture<>();
+
+        Table(String[] names) {
+            this.names = names;
+        }
+    }
+
+    /**
+     * The result of one client: the latencies it measured and whether its game ended.
+     */
+    private record Outcome(boolean finished, String failure, Latencies[] latencies) {
+    }
+
+    /**
+     * One scripted client. It reacts to the messages of the server like a player who reads them and
+     * types the requested command right away.
+     */
+    private static final class ScriptedClient implements Callable<Outcome> {
+
+        private final LoadConfig config;
+        private final Table table;
+        private final int seat;
+        private final long delayNanos;
+        private final RandomGenerator random;
+        private final Latencies[] latencies = new Latencies[COMMANDS.length];
+        private Writer out;
+        /** The command waiting for its answer, or -1. */
+        private int pending = -1;
+        private long sentAt;
+        private List<String> hand = List.of();
+        private String card;
+        private int target;
+
+        ScriptedClient(LoadConfig config, Table table, int seat, long delayNanos, RandomGenerator random) {
+            this.config = config;
+            this.table = table;
+            this.seat = seat;
+            this.delayNanos = delayNanos;
+            this.random = random;
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new Latencies();
+            }
+        }
+
+        /**
+         * Connects, plays the game and disconnects.
+         */
+        @Override
+        public Outcome call() {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+                try (Socket socket = new Socket(config.host, config.port)) {
+                    socket.setSoTimeout((int) config.timeoutMillis);
+                    socket.setTcpNoDelay(true);
+                    BufferedReader in = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                    out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        if (pending >= 0 && isAnswer(pending, line)) {
+                            latencies[pending].add(System.nanoTime() - sentAt);
+                            pending = -1;
+                        }
+                        if (handle(line)) {
+                            return new Outcome(true, null, latencies);
+                        }
+                    }
+                    return failed("closed by the server");
+                }
+            } catch (IOException | TimeoutException | ExecutionException e) {
+                return failed(e.toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return failed("interrupted");
+            }
+        }
+
+        /**
+         * Checks if a line is the answer to a command of this client.
+         *
+         * @param command the command waiting for its answer
+         * @param line    a line received from the server
+         * @return true for the answer, false for a message that was not caused by the command
+         */
+        private boolean isAnswer(int command, String line) {
+            String name = table.names[seat];
+            return switch (command) {
+                case NAME -> line.startsWith("Welcome ") || line.startsWith("Name already taken");
+                case CREATE -> line.startsWith("You created a game in room ");
+                case JOIN -> line.equals(name + " joined the game") || line.startsWith("Room ")
+                             || line.startsWith("Cannot join") || line.startsWith("You have already");
+                case START -> line.startsWith("Game is starting soon") || line.startsWith("Game cannot start")
+                              || line.startsWith("Game is already running") || line.startsWith("You must join");
+                case DATE, BIRTHDAY -> line.startsWith("Thank you for your response") || line.startsWith("Invalid")
+                                       || line.startsWith("You must join");
+                default -> line.startsWith(name + " has played & discarded ") || startsWithAny(line, MOVE_ANSWERS);
+            };
+        }
+
+        /**
+         * Gives up. If the first client gives up before it created the room, the others give up too.
+         */
+        private Outcome failed(String reason) {
+            if (seat == 0) {
+                table.room.completeExceptionally(new IllegalStateException(reason));
+            }
+            return new Outcome(false, table.names[seat] + ": " + reason, latencies);
+        }
+
+        /**
+         * Answers a message of the server.
+         *
+         * @return true once the game is over
+         */
+        private boolean handle(String line) throws IOException, InterruptedException, ExecutionException,
+                                                   TimeoutException {
+            if (line.startsWith("Please enter a name")) {
+                send(NAME, table.names[seat]);
+            } else if (line.startsWith("Welcome ")) {
+                if (seat == 0) {
+                    send(CREATE, "/create");
+                } else {
+                    send(JOIN, "/join " + table.room.get(config.timeoutMillis, TimeUnit.MILLISECONDS));
+                }
+            } else if (line.startsWith("You created a game in room ")) {
+                table.room.complete(line.substring("You created a game in room ".length()).trim());
+            } else if (seat == 0 && line.equals(table.names.length + "/" + Room.MAX_PLAYERS + " players joined the game")) {
+                send(START, "/start");
+            } else if (line.startsWith("Please enter the number of days")) {
+                send(DATE, "/date " + (1 + random.nextInt(365)));
+            } else if (line.startsWith("Please type in your birthday")) {
+                send(BIRTHDAY, String.format("/bd %04d/%02d/%02d", 1950 + random.nextInt(50),
+                        1 + random.nextInt(12), 1 + random.nextInt(28)));
+            } else if (line.startsWith("Your hand:")) {
+                hand = new ArrayList<>();
+                for (String name : line.substring("Your hand:".length()).split("\\|")) {
+                    if (!name.isBlank()) {
+                        hand.add(name.trim());
+                    }
+                }
+            } else if (line.startsWith("Type '/play")) {
+                play(null);
+            } else if (line.startsWith("Wrong card name") || line.startsWith("You cannot play this now")) {
+                play(card);
+            } else if (line.startsWith("Target is required")) {
+                target = random.nextInt(table.names.length - 1);
+                sendTarget();
+            } else if (line.startsWith("Target is immune") || line.startsWith("Target is already")
+                       || line.startsWith("Player not found") || line.startsWith("You cannot target")) {
+                target++;
+                sendTarget();
+            } else if (line.startsWith("Number from 2-8")) {
+                send(NUMBER, "/number " + (2 + random.nextInt(7)));
+            } else if (line.startsWith("Server full")) {
+                throw new IOException(line);
+            } else {
+                return line.startsWith("Type /create to play another game");
+            }
+            return false;
+        }
+
+        /**
+         * Plays a random card of the hand, never the Princess if there is another card.
+         *
+         * @param avoid a card that was refused, or null
+         */
+        private void play(String avoid) throws IOException {
+            List<String> choices = new ArrayList<>(hand);
+            if (choices.size() > 1) {
+                choices.remove(avoid);
+            }
+            if (choices.size() > 1) {
+                choices.remove("Princess");
+            }
+            card = choices.isEmpty() ? "Guard" : choices.get(random.nextInt(choices.size()));
+            send(PLAY, "/play " + card);
+        }
+
+        /**
+         * Targets the next other player of the table.
+         */
+        private void sendTarget() throws IOException {
+            int other = target % (table.names.length - 1);
+            send(TARGET, "/target " + table.names[other >= seat ? other + 1 : other]);
+        }
+
+        /**
+         * Checks if a line starts with one of several prefixes.
+         */
+        private static boolean startsWithAny(String line, String[] prefixes) {
+            for (String prefix : prefixes) {
+                if (line.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Sends a command and starts timing it. A command still waiting for its answer is not timed.
+         */
+        private void send(int command, String line) throws IOException {
+            pending = command;
+            sentAt = System.nanoTime();
+            out.write(line);
+            out.write('\n');
+            out.flush();
+        }
+    }
+
+    /**
+     * Runs a load test: connects all clients over the ramp time and waits until every one of them
+     * finished its game or gave up.
+     *
+     * @param config the options
+     * @return the results
+     * @throws IllegalArgumentException if a table would not have 2 to 4 players
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public static Report run(LoadConfig config) throws InterruptedException {
+        if (config.players < 2 || config.players > Room.MAX_PLAYERS) {
+            throw new IllegalArgumentException("A table needs 2 to " + Room.MAX_PLAYERS + " players, not "
+                                               + config.players);
+        }
+        int tables = Math.max(1, config.clients / config.players);
+        int clients = tables * config.players;
+        SplittableGenerator random = config.seed != null ? Seeds.root(config.seed) : Seeds.root();
+        long rampNanos = TimeUnit.MILLISECONDS.toNanos(config.rampMillis);
+        List<Future<Outcome>> outcomes = new ArrayList<>(clients);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < tables; t++) {
+                String[] names = new String[config.players];
+                for (int seat = 0; seat < names.length; seat++) {
+                    names[seat] = config.prefix + t + "_" + seat;
+                }
+                Table table = new Table(names);
+                for (int seat = 0; seat < names.length; seat++) {
+                    long delay = rampNanos * (t * config.players + seat) / clients;
+                    outcomes.add(executor.submit(new ScriptedClient(config, table, seat, delay, random.split())));
+                }
+            }
+            Latencies[] latencies = new Latencies[COMMANDS.length];
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new Latencies();
+            }
+            int finished = 0;
+            List<String> failures = new ArrayList<>();
+            for (Future<Outcome> future : outcomes) {
+                Outcome outcome;
+                try {
+                    outcome = future.get();
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause().toString());
+                    continue;
+                }
+                if (outcome.finished()) {
+                    finished++;
+                } else {
+                    failures.add(outcome.failure());
+                }
+                for (int i = 0; i < latencies.length; i++) {
+                    latencies[i].addAll(outcome.latencies()[i]);
+                }
+            }
+            return new Report(clients, finished / config.players, failures, System.nanoTime() - start, latencies);
+        }
+    }
+
+    /**
+     * Runs a load test from the command line and prints the latencies and the throughput. A wrong
+     * command line prints the problem and the usage and exits with status 2.
+     *
+     * @param args the options, see {@link LoadConfig#fromArgs(String[])}
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public static void main(String[] args) throws InterruptedException {
+        LoadConfig config;
+        try {
+            config = LoadConfig.fromArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+        Report report;
+        try {
+            report = run(config);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        double seconds = report.nanos() / 1e9;
+        Latencies all = report.all();
+        System.out.printf("%d clients on %s:%d, %d games over, %d clients failed in %.2f s%n", report.clients(),
+                config.host, config.port, report.games(), report.failures().size(), seconds);
+        System.out.printf("%d commands (%.0f commands/s, %.1f games/s)%n", all.count(), all.count() / seconds,
+                report.games() / seconds);
+        System.out.printf("%-10s%10s%12s%12s%12s%12s%n", "command", "count", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (int i = 0; i < COMMANDS.length; i++) {
+            print(COMMANDS[i], report.latencies()[i]);
+        }
+        print("all", all);
+        report.failures().stream().limit(10).forEach(failure -> System.out.println("failed: " + failure));
+    }
+
+    /**
+     * Prints the percentiles of one command.
+     */
+    private static void print(String command, Latencies latencies) {
+        System.out.printf("%-10s%10d%12.3f%12.3f%12.3f%12.3f%n", command, latencies.count(),
+                latencies.percentile(0.5) / 1e6, latencies.percentile(0.99) / 1e6,
+                latencies.percentile(0.999) / 1e6, latencies.percentile(1) / 1e6);
+    }
+}
@@ -0,0 +1,365 @@
+package ServerClient;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A leveled logger for the server and its games. A message below the {@linkplain #setLevel(Level)
+ * level} costs one comparison: a {@link Supplier} is not called, and the arguments of a message with
+ * {@code {}} placeholders are not formatted. An enabled message is put into a bounded lock-free ring
+ * and written by one background thread, so logging never waits for the console. If the ring is full
+ * the message is dropped and counted instead; the writer reports how many were lost.
+ * <p>
+ * Placeholders are filled in by the writer thread, so their arguments should not change afterwards,
+ * e.g. strings, numbers or records. Build messages about mutable state with a supplier instead; it
+ * runs on the calling thread, and only if the level is enabled.
+ *
+ * <pre>
+ * private static final Log LOG = Log.get("Game");
+ * LOG.debug("{} plays {}", player.nickname, action);
+ * LOG.debug(() -&gt; "seats " + Arrays.toString(seats));
+ * </pre>
+ */
+public final class Log {
+
+    /** The levels of messages, from the most to the least verbose. */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF;
+
+        /**
+         * Looks up a level by its name, ignoring case.
+         *
+         * @param name the name, e.g. "debug"
+         * @return the level
+         * @throws IllegalArgumentException if there is no such level
+         */
+        public static Level fromName(String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /** Number of messages the ring holds, a power of two. */
+    static final int CAPACITY = 1 << 13;
+    private static final int MASK = CAPACITY - 1;
+
+    private static final AtomicReferenceArray<Entry> RING = new AtomicReferenceArray<>(CAPACITY);
+    /** The next slot a producer claims. */
+    private static final AtomicLong TAIL = new AtomicLong();
+    /** The next slot the writer reads; only written by the writer. */
+    private static volatile long head;
+    /** True while the writer parks or is about to, so the next producer has to wake it. */
+    private static volatile boolean idle;
+    private static final LongAdder DROPPED = new LongAdder();
+    private static volatile Level level = Level.INFO;
+    private static volatile PrintStream sink = System.out;
+
+    private static final Thread WRITER = new Thread(Log::writeLoop, "log-writer");
+
+    static {
+        WRITER.setDaemon(true);
+        WRITER.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "log-flush"));
+    }
+
+    private final String name;
+
+    private Log(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Creates a logger. Loggers are cheap and usually kept in a static field.
+     *
+     * @param name the name written with every message, e.g. the class
+     * @return the logger
+     */
+    public static Log get(String name) {
+        return new Log(name);
+    }
+
+    /**
+     * Sets the lowest level that is written, for all loggers.
+     *
+     * @param level the level, {@link Level#OFF} to write nothing
+     */
+    public static void setLevel(Level level) {
+        Log.level = level;
+    }
+
+    /**
+     * Gets the lowest level that is written.
+     *
+     * @return the level
+     */
+    public static Level level() {
+        return level;
+    }
+
+    /**
+     * Sets where messages are written, {@link System#out} by default.
+     *
+     * @param sink the stream, e.g. of a file
+     */
+    public static void setSink(PrintStream sink) {
+        Log.sink = sink;
+    }
+
+    /**
+     * Checks if messages of a level are written.
+     *
+     * @param messageLevel the level of a message
+     * @return true if they are written
+     */
+    public boolean isEnabled(Level messageLevel) {
+        return messageLevel.compareTo(level) >= 0;
+    }
+
+    /**
+     * Logs a debug message.
+     *
+     * @param message the message
+     */
+    public void debug(String message) {
+        if (isEnabled(Level.DEBUG)) {
+            publish(Level.DEBUG, message, null, null, 0, null);
+        }
+    }
+
+    /**
+     * Logs a debug message with one placeholder.
+     *
+     * @param format the message, {@code {}} is replaced by the argument
+     * @param arg    the argument
+     */
+    public void debug(String format, Object arg) {
+        if (isEnabled(Level.DEBUG)) {
+            publish(Level.DEBUG, format, arg, null, 1, null);
+        }
+    }
+
+    /**
+     * Logs a debug message with two placeholders.
+     *
+     * @param format the message, the {@code {}} are replaced by the arguments
+     * @param first  the first argument
+     * @param second the second argument
+     */
+    public void debug(String format, Object first, Object second) {
+        if (isEnabled(Level.DEBUG)) {
+            publish(Level.DEBUG, format, first, second, 2, null);
+        }
+    }
+
+    /**
+     * Logs a debug message that is only built if debug messages are written.
+     *
+     * @param message builds the message on the calling thread
+     */
+    public void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) {
+            publish(Level.DEBUG, message.get(), null, null, 0, null);
+        }
+    }
+
+    /**
+     * Logs an info message.
+     *
+     * @param message the message
+     */
+    public void info(String message) {
+        if (isEnabled(Level.INFO)) {
+            publish(Level.INFO, message, null, null, 0, null);
+        }
+    }
+
+    /**
+     * Logs an info message with one placeholder.
+     *
+     * @param format the message, {@code {}} is replaced by the argument
+     * @param arg    the argument
+     */
+    public void info(String format, Object arg) {
+        if (isEnabled(Level.INFO)) {
+            publish(Level.INFO, format, arg, null, 1, null);
+        }
+    }
+
+    /**
+     * Logs an info message with two placeholders.
+     *
+     * @param format the message, the {@code {}} are replaced by the arguments
+     * @param first  the first argument
+     * @param second the second argument
+     */
+    public void info(String format, Object first, Object second) {
+        if (isEnabled(Level.INFO)) {
+            publish(Level.INFO, format, first, second, 2, null);
+        }
+    }
+
+    /**
+     * Logs an info message that is only built if info messages are written.
+     *
+     * @param message builds the message on the calling thread
+     */
+    public void info(Supplier<String> message) {
+        if (isEnabled(Level.INFO)) {
+            publish(Level.INFO, message.get(), null, null, 0, null);
+        }
+    }
+
+    /**
+     * Logs a warning.
+     *
+     * @param message the message
+     */
+    public void warn(String message) {
+        if (isEnabled(Level.WARN)) {
+            publish(Level.WARN, message, null, null, 0, null);
+        }
+    }
+
+    /**
+     * Logs a warning with one placeholder.
+     *
+     * @param format the message, {@code {}} is replaced by the argument
+     * @param arg    the argument
+     */
+    public void warn(String format, Object arg) {
+        if (isEnabled(Level.WARN)) {
+            publish(Level.WARN, format, arg, null, 1, null);
+        }
+    }
+
+    /**
+     * Logs a warning with two placeholders.
+     *
+     * @param format the message, the {@code {}} are replaced by the arguments
+     * @param first  the first argument
+     * @param second the second argument
+     */
+    public void warn(String format, Object first, Object second) {
+        if (isEnabled(Level.WARN)) {
+            publish(Level.WARN, format, first, second, 2, null);
+        }
+    }
+
+    /**
+     * Logs an error with the exception that caused it.
+     *
+     * @param message the message
+     * @param thrown  the exception, written with its stack trace, or null
+     */
+    public void error(String message, Throwable thrown) {
+        if (isEnabled(Level.ERROR)) {
+            publish(Level.ERROR, message, null, null, 0, thrown);
+        }
+    }
+
+    /**
+     * Puts a message into the ring, or counts it as dropped if the ring is full, and wakes the writer
+     * if it waits for messages. Never blocks.
+     */
+    private void publish(Level messageLevel, String format, Object first, Object second, int args, Throwable thrown) {
+        Entry entry = new Entry(System.currentTimeMillis(), messageLevel, name, Thread.currentThread().getName(),
+                                String.valueOf(format), first, second, args, thrown);
+        long slot;
+        do {
+            slot = TAIL.get();
+            if (slot - head >= CAPACITY) {
+                DROPPED.increment();
+                return;
+            }
+        } while (!TAIL.compareAndSet(slot, slot + 1));
+        // a volatile write, so it cannot pass the read of idle and the writer cannot miss it
+        RING.set((int) (slot & MASK), entry);
+        if (idle) {
+            LockSupport.unpark(WRITER);
+        }
+    }
+
+    /**
+     * Writes messages until the program ends, parking whenever the ring is empty until a producer
+     * puts the next message into it.
+     */
+    private static void writeLoop() {
+        while (true) {
+            if (flush() == 0) {
+                idle = true;
+                if (RING.get((int) (head & MASK)) == null) {
+                    LockSupport.park();
+                }
+                idle = false;
+            }
+        }
+    }
+
+    /**
+     * Writes all messages in the ring now, e.g. before the program exits.
+     *
+     * @return the number of messages written
+     */
+    public static synchronized int flush() {
+        StringBuilder out = new StringBuilder();
+        int written = 0;
+        long next = head;
+        Entry entry;
+        while ((entry = RING.getAcquire((int) (next & MASK))) != null) {
+            RING.setRelease((int) (next & MASK), null);
+            head = ++next;
+            entry.appendTo(out);
+            written++;
+        }
+        long dropped = DROPPED.sumThenReset();
+        if (dropped > 0) {
+            out.append(Instant.now()).append(" WARN  [log-writer] Log: ").append(dropped)
+               .append(" messages dropped, the log could not keep up\n");
+        }
+        if (!out.isEmpty()) {
+            PrintStream stream = sink;
+            stream.print(out);
+            stream.flush();
+        }
+        return written;
+    }
+
+    /**
+     * A message waiting in the ring.
+     */
+    private record Entry(long millis, Level level, String logger, String thread, String format, Object first,
+                         Object second, int args, Throwable thrown) {
+
+        /**
+         * Writes the message as one line, followed by the stack trace if there is one.
+         */
+        void appendTo(StringBuilder out) {
+            out.append(Instant.ofEpochMilli(millis)).append(' ')
+               .append(level.name());
+            out.append(" ".repeat(6 - level.name().length()));
+            out.append('[').append(thread).append("] ").append(logger).append(": ");
+            int from = 0;
+            for (int i = 0; i < args; i++) {
+                int at = format.indexOf("{}", from);
+                if (at < 0) {
+                    break;
+                }
+                out.append(format, from, at).append(i == 0 ? first : second);
+                from = at + 2;
+            }
+            out.append(format, from, format.length()).append('\n');
+            if (thrown != null) {
+                StringWriter trace = new StringWriter();
+                thrown.printStackTrace(new PrintWriter(trace));
+                out.append(trace);
+            }
+        }
+    }
+}
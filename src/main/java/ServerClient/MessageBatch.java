@@ -0,0 +1,51 @@
+package ServerClient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Holds back the output of a group of connections while one game step runs, so everything produced
+ * in that step is written and flushed once per connection when the batch is closed.
+ * Batches may overlap; a connection is written as soon as its last batch is closed.
+ *
+ * <pre>
+ * MessageBatch batch = room.beginStep();
+ * try {
+ *     room.broadcastToAll("...");
+ * } finally {
+ *     batch.close();
+ * }
+ * </pre>
+ */
+public class MessageBatch implements AutoCloseable {
+
+    private final List<Server.ConnectionHandler> handlers;
+    private boolean closed = false;
+
+    /**
+     * Starts a batch for the given connections.
+     *
+     * @param handlers the connections whose output is held back
+     */
+    public MessageBatch(Collection<Server.ConnectionHandler> handlers) {
+        this.handlers = new ArrayList<>(handlers);
+        for (Server.ConnectionHandler handler : this.handlers) {
+            handler.cork();
+        }
+    }
+
+    /**
+     * Ends the batch and releases the held back output. Closing a batch twice has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Server.ConnectionHandler handler : handlers) {
+            handler.uncork();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ServerClient;
+
+import java.util.Locale;
+
+/**
+ * The measurements of a server, recorded on the hot paths in lock-free {@link Histogram}s and read
+ * by the {@link MetricsEndpoint}:
+ * <ul>
+ *     <li>{@link #turn}: from receiving a game command until the game has played the move, including
+ *     the wait for the game's mailbox, in nanoseconds</li>
+ *     <li>{@link #broadcast}: queueing one message for every player and spectator of a room, in
+ *     nanoseconds</li>
+ *     <li>{@link #queueDepth}: messages already waiting for a client when another one is queued</li>
+ * </ul>
+ * Gauges like the number of rooms are taken from the server when the metrics are read.
+ */
+public class Metrics {
+
+    /** Quantiles reported for every histogram. */
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    public final Histogram turn = new Histogram();
+    public final Histogram broadcast = new Histogram();
+    public final Histogram queueDepth = new Histogram();
+
+    /**
+     * Writes the metrics in the Prometheus text format: every histogram as a summary with its
+     * quantiles, count and sum, and a gauge {@code <name>_max} with its maximum, followed by the
+     * gauges of the server. Times are in seconds.
+     *
+     * @param server the server whose gauges are read
+     * @return the text of all metrics
+     */
+    public String render(Server server) {
+        StringBuilder out = new StringBuilder(2048);
+        summary(out, "loveletter_turn_seconds", "Time from a game command to the played move", turn, 1e-9);
+        summary(out, "loveletter_broadcast_seconds", "Time to queue a message for a whole room", broadcast, 1e-9);
+        summary(out, "loveletter_outbound_queue_depth", "Messages waiting for a client when one is queued",
+                queueDepth, 1);
+        int games = 0;
+        for (Room room : server.rooms.values()) {
+            if (room.isGameRunning()) {
+                games++;
+            }
+        }
+        gauge(out, "loveletter_rooms", "Open rooms", server.rooms.size());
+        gauge(out, "loveletter_games", "Rooms playing a game", games);
+        gauge(out, "loveletter_connections", "Admitted clients, as counted for --max-clients", server.connectedClients());
+        gauge(out, "loveletter_players", "Registered nicknames", server.connectionsMap.size());
+        return out.toString();
+    }
+
+    /**
+     * Writes one histogram as a summary and its maximum as a gauge of its own, since a summary has no
+     * maximum.
+     *
+     * @param scale the factor from recorded values to the unit of the metric
+     */
+    private static void summary(StringBuilder out, String name, String help, Histogram histogram, double scale) {
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" summary\n");
+        for (double quantile : QUANTILES) {
+            out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+               .append(number(snapshot.percentile(quantile) * scale)).append('\n');
+        }
+        out.append(name).append("_sum ").append(number(snapshot.sum() * scale)).append('\n');
+        out.append(name).append("_count ").append(snapshot.count()).append('\n');
+        gauge(out, name + "_max", help + ", maximum", number(snapshot.max() * scale));
+    }
+
+    /**
+     * Writes one gauge.
+     */
+    private static void gauge(StringBuilder out, String name, String help, long value) {
+        gauge(out, name, help, Long.toString(value));
+    }
+
+    /**
+     * Writes one gauge with a formatted value.
+     */
+    private static void gauge(StringBuilder out, String name, String help, String value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" gauge\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * Formats a number independent of the locale.
+     */
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.9g", value);
+    }
+}
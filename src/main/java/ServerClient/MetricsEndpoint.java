@@ -0,0 +1,79 @@
+package ServerClient;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the {@link Metrics} of a server at {@code http://127.0.0.1:<port>/metrics} with the JDK's
+ * built-in HTTP server, for a scraper that alerts on tail latency. It listens on the loopback address
+ * only and answers on one thread of its own, so a slow scraper never holds up a game.
+ */
+public class MetricsEndpoint {
+
+    /** The path of the metrics. */
+    public static final String PATH = "/metrics";
+
+    private final HttpServer http;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "metrics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Starts serving the metrics of a server.
+     *
+     * @param server the server whose metrics are served
+     * @param port   the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be opened
+     */
+    public MetricsEndpoint(Server server, int port) throws IOException {
+        http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http.createContext(PATH, exchange -> respond(exchange, server));
+        http.setExecutor(executor);
+        http.start();
+    }
+
+    /**
+     * Answers a request with the current metrics.
+     */
+    private static void respond(HttpExchange exchange, Server server) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = server.metrics.render(server).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Gets the port the endpoint listens on.
+     *
+     * @return the port
+     */
+    public int port() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Stops serving the metrics.
+     */
+    public void stop() {
+        http.stop(0);
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,457 @@
+package ServerClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves all client connections from a single selector thread instead of one blocked thread per client.
+ * Incoming bytes are split into lines and handed to the {@link Server.ConnectionHandler} of the connection,
+ * which dispatches the commands exactly like in the blocking mode. Outgoing messages are queued per
+ * connection in a bounded {@link OutboundQueue} and written by the selector thread, so an idle
+ * connection costs no thread and no buffers.
+ */
+public class NioTransport implements Runnable {
+
+    private static final Log LOG = Log.get("NioTransport");
+    /** Longest line a client may send. Connections sending longer lines are closed. */
+    private static final int MAX_LINE_LENGTH = 8192;
+    /** Maximum number of queued messages written with a single gathering write. */
+    private static final int MAX_GATHER = 64;
+
+    private final Server server;
+    private final int port;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private volatile boolean done;
+    /** Shared by all connections, only used by the selector thread. */
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(16 * 1024);
+    private final ByteBuffer[] gatherBuffers = new ByteBuffer[MAX_GATHER];
+    /** Connections with queued output, waiting for the selector thread to write them. */
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a transport for the given server.
+     *
+     * @param server the server whose commands are dispatched
+     * @param port   the port to listen on
+     */
+    public NioTransport(Server server, int port) {
+        this.server = server;
+        this.port = port;
+    }
+
+    /**
+     * Runs the selector loop, accepting connections, reading lines and writing queued messages
+     * until {@link #shutdown()} is called.
+     */
+    @Override
+    public void run() {
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            while (!done) {
+                selector.select();
+                Connection pending;
+                while ((pending = pendingWrites.poll()) != null) {
+                    pending.writeScheduled.set(false);
+                    write(pending);
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isReadable()) {
+                        read(connection);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        write(connection);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            shutdown();
+        }
+    }
+
+    /**
+     * Stops the selector loop and closes the listening channel.
+     */
+    public void shutdown() {
+        done = true;
+        try {
+            if (selector != null) {
+                selector.wakeup();
+            }
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * Accepts a new client and creates its connection handler, or rejects it if the server is full.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        Connection connection = new Connection(channel, key);
+        key.attach(connection);
+        boolean admitted = server.admitClient();
+        JfrEvents.accepted(channel.socket().getRemoteSocketAddress(), "nio", admitted);
+        if (!admitted) {
+            connection.send(Server.SERVER_FULL_MESSAGE);
+            connection.close();
+            return;
+        }
+        connection.handler = server.new ConnectionHandler(connection, server);
+        connection.handler.onConnect();
+    }
+
+    /**
+     * Reads the available bytes of a connection and dispatches every complete line.
+     * A line that is not complete yet is kept in the connection until the rest arrives.
+     */
+    private void read(Connection connection) {
+        readBuffer.clear();
+        int count;
+        try {
+            count = connection.channel.read(readBuffer);
+        } catch (IOException e) {
+            count = -1;
+        }
+        if (count < 0) {
+            closeNow(connection);
+            return;
+        }
+        byte[] bytes = readBuffer.array();
+        if (connection.mode == Connection.UNDECIDED && count > 0) {
+            connection.mode = bytes[0] == 0 ? Connection.BINARY : Connection.TEXT;
+        }
+        if (connection.mode == Connection.BINARY) {
+            readFrames(connection, bytes, count);
+            return;
+        }
+        int lineStart = 0;
+        for (int i = 0; i < count; i++) {
+            if (bytes[i] != '\n') {
+                continue;
+            }
+            String line;
+            if (connection.partialLine != null && connection.partialLine.position() > 0) {
+                if (!connection.appendPartial(bytes, lineStart, i - lineStart)) {
+                    closeNow(connection);
+                    return;
+                }
+                ByteBuffer partial = connection.partialLine;
+                line = decodeLine(partial.array(), 0, partial.position());
+                partial.clear();
+            } else {
+                line = decodeLine(bytes, lineStart, i - lineStart);
+            }
+            lineStart = i + 1;
+            if (connection.handler != null) {
+                try {
+                    connection.handler.handleLine(line);
+                } catch (RuntimeException e) {
+                    // a failing command must not stop the selector thread serving everyone else
+                    LOG.error("A command failed", e);
+                }
+            }
+            if (!connection.channel.isOpen() || connection.closeRequested) {
+                return;
+            }
+        }
+        if (lineStart < count && !connection.appendPartial(bytes, lineStart, count - lineStart)) {
+            closeNow(connection);
+        }
+    }
+
+    /**
+     * Collects the bytes of a binary protocol connection and dispatches every complete frame.
+     * The bytes are appended in chunks so the connection never buffers more than one frame.
+     */
+    private void readFrames(Connection connection, byte[] bytes, int count) {
+        int offset = 0;
+        while (offset < count) {
+            int buffered = connection.partialLine == null ? 0 : connection.partialLine.position();
+            int chunk = Math.min(count - offset, BinaryProtocol.MAX_INBOUND_FRAME - buffered);
+            if (chunk <= 0 || !connection.appendPartial(bytes, offset, chunk)) {
+                closeNow(connection);
+                return;
+            }
+            offset += chunk;
+            if (!dispatchFrames(connection)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Dispatches the complete frames in the partial buffer of a connection and keeps the rest.
+     *
+     * @return false if the connection was closed
+     */
+    private boolean dispatchFrames(Connection connection) {
+        ByteBuffer buffer = connection.partialLine;
+        byte[] data = buffer.array();
+        int end = buffer.position();
+        int position = 0;
+        if (!connection.handshakeDone) {
+            if (end < BinaryProtocol.MAGIC.length) {
+                return true;
+            }
+            if (!BinaryProtocol.isMagic(data, 0)) {
+                closeNow(connection);
+                return false;
+            }
+            position = BinaryProtocol.MAGIC.length;
+            connection.handshakeDone = true;
+            connection.handler.startBinary();
+        }
+        while (end - position >= 2) {
+            int length = ((data[position] & 0xFF) << 8) | (data[position + 1] & 0xFF);
+            if (length == 0 || length + 2 > BinaryProtocol.MAX_INBOUND_FRAME) {
+                closeNow(connection);
+                return false;
+            }
+            if (end - position - 2 < length) {
+                break;
+            }
+            try {
+                connection.handler.handleFrame(data[position + 2] & 0xFF, data, position + 3, length - 1);
+            } catch (RuntimeException e) {
+                // a failing command must not stop the selector thread serving everyone else
+                LOG.error("A command failed", e);
+            }
+            position += 2 + length;
+            if (!connection.channel.isOpen() || connection.closeRequested) {
+                return false;
+            }
+        }
+        buffer.flip();
+        buffer.position(position);
+        buffer.compact();
+        return true;
+    }
+
+    /**
+     * Decodes one line from UTF-8, dropping a trailing carriage return.
+     */
+    private String decodeLine(byte[] bytes, int offset, int length) {
+        if (length > 0 && bytes[offset + length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes as many queued messages of a connection as the socket accepts. If the socket cannot take
+     * everything, the connection is registered for write readiness and the rest is written later.
+     */
+    private void write(Connection connection) {
+        SelectionKey key = connection.key;
+        if (!key.isValid()) {
+            return;
+        }
+        if (connection.overflowed) {
+            closeNow(connection);
+            return;
+        }
+        ArrayDeque<ByteBuffer> writing = connection.writing;
+        try {
+            while (true) {
+                byte[] next;
+                while (writing.size() < MAX_GATHER && (next = connection.outbound.poll()) != null) {
+                    writing.addLast(ByteBuffer.wrap(next));
+                }
+                if (writing.isEmpty()) {
+                    break;
+                }
+                int count = 0;
+                for (ByteBuffer buffer : writing) {
+                    gatherBuffers[count++] = buffer;
+                }
+                connection.channel.write(gatherBuffers, 0, count);
+                boolean socketFull = gatherBuffers[count - 1].hasRemaining();
+                for (int i = 0; i < count; i++) {
+                    gatherBuffers[i] = null;
+                }
+                while (!writing.isEmpty() && !writing.peekFirst().hasRemaining()) {
+                    writing.pollFirst();
+                }
+                if (socketFull) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            if (connection.closeRequested) {
+                closeNow(connection);
+            }
+        } catch (IOException e) {
+            closeNow(connection);
+        }
+    }
+
+    /**
+     * Closes a connection immediately, discarding any output that was not written yet, and lets its
+     * handler release the client.
+     */
+    private void closeNow(Connection connection) {
+        if (connection.handler != null) {
+            connection.handler.disconnect();
+        }
+        connection.outbound.close();
+        connection.key.cancel();
+        if (connection.channel.isOpen()) {
+            JfrEvents.closed(connection.channel.socket().getRemoteSocketAddress(), "nio");
+        }
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * Schedules a connection for writing by the selector thread.
+     */
+    private void scheduleWrite(Connection connection) {
+        if (connection.writeScheduled.compareAndSet(false, true)) {
+            pendingWrites.add(connection);
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * A single client connection served by this transport.
+     */
+    public class Connection {
+        private static final int UNDECIDED = 0, TEXT = 1, BINARY = 2;
+
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final OutboundQueue outbound = server.newOutboundQueue();
+        /** Messages taken from the queue and not completely written yet. Only used by the selector thread. */
+        private final ArrayDeque<ByteBuffer> writing = new ArrayDeque<>();
+        private final AtomicBoolean writeScheduled = new AtomicBoolean();
+        /** Set when the client could not keep up and is closed without writing the rest. */
+        private volatile boolean overflowed;
+        /** Holds an incomplete line between reads. Only allocated once a client splits a line. */
+        private ByteBuffer partialLine;
+        private volatile boolean closeRequested;
+        private Server.ConnectionHandler handler;
+        /** Protocol of the connection, decided by the first byte the client sends. */
+        private int mode = UNDECIDED;
+        private boolean handshakeDone;
+
+        private Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        /**
+         * Queues a message for this client. Can be called from any thread.
+         *
+         * @param message the message to send, without line terminator
+         */
+        public void send(String message) {
+            send((message + "\n").getBytes(StandardCharsets.UTF_8), false);
+        }
+
+        /**
+         * Queues an encoded message for this client. Can be called from any thread. If the queue
+         * overflows and the policy gives up on the client, the connection is closed.
+         *
+         * @param bytes the encoded message, including line terminator
+         * @param chat  true for chat messages
+         */
+        public void send(byte[] bytes, boolean chat) {
+            if (closeRequested || !channel.isOpen()) {
+                return;
+            }
+            if (!outbound.offer(bytes, chat)) {
+                overflowed = true;
+                outbound.close();
+            } else if (outbound.isCorked()) {
+                return;
+            }
+            scheduleWrite(this);
+        }
+
+        /**
+         * Holds back the output of this connection until {@link #uncork()} is called.
+         */
+        public void cork() {
+            outbound.cork();
+        }
+
+        /**
+         * Releases the held back output and schedules it for writing.
+         */
+        public void uncork() {
+            if (outbound.uncork()) {
+                scheduleWrite(this);
+            }
+        }
+
+        /**
+         * Closes the connection once all queued messages are written. Can be called from any thread.
+         */
+        public void close() {
+            closeRequested = true;
+            scheduleWrite(this);
+        }
+
+        /**
+         * Appends bytes of an incomplete line.
+         *
+         * @return false if the line exceeds the maximum line length
+         */
+        private boolean appendPartial(byte[] bytes, int offset, int length) {
+            if (partialLine == null) {
+                partialLine = ByteBuffer.allocate(Math.min(MAX_LINE_LENGTH, Math.max(256, length)));
+            }
+            if (partialLine.remaining() < length) {
+                int needed = partialLine.position() + length;
+                if (needed > MAX_LINE_LENGTH) {
+                    return false;
+                }
+                ByteBuffer bigger = ByteBuffer.allocate(Math.min(MAX_LINE_LENGTH, Math.max(needed, partialLine.capacity() * 2)));
+                partialLine.flip();
+                bigger.put(partialLine);
+                partialLine = bigger;
+            }
+            partialLine.put(bytes, offset, length);
+            return true;
+        }
+    }
+}
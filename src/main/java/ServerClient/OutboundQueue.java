@@ -0,0 +1,293 @@
+package ServerClient;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded queue of encoded messages waiting to be written to one client.
+ * Game and connection threads only enqueue, which never blocks on the socket. The messages are
+ * written by the writer of the connection: a dedicated writer task in blocking mode, the selector
+ * thread in NIO mode. When the queue is full, its {@link OverflowPolicy} decides what to give up.
+ * While the queue is corked, the writer gets nothing, so a burst of messages goes out in one write.
+ */
+public class OutboundQueue {
+
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+    private final int capacity;
+    private final int maxBytes;
+    private final OverflowPolicy policy;
+    private final Histogram depths;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private int queuedBytes = 0;
+    private int corks = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param capacity the maximum number of queued messages
+     * @param maxBytes the maximum number of queued bytes
+     * @param policy   what to do when the queue is full
+     */
+    public OutboundQueue(int capacity, int maxBytes, OverflowPolicy policy) {
+        this(capacity, maxBytes, policy, null);
+    }
+
+    /**
+     * Creates an empty queue that records its depth whenever a message is added.
+     *
+     * @param capacity the maximum number of queued messages
+     * @param maxBytes the maximum number of queued bytes
+     * @param policy   what to do when the queue is full
+     * @param depths   counts the messages already queued when one is added, or null
+     */
+    public OutboundQueue(int capacity, int maxBytes, OverflowPolicy policy, Histogram depths) {
+        this.capacity = capacity;
+        this.maxBytes = maxBytes;
+        this.policy = policy;
+        this.depths = depths;
+    }
+
+    /**
+     * Adds a message to the queue, applying the overflow policy if the queue is full. Both limits are
+     * hard: a message is only queued if afterwards there are at most {@code capacity} messages of at
+     * most {@code maxBytes} bytes in total.
+     *
+     * @param bytes the encoded message
+     * @param chat  true for chat messages, which may be dropped under {@link OverflowPolicy#DROP_CHAT}
+     * @return false if the client cannot keep up and has to be disconnected
+     */
+    public boolean offer(byte[] bytes, boolean chat) {
+        lock.lock();
+        try {
+            if (closed) {
+                return true;
+            }
+            if (entries.size() >= capacity || queuedBytes + bytes.length > maxBytes) {
+                switch (policy) {
+                    case DROP_CHAT:
+                        if (chat) {
+                            return true;
+                        }
+                        while (entries.size() >= capacity || queuedBytes + bytes.length > maxBytes) {
+                            if (!dropOldestChat()) {
+                                return false;
+                            }
+                        }
+                        break;
+                    case COALESCE:
+                        if (queuedBytes + bytes.length > maxBytes) {
+                            return false;
+                        }
+                        coalesce();
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            if (depths != null) {
+                depths.record(entries.size());
+            }
+            entries.addLast(new Entry(bytes, chat));
+            queuedBytes += bytes.length;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the next message, waiting until one is available.
+     *
+     * @return the next message, or null once the queue is closed and empty
+     * @throws InterruptedException if the writer is interrupted while waiting
+     */
+    public byte[] take() throws InterruptedException {
+        lock.lock();
+        try {
+            while ((entries.isEmpty() || corks > 0) && !closed) {
+                notEmpty.await();
+            }
+            return removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the next message without waiting.
+     *
+     * @return the next message, or null if the queue is empty or corked
+     */
+    public byte[] poll() {
+        lock.lock();
+        try {
+            if (corks > 0 && !closed) {
+                return null;
+            }
+            return removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks if there are no queued messages.
+     *
+     * @return true if the queue is empty
+     */
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return entries.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of queued messages.
+     *
+     * @return the number of queued messages
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Holds back the queued messages until {@link #uncork()} was called as often as this method.
+     */
+    public void cork() {
+        lock.lock();
+        try {
+            corks++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases one {@link #cork()}. The writer is woken up once the last cork is released.
+     *
+     * @return true if the queue is no longer corked
+     */
+    public boolean uncork() {
+        lock.lock();
+        try {
+            if (corks > 0) {
+                corks--;
+            }
+            if (corks == 0) {
+                notEmpty.signalAll();
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks if the queue is corked.
+     *
+     * @return true if messages are held back
+     */
+    public boolean isCorked() {
+        lock.lock();
+        try {
+            return corks > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the queue. Further messages are ignored; the writer still drains what is queued.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks if the queue was closed.
+     *
+     * @return true if the queue was closed
+     */
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] removeFirst() {
+        Entry entry = entries.pollFirst();
+        if (entry == null) {
+            return null;
+        }
+        queuedBytes -= entry.bytes.length;
+        return entry.bytes;
+    }
+
+    /**
+     * Drops the oldest queued chat message.
+     *
+     * @return false if no chat message was queued
+     */
+    private boolean dropOldestChat() {
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.chat) {
+                iterator.remove();
+                queuedBytes -= entry.bytes.length;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Merges all queued messages into a single message, keeping their order.
+     */
+    private void coalesce() {
+        byte[] merged = new byte[queuedBytes];
+        int offset = 0;
+        for (Entry entry : entries) {
+            System.arraycopy(entry.bytes, 0, merged, offset, entry.bytes.length);
+            offset += entry.bytes.length;
+        }
+        entries.clear();
+        entries.addLast(new Entry(merged, false));
+    }
+
+    /**
+     * A queued message and whether it is chat.
+     */
+    private static class Entry {
+        private final byte[] bytes;
+        private final boolean chat;
+
+        private Entry(byte[] bytes, boolean chat) {
+            this.bytes = bytes;
+            this.chat = chat;
+        }
+    }
+}
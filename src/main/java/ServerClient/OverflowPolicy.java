@@ -0,0 +1,27 @@
+package ServerClient;
+
+/**
+ * Decides what happens when a client reads slower than the server writes and its
+ * {@link OutboundQueue} is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * New chat messages are dropped, and the oldest chat messages make room for game messages.
+     * Disconnects if dropping all queued chat messages does not make enough room.
+     */
+    DROP_CHAT,
+    /** All queued messages are merged into one, up to the byte limit of the queue. Disconnects beyond that. */
+    COALESCE,
+    /** The client is disconnected as soon as the queue is full. */
+    DISCONNECT;
+
+    /**
+     * Parses a policy name as given on the command line, e.g. {@code drop-chat}.
+     *
+     * @param name the policy name
+     * @return the policy with that name
+     */
+    public static OverflowPolicy fromName(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
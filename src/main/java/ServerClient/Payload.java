@@ -0,0 +1,61 @@
+package ServerClient;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A message line encoded to UTF-8 once. Broadcasts share a single payload between all recipients,
+ * so sending it costs a buffer write per client instead of a string encode per client.
+ * Fixed protocol lines are kept as constants and encoded only once at startup.
+ */
+public final class Payload {
+
+    private final byte[] bytes;
+    /** The same message as binary protocol frame, built on first use. */
+    private byte[] frame;
+
+    private Payload(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Encodes a message, adding the line terminator.
+     *
+     * @param message the message without line terminator
+     * @return the encoded message
+     */
+    public static Payload of(String message) {
+        return new Payload((message + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gets the encoded bytes including the line terminator. The array is shared and must not be modified.
+     *
+     * @return the encoded bytes
+     */
+    byte[] bytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the message as {@link BinaryProtocol#TEXT} frame. The array is shared and must not be modified.
+     *
+     * @return the encoded frame
+     */
+    byte[] frame() {
+        byte[] encoded = frame;
+        if (encoded == null) {
+            encoded = BinaryProtocol.textFrame(bytes);
+            frame = encoded;
+        }
+        return encoded;
+    }
+
+    /**
+     * Gets the number of encoded bytes.
+     *
+     * @return the length of the payload in bytes
+     */
+    public int length() {
+        return bytes.length;
+    }
+}
@@ -0,0 +1,290 @@
+package ServerClient;
+
+import Game.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Represents a game room. Every room has its own players, its own game and its own join/start
+ * bookkeeping, so one server can host many games at the same time. Rooms are registered in
+ * {@link Server#rooms} under their id.
+ * Messages of a game are only sent to the players and spectators of its room.
+ */
+public class Room {
+
+    /** Maximum number of players in a room. */
+    public static final int MAX_PLAYERS = 4;
+
+    public final String id;
+    public final Server server;
+    public Game game;
+    // set by tryStart under the lock of the room, read by the commands of every client
+    private volatile boolean gameRunning = false;
+    public int playerCounter = 0;
+    public int dateCounter = 0;
+    public int birthdayCounter = 0;
+    /** Players of this room, where the key is the player's nickname. */
+    public Map<String, Player> playerMap = Collections.synchronizedMap(new HashMap<>());
+    /** Connections of the players, the audience of every game message. */
+    public final List<Server.ConnectionHandler> members = new CopyOnWriteArrayList<>();
+    /** Connections watching the game without playing. */
+    public final List<Server.ConnectionHandler> spectators = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates an empty room.
+     *
+     * @param id     the id players use to join the room
+     * @param server the server hosting the room
+     */
+    public Room(String id, Server server) {
+        this.id = id;
+        this.server = server;
+    }
+
+    /**
+     * Adds the player of a connection to this room.
+     *
+     * @param handler the connection of the joining player
+     * @return true if the player joined, false if the room is full or its game is already running
+     */
+    public synchronized boolean addPlayer(Server.ConnectionHandler handler) {
+        if (gameRunning || playerMap.size() >= MAX_PLAYERS) {
+            return false;
+        }
+        handler.room = this;
+        handler.player = new Player(handler.nickname, handler);
+        playerMap.put(handler.nickname, handler.player);
+        members.add(handler);
+        server.lobby.remove(handler);
+        playerCounter++;
+        return true;
+    }
+
+    /**
+     * Removes the player of a connection from this room. A room without clients that is not playing
+     * is removed from the server.
+     *
+     * @param handler the connection of the leaving player
+     */
+    public synchronized void removePlayer(Server.ConnectionHandler handler) {
+        if (playerMap.remove(handler.nickname) != null) {
+            playerCounter--;
+        }
+        members.remove(handler);
+        handler.room = null;
+        handler.player = null;
+        server.lobby.add(handler);
+        // a room left to its computer players is closed as well
+        if (!gameRunning && members.stream().allMatch(Server.ConnectionHandler::isBot)) {
+            close();
+        }
+    }
+
+    /**
+     * Removes the player of a connection that left the server. A running game cannot go on without
+     * the player, so it ends for everyone else: on the game's mailbox once the game is dealt, right
+     * away while the players are still answering the questions before it.
+     *
+     * @param handler the connection of the player who left
+     */
+    public void leave(Server.ConnectionHandler handler) {
+        Game running;
+        synchronized (this) {
+            boolean playing = gameRunning && members.contains(handler);
+            removePlayer(handler);
+            if (!playing) {
+                return;
+            }
+            running = game;
+            if (running == null) {
+                broadcastToAll(handler.nickname + " left the server. The game is over.");
+                close();
+                return;
+            }
+        }
+        running.submit(() -> running.abandon(handler.nickname));
+    }
+
+    /**
+     * Checks if the game of this room has been started and is not over yet.
+     *
+     * @return true from a successful {@link #tryStart()} until the room is closed
+     */
+    public boolean isGameRunning() {
+        return gameRunning;
+    }
+
+    /**
+     * Marks the game of this room as started if it is not running yet and has at least two players.
+     * Checking and setting is one step, so of two /start commands at the same time only one wins.
+     *
+     * @return true if this call started the game, false if it is already running or lacks players
+     */
+    public synchronized boolean tryStart() {
+        if (gameRunning || playerCounter < 2) {
+            return false;
+        }
+        gameRunning = true;
+        return true;
+    }
+
+    /**
+     * Counts a player who entered the time of the last date.
+     */
+    public synchronized void countDate() {
+        dateCounter++;
+    }
+
+    /**
+     * Counts a player who entered the birthday.
+     *
+     * @return true for exactly one player: the last one to answer, once all players have answered
+     */
+    public synchronized boolean countBirthday() {
+        birthdayCounter++;
+        return dateCounter == playerCounter && birthdayCounter == playerCounter;
+    }
+
+    /**
+     * Adds a connection that watches the game of this room without playing.
+     *
+     * @param handler the connection of the spectator
+     */
+    public synchronized void addSpectator(Server.ConnectionHandler handler) {
+        handler.spectating = this;
+        spectators.add(handler);
+        server.lobby.remove(handler);
+    }
+
+    /**
+     * Removes a spectator from this room and returns it to the lobby.
+     *
+     * @param handler the connection of the spectator
+     */
+    public synchronized void removeSpectator(Server.ConnectionHandler handler) {
+        spectators.remove(handler);
+        handler.spectating = null;
+        server.lobby.add(handler);
+    }
+
+    /**
+     * Starts a game step. Messages to the players and spectators of this room are held back until
+     * the returned batch is closed, then written and flushed once per connection.
+     *
+     * @return the batch to close at the end of the step
+     */
+    public MessageBatch beginStep() {
+        List<Server.ConnectionHandler> audience = new ArrayList<>(members);
+        audience.addAll(spectators);
+        return new MessageBatch(audience);
+    }
+
+    /**
+     * Sends a message to all players and spectators of this room.
+     *
+     * @param message the message to broadcast
+     */
+    public void broadcastToAll(String message) {
+        broadcastToAll(Payload.of(message));
+    }
+
+    /**
+     * Sends an encoded message to all players and spectators of this room. The payload is shared
+     * between all recipients. The time it takes is recorded in {@link Metrics#broadcast} and as
+     * {@link JfrEvents.Broadcast}.
+     *
+     * @param payload the encoded message
+     */
+    public void broadcastToAll(Payload payload) {
+        JfrEvents.Broadcast event = new JfrEvents.Broadcast();
+        event.begin();
+        long start = System.nanoTime();
+        for (Server.ConnectionHandler handler : members) {
+            handler.send(payload);
+        }
+        for (Server.ConnectionHandler handler : spectators) {
+            handler.send(payload);
+        }
+        server.metrics.broadcast.record(System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.room = id;
+            event.recipients = members.size() + spectators.size();
+            event.bytes = payload.length();
+            event.commit();
+        }
+    }
+
+    /**
+     * Sends a chat message to all players and spectators of this room.
+     *
+     * @param message the chat message to broadcast
+     */
+    public void broadcastChat(String message) {
+        Payload payload = Payload.of(message);
+        for (Server.ConnectionHandler handler : members) {
+            handler.sendChat(payload);
+        }
+        for (Server.ConnectionHandler handler : spectators) {
+            handler.sendChat(payload);
+        }
+    }
+
+    /**
+     * Sends a message to all players and spectators of this room except the sender.
+     *
+     * @param message the message to broadcast
+     * @param sender  the connection that should not receive the message
+     */
+    public void broadcastExcept(String message, Server.ConnectionHandler sender) {
+        Payload payload = Payload.of(message);
+        for (Server.ConnectionHandler handler : members) {
+            if (handler != sender) {
+                handler.send(payload);
+            }
+        }
+        for (Server.ConnectionHandler handler : spectators) {
+            if (handler != sender) {
+                handler.send(payload);
+            }
+        }
+    }
+
+    /**
+     * Closes the room after its game has ended. All players return to the lobby.
+     */
+    public synchronized void close() {
+        server.rooms.remove(id);
+        gameRunning = false;
+        for (Server.ConnectionHandler handler : members) {
+            handler.room = null;
+            handler.player = null;
+            if (handler.isBot()) {
+                // computer players only live as long as their game
+                server.removeNickname(handler.nickname);
+                continue;
+            }
+            server.lobby.add(handler);
+        }
+        for (Server.ConnectionHandler handler : spectators) {
+            handler.spectating = null;
+            server.lobby.add(handler);
+        }
+        members.clear();
+        spectators.clear();
+    }
+
+    /**
+     * Returns a short description of the room for the room list.
+     *
+     * @return the id, number of players and state of the room
+     */
+    public String describe() {
+        return "Room " + id + " | " + playerMap.size() + "/" + MAX_PLAYERS + " players | "
+               + spectators.size() + " spectators | " + (gameRunning ? "running" : "waiting");
+    }
+}
@@ -1,19 +1,44 @@
 package ServerClient;
 
 import Game.*;
+import cards.Cards;
+import engine.Action;
+import engine.Beliefs;
+import engine.Card;
+import engine.Engine;
+import engine.Rejection;
+import engine.Result;
+import engine.RoundState;
+import engine.Seeds;
+import simulation.Bot;
+import simulation.IsmctsBot;
+import simulation.PolicyBot;
+import simulation.PolicyTable;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
 
 /**
  * Represents the game server, handling client connections, managing the game state,
@@ -21,46 +46,109 @@ import java.util.concurrent.Executors;
  */
 public class Server implements Runnable {
 
+    private static final Log LOG = Log.get("Server");
+
     /** Map of all connected clients, where the key is the player's nickname and the value is the connection handler. */
     public ConcurrentHashMap<String, ConnectionHandler> connectionsMap = new ConcurrentHashMap<>();
     private ServerSocket serverSocket; //server socket listen for incoming connections
     private boolean done;
     private ExecutorService threadPool;
     public final Set<String> nicknamesSet = Collections.synchronizedSet(new HashSet<>());
-    public Game game;
-    public boolean isGameCreated = false;
-    public boolean isGameRunning = false;
+    /** Map of all open rooms, where the key is the room id. */
+    public final ConcurrentHashMap<String, Room> rooms = new ConcurrentHashMap<>();
+    private final AtomicInteger roomCounter = new AtomicInteger();
+    /** Connections that are neither playing nor watching a game, the audience of lobby messages. */
+    public final Set<ConnectionHandler> lobby = ConcurrentHashMap.newKeySet();
     private int clientCounter = 0;
-    public int playerCounter = 0;
-    public int dateCounter = 0;
-    public int birthdayCounter = 0;
-    public Map<String, Player> playerMap = Collections.synchronizedMap(new HashMap<>());
-    public String guardName;
+    /** Message sent to clients that cannot be admitted. */
+    static final String SERVER_FULL_MESSAGE = "Server full. Please try again later.";
+    /** Output of the /help command, encoded once. */
+    static final Payload HELP = Payload.of("/help - List of commands\n"
+            + "/private - Use '/private <playerName> <message>' to send a private message\n"
+            + "/create - Create a game\n"
+            + "/rooms - List of rooms\n"
+            + "/join - Use '/join <room>' to join a game\n"
+            + "/spectate - Use '/spectate <room>' to watch a game\n"
+            + "/leave - Return to the lobby\n"
+            + "/players - List of players\n"
+            + "/score - Shows the score\n"
+            + "/cardsInfo - short Information for the cards\n"
+            + "/move - Use '/move <CardName> [<TargetName>] [<number>]' to play a card in one step\n"
+            + "/bot - Add a computer player to your room\n"
+            + "/odds - Shows which cards the other players may hold\n"
+            + "/3cards  - If available, shows you the 3 discarded cards\n"
+            + "/bye - Leave the server");
+    /** Output of the /cardsInfo command, encoded once. */
+    static final Payload CARDS_INFO = Payload.of("8-Princess(1): Lose if discarded.\n"
+            + "7-Countess(1): Must be played if you have King or Prince in hand.\n"
+            + "6-King(1): Trade hands with another player.\n"
+            + "5-Prince(2): Choose a player. They discard their hand and draw a new card.\n"
+            + "4-Handmaid(2): You cannot be chosen until your next turn.\n"
+            + "3-Baron(2): Compare hands with another player, lower number is out.\n"
+            + "2-Priest(2): Look at a player's hand.\n"
+            + "1-Guard(5): Guess a player's hand; if correct the player is out.");
+    /** Separator sent when a game starts. */
+    static final Payload GAME_START_SEPARATOR = Payload.of("-----------------------------------------------------------");
+    private final ServerConfig config;
+    private final ExecutorService gameScheduler;
+    // Threads that search the moves of the computer players of all rooms
+    private final ExecutorService botPool;
+    // Memory-mapped two player policy of the computer players, or null
+    private final PolicyTable policy;
+    // Root of the games' random generators, every game gets its own split stream
+    private final SplittableGenerator random;
+    private NioTransport nioTransport;
+    /** Latencies and queue depths of this server, see {@link Metrics}. */
+    public final Metrics metrics = new Metrics();
+    private MetricsEndpoint metricsEndpoint;
 
-    /** Initializes a new Server instance. */
+    /** Initializes a new Server instance with the default configuration. */
     public Server(){
+        this(new ServerConfig());
+    }
+
+    /**
+     * Initializes a new Server instance.
+     *
+     * @param config the startup options of the server
+     */
+    public Server(ServerConfig config){
+        this.config = config;
+        Log.setLevel(config.logLevel);
+        this.gameScheduler = Executors.newFixedThreadPool(config.gameThreads);
+        this.botPool = Executors.newFixedThreadPool(config.botThreads);
+        this.policy = loadPolicy(config.policy);
+        this.random = config.seed != null ? Seeds.root(config.seed) : Seeds.root();
         done = false;
     }
 
     /**
      * Runs the server, accepting client connections, and managing the client handlers.
+     * Depending on the configuration the connections are served by a selector thread or by
+     * one thread per client.
      */
     @Override
     public void run() {
+        startMetrics();
+        if(config.nio){
+            nioTransport = new NioTransport(this, config.port);
+            nioTransport.run();
+            return;
+        }
         try {
-            serverSocket = new ServerSocket(8080);
-            threadPool = Executors.newCachedThreadPool();
+            serverSocket = new ServerSocket(config.port);
+            threadPool = config.virtualThreads ? Executors.newVirtualThreadPerTaskExecutor()
+                                               : Executors.newCachedThreadPool();
             while(!done){
-                System.out.println("client counter " + clientCounter);
+                LOG.debug("client counter {}", connectedClients());
                 Socket client = serverSocket.accept();//socket object for communicating with this client
-                clientCounter++;
-                if(clientCounter > 4 || isGameRunning){
+                boolean admitted = admitClient();
+                JfrEvents.accepted(client.getRemoteSocketAddress(), "socket", admitted);
+                if(!admitted){
                     PrintWriter tempOut = new PrintWriter(client.getOutputStream(), true);
-                    tempOut.println("Server full or a game is currently running. Please try again" +
-                                    " later.");
+                    tempOut.println(SERVER_FULL_MESSAGE);
                     tempOut.close();
                     client.close();
-                    clientCounter--;
                 }else{
                     ConnectionHandler handler = new ConnectionHandler(client, this);
                     threadPool.execute(handler);
@@ -73,13 +161,171 @@ public class Server implements Runnable {
     }
 
     /**
-     * Shuts down the server, closing the socket and shutting down the thread pool.
+     * Serves the metrics over HTTP if a metrics port is configured. The server runs without them if
+     * the port cannot be opened.
+     */
+    private void startMetrics(){
+        if(config.metricsPort == null){
+            return;
+        }
+        try{
+            metricsEndpoint = new MetricsEndpoint(this, config.metricsPort);
+            LOG.info("Metrics at http://127.0.0.1:{}{}", metricsEndpoint.port(), MetricsEndpoint.PATH);
+        }catch(IOException e){
+            LOG.warn("Metrics are not served: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Counts the admitted clients, also those that have not chosen a nickname yet. Like the limit of
+     * {@link ServerConfig#maxClients}, a client stops counting once its connection ends, see
+     * {@link ConnectionHandler#disconnect()}.
+     *
+     * @return the number of admitted clients
+     */
+    public synchronized int connectedClients(){
+        return clientCounter;
+    }
+
+    /**
+     * Counts a newly connected client and checks whether it may stay on the server.
+     *
+     * @return true if the client is admitted, false if the server is full
+     */
+    synchronized boolean admitClient(){
+        clientCounter++;
+        if(clientCounter > config.maxClients){
+            clientCounter--;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stops counting a client that was admitted by {@link #admitClient()}.
+     */
+    synchronized void releaseClient(){
+        clientCounter--;
+    }
+
+    /**
+     * Sends a message to every connection in the lobby.
+     *
+     * @param message the message to broadcast
+     * @param sender the connection that should not receive the message, or null
+     */
+    public void broadcastToLobby(String message, ConnectionHandler sender){
+        Payload payload = Payload.of(message);
+        for(ConnectionHandler handler : lobby){
+            if(handler != sender){
+                handler.send(payload);
+            }
+        }
+    }
+
+    /**
+     * Sends a chat message to every connection in the lobby. Chat may be dropped for slow clients.
+     *
+     * @param message the message to broadcast
+     */
+    public void chatToLobby(String message){
+        Payload payload = Payload.of(message);
+        for(ConnectionHandler handler : lobby){
+            handler.sendChat(payload);
+        }
+    }
+
+    /**
+     * Creates the outbound queue for a new connection, sized and configured from the server options.
+     *
+     * @return a new, empty outbound queue
+     */
+    OutboundQueue newOutboundQueue(){
+        return new OutboundQueue(config.outboundCapacity, config.outboundMaxBytes, config.overflowPolicy,
+                                 metrics.queueDepth);
+    }
+
+    /**
+     * Opens a new room and registers it under a new id.
+     *
+     * @return the new room
+     */
+    public Room createRoom(){
+        Room room = new Room(String.valueOf(roomCounter.incrementAndGet()), this);
+        rooms.put(room.id, room);
+        return room;
+    }
+
+    /**
+     * Gets the executor that runs the games of this server. The games share its few threads and
+     * only occupy one while they have a command to process.
+     *
+     * @return the game scheduler
+     */
+    public ExecutorService gameScheduler(){
+        return gameScheduler;
+    }
+
+    /**
+     * Creates the random generator of a new game, an independent stream split off the server's
+     * generator. With a configured seed, the games of a server run get the same streams in the
+     * order they are started.
+     *
+     * @return the generator of the game
+     */
+    public synchronized SplittableGenerator newGameRandom(){
+        return random.split();
+    }
+
+    /**
+     * Maps the policy file of the computer players.
+     *
+     * @param file the file, or null
+     * @return the policy, or null if there is none or it cannot be read
+     */
+    private static PolicyTable loadPolicy(String file){
+        if(file == null){
+            return null;
+        }
+        try{
+            return PolicyTable.open(Path.of(file));
+        }catch(IOException e){
+            LOG.warn("Cannot load policy {}, computer players will search: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Creates the strategy of a computer player. Its searches share the server's bot threads and
+     * stop at the configured time per move; with a policy file, two player games are played from
+     * the policy instead.
+     *
+     * @return a new bot
+     */
+    public Bot newBot(){
+        Bot search = new IsmctsBot(0, config.botMoveMillis, config.botThreads, botPool);
+        return policy != null ? new PolicyBot(policy, search) : search;
+    }
+
+    /**
+     * Shuts down the server, closing the socket and shutting down the thread pools.
      */
     public void shutdownServer(){
         try{
             done = true;
-            threadPool.shutdown();
-            if(!serverSocket.isClosed()){
+            gameScheduler.shutdown();
+            botPool.shutdown();
+            if(metricsEndpoint != null){
+                metricsEndpoint.stop();
+            }
+            if(nioTransport != null){
+                nioTransport.shutdown();
+                return;
+            }
+            if(threadPool != null){
+                threadPool.shutdown();
+            }
+            if(serverSocket != null && !serverSocket.isClosed()){
                 serverSocket.close(); //close serverSocket
             }
             //for(ConnectionHandler ch : connectionsMap){
@@ -116,12 +362,26 @@ public class Server implements Runnable {
         private Socket client;
         //get stream from socket/client
         private BufferedReader in;
-        //write to client
-        private PrintWriter out;
+        //messages to client, written by the writer task of this connection
+        private OutboundQueue outbound;
+        //set instead of client/in/outbound when served by the selector thread
+        private NioTransport.Connection connection;
+        //true once the client switched to the binary protocol
+        private volatile boolean binary;
+        //set by the first call of disconnect, which releases the client only once
+        private final AtomicBoolean disconnected = new AtomicBoolean();
         public String nickname;
         public Server server;
         public Player player;
-        public boolean hasJoinedGame = false;
+        /** The room this client has joined, or null while the client is in the lobby. */
+        public Room room;
+        /** The room this client is watching, or null. */
+        public Room spectating;
+        //set instead of a connection for a computer player, which plays through the same commands
+        private Bot bot;
+        private RandomGenerator botRandom;
+        //when the game command running now was received, only used on the game's thread
+        private long commandReceived;
 
         /**
          * Constructs a ConnectionHandler for a specific client.
@@ -132,29 +392,127 @@ public class Server implements Runnable {
         public ConnectionHandler(Socket client, Server server) {
             this.client = client;
             this.server = server;
+            this.outbound = server.newOutboundQueue();
+        }
+
+        /**
+         * Constructs a ConnectionHandler for a client served by the {@link NioTransport}.
+         *
+         * @param connection the non-blocking connection of the client
+         * @param server the server instance
+         */
+        public ConnectionHandler(NioTransport.Connection connection, Server server) {
+            this.connection = connection;
+            this.server = server;
+        }
+
+        /**
+         * Constructs a ConnectionHandler for an in-memory client, e.g. in benchmarks. It has no socket:
+         * messages are only queued, and whoever created the queue takes them out.
+         *
+         * @param server the server instance
+         * @param outbound the queue that receives the messages to the client
+         */
+        public ConnectionHandler(Server server, OutboundQueue outbound) {
+            this.server = server;
+            this.outbound = outbound;
+        }
+
+        /**
+         * Constructs the handler of a computer player. It has no connection: messages to it are
+         * dropped, and it plays by calling the same commands a client sends.
+         *
+         * @param nickname the nickname of the computer player
+         * @param server the server instance
+         * @param bot the strategy that chooses the moves
+         */
+        public ConnectionHandler(String nickname, Server server, Bot bot) {
+            this.nickname = nickname;
+            this.server = server;
+            this.bot = bot;
+            this.botRandom = server.newGameRandom();
         }
 
         /**
-         * Sends a message to all connected clients.
+         * Checks if this handler plays for a computer player.
+         *
+         * @return true if there is no client behind this handler
+         */
+        public boolean isBot(){
+            return bot != null;
+        }
+
+        /**
+         * Sends a message to everyone who shares this client's audience: the players and spectators of
+         * the room the client plays in or watches, or everyone in the lobby.
          *
          * @param message the message to broadcast
          */
         public void broadcastToAll(String message) {
-            connectionsMap.values().forEach(ch -> ch.sendMessage(message));
+            Room audience = room != null ? room : spectating;
+            if(audience != null){
+                audience.broadcastToAll(message);
+            }else{
+                server.broadcastToLobby(message, null);
+            }
+        }
+
+        /**
+         * Sends a chat message to everyone who shares this client's audience.
+         *
+         * @param message the chat message to broadcast
+         */
+        public void broadcastChat(String message) {
+            Room audience = room != null ? room : spectating;
+            if(audience != null){
+                audience.broadcastChat(message);
+            }else{
+                server.chatToLobby(message);
+            }
+        }
+
+        /**
+         * Holds back the output of this client, see {@link MessageBatch}.
+         */
+        public void cork(){
+            if(bot != null){
+                return;
+            }
+            if(connection != null){
+                connection.cork();
+                return;
+            }
+            outbound.cork();
+        }
+
+        /**
+         * Releases output held back by {@link #cork()}.
+         */
+        public void uncork(){
+            if(bot != null){
+                return;
+            }
+            if(connection != null){
+                connection.uncork();
+                return;
+            }
+            outbound.uncork();
         }
 
         /**
-         * Sends a message to all connected clients except the sender.
+         * Sends a message to everyone who shares this client's audience except the sender.
          *
          * @param message the message to broadcast
          * @param senderNickname the nickname of the sender to exclude
          */
         public void broadcastExceptSelf(String message, String senderNickname) {
-            connectionsMap.forEach( (nickname, handler) -> {
-                if (!nickname.equals(senderNickname)) {
-                    handler.sendMessage(message);
-                }
-            });
+            ConnectionHandler sender = connectionsMap.get(senderNickname);
+            Room audience = room != null ? room : spectating;
+            if(audience != null){
+                audience.broadcastExcept(message, sender);
+            }else{
+                server.broadcastToLobby(message, sender);
+            }
         }
 
         /**
@@ -169,7 +527,7 @@ public class Server implements Runnable {
                 String msgPart = message.split(" ",3)[2];
                 broadcastToSpecificUser(userPart, msgPart, senderNickname);
             } catch (ArrayIndexOutOfBoundsException e){
-                out.println("wrong msg type");
+                sendMessage("wrong msg type");
             }
         }
 
@@ -183,121 +541,374 @@ public class Server implements Runnable {
         public void broadcastToSpecificUser(String user, String message, String senderNickname){
             ConnectionHandler userHandler = connectionsMap.get(user);
             if(userHandler != null){
-                sendMessage("sent private Message to: " + user + " : " + message);
-                userHandler.sendMessage("received private Message from " + senderNickname + ": " + message);
+                sendChat("sent private Message to: " + user + " : " + message);
+                userHandler.sendChat("received private Message from " + senderNickname + ": " + message);
             } else {
                 sendMessage("User '" + user + "' not found.");
             }
         }
 
+        /**
+         * Serves the client in blocking mode: starts the writer of this connection, then reads lines from
+         * the socket until the client disconnects and hands every line to {@link #handleLine(String)}.
+         * A client starting with {@link BinaryProtocol#MAGIC} is served with frames instead.
+         */
         @Override
         public void run() {
             try{
-                out = new PrintWriter(client.getOutputStream(), true);//toClientWriter
-                in = new BufferedReader(new InputStreamReader(client.getInputStream()));//fromClientReader
+                InputStream fromClient = new BufferedInputStream(client.getInputStream());
+                threadPool.execute(this::writeLoop);
 
-                //send to client
-                out.println("Please enter a name: ");//sends msg to client
+                onConnect();
 
-                //get message from client
-                nickname = in.readLine();
-                while (nickname == null || nickname.isEmpty() || !server.isNicknameAvailable(nickname)) {
-                    out.println("Name already taken or invalid, choose another one:");
-                    nickname = in.readLine();
+                fromClient.mark(1);
+                int first = fromClient.read();
+                if(first == 0){
+                    readFrames(new DataInputStream(fromClient));
+                }else if(first != -1){
+                    fromClient.reset();
+                    in = new BufferedReader(new InputStreamReader(fromClient));//fromClientReader
+                    //for this particular client, loop and wait for messages/nachrichtenempfangen
+                    String message;
+                    while( (message = in.readLine()) != null){
+                        handleLine(message);
+                    }
                 }
-                connectionsMap.put(nickname, this);
-                System.out.println("connectionMap" + connectionsMap);
-                for (var entry : connectionsMap.entrySet()) {
-                    System.out.println(entry.getKey() + "/" + entry.getValue());
+                disconnect();
+            } catch (IOException e){
+                disconnect();
+            }
+        }
+
+        /**
+         * Reads binary protocol frames until the client disconnects. The first byte of the magic
+         * was already read.
+         *
+         * @param fromClient the stream of the client
+         * @throws IOException if reading fails
+         */
+        private void readFrames(DataInputStream fromClient) throws IOException {
+            byte[] magic = new byte[BinaryProtocol.MAGIC.length];
+            fromClient.readFully(magic, 1, magic.length - 1);
+            if(!BinaryProtocol.isMagic(magic, 0)){
+                return;
+            }
+            startBinary();
+            while(true){
+                int length;
+                try{
+                    length = fromClient.readUnsignedShort();
+                }catch(EOFException e){
+                    return;
                 }
-                out.println("Welcome " + nickname); //to joiner
-                out.println("Use /help for a list of commands");
-                out.println("Use /create to create a new game");
-                if(isGameCreated){
-                    out.println("A game has been created. Do you want to join? Type /join or /noJoin");
+                if(length == 0 || length + 2 > BinaryProtocol.MAX_INBOUND_FRAME){
+                    return;
                 }
-                System.out.println(nickname + " connected");//message for the server
-                System.out.println("-----");
-                System.out.println(connectionsMap);
-                System.out.println(connectionsMap.get(nickname));
-                //send to everyone except new joiner
-                broadcastExceptSelf(nickname + " joined the server", nickname);
-
-                //for this particular client, loop and wait for messages/nachrichtenempfangen
-                String message;
-                while( (message = in.readLine()) != null){
-                    String[] messageParts = message.split(" ", 2);
-                    String command = messageParts[0];
-                    String parameter = messageParts.length > 1 ? messageParts[1] : "";
-
-                    switch(command){
-                        case "/help":
-                            commandHelp();
-                            break;
-                        case "/private":
-                            commandPrivate(message);
-                            break;
-                        case "/bye":
-                            commandBye();
-                            break;
-                        case "/create":
-                            commandCreate();
-                            break;
-                        case "/join" :
-                            commandJoin();
-                            break;
-                        case "/noJoin" :
-                            commandNoJoin();
-                            break;
-                        case "/start" :
-                            commandStart();
-                            break;
-                        case "/date" :
-                            commandDate(message);
-                            break;
-                        case "/cardsInfo" :
-                            commandCardsInfo();
-                            break;
-                        case "/bd" :
-                            commandBirthday(message);
-                            break;
-                        case "/players" :
-                            commandPlayers();
-                            break;
-                        case "/play" :
-                            commandPlay(message);
-                            break;
-                        case "/target" :
-                            commandTarget(message);
-                            break;
-                        case "/number" :
-                            commandNumber(message);
-                            break;
-                        case "/3cards" :
-                            command3Cards();
-                            break;
-                        case "/score" :
-                            commandScore();
+                byte[] body = new byte[length];
+                fromClient.readFully(body);
+                handleFrame(body[0] & 0xFF, body, 1, length - 1);
+            }
+        }
+
+        /**
+         * Switches this client to the binary protocol and confirms it by echoing the magic.
+         */
+        public void startBinary(){
+            binary = true;
+            enqueueBytes(BinaryProtocol.MAGIC, false);
+        }
+
+        /**
+         * Dispatches a binary protocol frame.
+         *
+         * @param opcode the opcode of the frame
+         * @param body the received bytes, only valid during this call
+         * @param offset start of the payload
+         * @param length length of the payload
+         */
+        public void handleFrame(int opcode, byte[] body, int offset, int length){
+            switch(opcode){
+                case BinaryProtocol.LOGIN:
+                    if(nickname != null){
+                        sendMessage("You are already logged in.");
+                        return;
+                    }
+                    login(new String(body, offset, length, StandardCharsets.UTF_8));
+                    return;
+                case BinaryProtocol.COMMAND:
+                    handleLine(new String(body, offset, length, StandardCharsets.UTF_8));
+                    return;
+                default:
+                    break;
+            }
+            if(nickname == null){
+                sendMessage("Please enter a name: ");
+                return;
+            }
+            MessageBatch batch = beginBatch();
+            try{
+                switch(opcode){
+                    case BinaryProtocol.PLAY:
+                        int card = length > 0 ? body[offset] & 0xFF : Action.NONE;
+                        inGame(() -> playCard(card));
+                        break;
+                    case BinaryProtocol.TARGET:
+                        String targetName = length > 0 ? new String(body, offset, length, StandardCharsets.UTF_8) : null;
+                        inGame(() -> target(targetName));
+                        break;
+                    case BinaryProtocol.NUMBER:
+                        int number = length > 0 ? body[offset] & 0xFF : -1;
+                        inGame(() -> guess(number));
+                        break;
+                    case BinaryProtocol.MOVE:
+                        if(length < 2){
+                            inGame(() -> move(Action.NONE, null, -1));
                             break;
-                        default:
-                            if (command.startsWith("/")) {
-                                sendMessage("Command not found");
-                            } else {
-                                broadcastToAll(nickname + ": " + message);
-                            }
+                        }
+                        int moveCard = body[offset] & 0xFF;
+                        String moveTarget = length > 2 ? new String(body, offset + 2, length - 2, StandardCharsets.UTF_8) : null;
+                        int moveNumber = body[offset + 1] & 0xFF;
+                        inGame(() -> move(moveCard, moveTarget, moveNumber));
+                        break;
+                    case BinaryProtocol.STATE:
+                        inGame(this::sendState);
+                        break;
+                    default:
+                        sendMessage("Unknown opcode " + opcode);
+                }
+            }finally{
+                batch.close();
+            }
+        }
+
+        /**
+         * Sends the state of this client's game as {@link BinaryProtocol#STATE} frame.
+         */
+        public void sendState(){
+            BinaryProtocol.StateWriter state = new BinaryProtocol.StateWriter();
+            Game game = room != null ? room.game : null;
+            if(player == null || game == null){
+                state.u8(0).u8(0).u8(0).u8(0);
+            }else{
+                int flags = BinaryProtocol.IN_GAME
+                            | (player.isMyTurn ? BinaryProtocol.MY_TURN : 0)
+                            | (player.isKnockedOutOfRound ? BinaryProtocol.KNOCKED_OUT : 0)
+                            | (player.isImmune ? BinaryProtocol.IMMUNE : 0);
+                List<Cards> hand = new ArrayList<>(player.hand);
+                state.u8(flags).u8(player.numberOfTokens).u8(hand.size());
+                for(Cards card : hand){
+                    state.u8(card.getValue());
+                }
+                Player[] players = game.seats;
+                state.u8(players.length);
+                for(Player p : players){
+                    state.u8(p.numberOfTokens)
+                         .u8((p.isKnockedOutOfRound ? 1 : 0) | (p.isImmune ? 2 : 0))
+                         .name(p.nickname);
+                }
+            }
+            enqueueBytes(state.toFrame(), false);
+        }
+
+        /**
+         * Writes the queued messages to the socket until the queue is closed. Flushes whenever the
+         * queue runs empty, so a burst of messages goes out together. Closes the socket when done.
+         */
+        private void writeLoop(){
+            try(OutputStream toClient = new BufferedOutputStream(client.getOutputStream())){
+                byte[] message;
+                while((message = outbound.take()) != null){
+                    toClient.write(message);
+                    if(outbound.isEmpty()){
+                        toClient.flush();
                     }
                 }
+                toClient.flush();
             } catch (IOException e){
-                shutdownClient();
+                //client is gone, nothing left to write to
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            } finally {
+                closeSocket();
+                JfrEvents.closed(client.getRemoteSocketAddress(), "socket");
+            }
+        }
+
+        /**
+         * Greets a newly connected client and asks for a name.
+         */
+        public void onConnect(){
+            //send to client
+            sendMessage("Please enter a name: ");//sends msg to client
+        }
+
+        /**
+         * Handles one line received from the client. The first valid line is taken as the nickname,
+         * every following line is dispatched as a command or chat message.
+         *
+         * @param message the line received from the client
+         */
+        public void handleLine(String message){
+            if(nickname == null){
+                login(message);
+                return;
+            }
+            //everything the command sends to this client or its room is flushed once at the end
+            MessageBatch batch = beginBatch();
+            try{
+                dispatch(message);
+            }finally{
+                batch.close();
             }
         }
 
-        public synchronized void startGame(){
-            server.game = new Game(server);
-            broadcastToAll("The game has started with " + playerMap.size() + " players");
-            broadcastToAll("-----------------------------------------------------------");
-            Thread gameThread = new Thread(server.game);
-            gameThread.start();
+        /**
+         * Runs a game command on the game of this client's room, so it is serialized with everything
+         * else the game does. Without a running game the command runs right away and reports that.
+         * The time of receipt goes along, so the turn latency includes the wait for the game.
+         *
+         * @param command the command to run
+         */
+        private void inGame(Runnable command){
+            long received = System.nanoTime();
+            Game game = room != null ? room.game : null;
+            if(game == null){
+                command.run();
+                return;
+            }
+            game.submit(() -> {
+                commandReceived = received;
+                command.run();
+            });
+        }
+
+        /**
+         * Starts a batch for the output of one command: the step of this client's room, or just this
+         * client in the lobby.
+         *
+         * @return the batch to close when the command is done
+         */
+        private MessageBatch beginBatch(){
+            Room audience = room != null ? room : spectating;
+            return audience != null ? audience.beginStep() : new MessageBatch(List.of(this));
+        }
+
+        /**
+         * Executes a single command or chat message of a logged in client.
+         *
+         * @param message the line sent by the client
+         */
+        private void dispatch(String message){
+            String[] messageParts = message.split(" ", 2);
+            String command = messageParts[0];
+            String parameter = messageParts.length > 1 ? messageParts[1] : "";
+
+            switch(command){
+                case "/help":
+                    commandHelp();
+                    break;
+                case "/private":
+                    commandPrivate(message);
+                    break;
+                case "/bye":
+                    commandBye();
+                    break;
+                case "/create":
+                    commandCreate();
+                    break;
+                case "/join" :
+                    commandJoin(parameter);
+                    break;
+                case "/rooms" :
+                    commandRooms();
+                    break;
+                case "/spectate" :
+                    commandSpectate(parameter);
+                    break;
+                case "/leave" :
+                    commandLeave();
+                    break;
+                case "/noJoin" :
+                    commandNoJoin();
+                    break;
+                case "/start" :
+                    commandStart();
+                    break;
+                case "/date" :
+                    commandDate(message);
+                    break;
+                case "/cardsInfo" :
+                    commandCardsInfo();
+                    break;
+                case "/bd" :
+                    commandBirthday(message);
+                    break;
+                case "/players" :
+                    commandPlayers();
+                    break;
+                case "/bot" :
+                    commandBot();
+                    break;
+                case "/play" :
+                    inGame(() -> commandPlay(message));
+                    break;
+                case "/move" :
+                    inGame(() -> commandMove(parameter));
+                    break;
+                case "/target" :
+                    inGame(() -> commandTarget(message));
+                    break;
+                case "/number" :
+                    inGame(() -> commandNumber(message));
+                    break;
+                case "/3cards" :
+                    inGame(this::command3Cards);
+                    break;
+                case "/score" :
+                    inGame(this::commandScore);
+                    break;
+                case "/odds" :
+                    inGame(this::commandOdds);
+                    break;
+                default:
+                    if (command.startsWith("/")) {
+                        sendMessage("Command not found");
+                    } else {
+                        broadcastChat(nickname + ": " + message);
+                    }
+            }
+        }
+
+        /**
+         * Registers the nickname chosen by the client, or asks again if it is invalid or taken.
+         *
+         * @param name the nickname sent by the client
+         */
+        private void login(String name){
+            if (name.isEmpty() || !server.isNicknameAvailable(name)) {
+                sendMessage("Name already taken or invalid, choose another one:");
+                return;
+            }
+            nickname = name;
+            connectionsMap.put(nickname, this);
+            server.lobby.add(this);
+            LOG.debug(() -> "connectionMap" + connectionsMap);
+            sendMessage("Welcome " + nickname); //to joiner
+            sendMessage("Use /help for a list of commands");
+            sendMessage("Use /create to create a new game");
+            if(!rooms.isEmpty()){
+                sendMessage("Games have been created. Type /rooms to list them and /join <room> to join one");
+            }
+            LOG.info("{} connected", nickname);//message for the server
+            //send to everyone except new joiner
+            broadcastExceptSelf(nickname + " joined the server", nickname);
+        }
+
+        public void startGame(){
+            room.game = new Game(room, server.gameScheduler(), server.newGameRandom());
+            broadcastToAll("The game has started with " + room.playerMap.size() + " players");
+            room.broadcastToAll(GAME_START_SEPARATOR);
+            room.game.start();
         }
 
         /**
@@ -306,21 +917,73 @@ public class Server implements Runnable {
          * @param message the message to send
          */
         public void sendMessage(String message) {
-            out.println(message);
-            out.flush();
+            enqueue(Payload.of(message), false);
+        }
+
+        /**
+         * Sends an already encoded message to the client.
+         *
+         * @param payload the encoded message
+         */
+        public void send(Payload payload) {
+            enqueue(payload, false);
+        }
+
+        /**
+         * Sends a chat message to the client. Unlike game messages, chat may be dropped if the client
+         * reads too slowly.
+         *
+         * @param message the message to send
+         */
+        public void sendChat(String message) {
+            enqueue(Payload.of(message), true);
+        }
+
+        /**
+         * Sends an already encoded chat message to the client.
+         *
+         * @param payload the encoded chat message
+         */
+        public void sendChat(Payload payload) {
+            enqueue(payload, true);
+        }
+
+        /**
+         * Queues a message in the protocol this client speaks.
+         *
+         * @param payload the encoded message
+         * @param chat true for chat messages
+         */
+        private void enqueue(Payload payload, boolean chat) {
+            enqueueBytes(binary ? payload.frame() : payload.bytes(), chat);
+        }
+
+        /**
+         * Queues an encoded message for the writer of this connection. Never blocks on the socket; a
+         * client that cannot keep up is handled by the overflow policy of the server.
+         *
+         * @param bytes the encoded message, shared and never modified
+         * @param chat true for chat messages
+         */
+        private void enqueueBytes(byte[] bytes, boolean chat) {
+            if(bot != null){
+                return;
+            }
+            if(connection != null){
+                connection.send(bytes, chat);
+                return;
+            }
+            if(!outbound.offer(bytes, chat)){
+                LOG.warn("{} cannot keep up with its messages and is disconnected", nickname);
+                outbound.close();
+                closeSocket();
+            }
         }
         /**
          * Provides a list of available commands to the client.
          */
         public void commandHelp(){
-            out.println("/help - List of commands\n"
-                        + "/private - Use '/private <playerName> <message>' to send a private message\n"
-                        + "/create - Create a game\n"
-                        + "/players - List of players\n"
-                        + "/score - Shows the score\n"
-                        + "/cardsInfo - short Information for the cards\n"
-                        + "/3cards  - If available, shows you the 3 discarded cards\n"
-                        + "/bye - Leave the server"); //ToDo
+            send(HELP);
         }
 
         /**
@@ -333,62 +996,130 @@ public class Server implements Runnable {
         }
 
         /**
-         * Handles the /create command to create a new game.
+         * Handles the /create command to open a new room and join it.
          */
         public void commandCreate(){
-            // TODO
-            if(!isGameCreated){
-                sendMessage("You created a game");
-                sendMessage("you joined the game");
-                hasJoinedGame = true;
-                this.player = new Player(this.nickname, this);
-                player.isPlaying = true;
-                server.playerMap.put(nickname, this.player);
-                broadcastExceptSelf(nickname + " created a game. Do u want to join?\n"
-                                    + "Type /join or /noJoin", nickname);
-                isGameCreated = true;
-                playerCounter++;
-                //TODO
-            }else{
-                sendMessage("A game has already been created. Type /join to join " +
-                            "it");
+            if(room != null){
+                sendMessage("You have already joined room " + room.id + ".");
+                return;
+            }
+            if(spectating != null){
+                sendMessage("You are watching room " + spectating.id + ". Type /leave first.");
+                return;
             }
+            Room newRoom = server.createRoom();
+            newRoom.addPlayer(this);
+            player.isPlaying = true;
+            sendMessage("You created a game in room " + newRoom.id);
+            sendMessage("you joined the game");
+            server.broadcastToLobby(nickname + " created a game in room " + newRoom.id + ". Do u want to join?\n"
+                                    + "Type /join " + newRoom.id + " or /noJoin", this);
         }
 
         /**
-         * Handles the /join command to join an existing game.
+         * Handles the /join command to join the game of an existing room.
+         *
+         * @param roomId the id of the room to join
          */
-        public void commandJoin(){
-            if(!isGameRunning && hasJoinedGame == false){
-                broadcastToAll(nickname + " joined the game");
-                hasJoinedGame = true;
-                this.player = new Player(this.nickname, this);
-                server.playerMap.put(nickname, this.player);
-                playerCounter++;
-                broadcastToAll(playerCounter + "/4" + " players joined the game");
-                broadcastToAll("To start the game type /start");
-                //Todo
-            }else if(hasJoinedGame){
+        public void commandJoin(String roomId){
+            if(room != null){
                 sendMessage("You have already joined the game.");
+                return;
+            }
+            if(spectating != null){
+                sendMessage("You are watching room " + spectating.id + ". Type /leave first.");
+                return;
+            }
+            if(roomId.isEmpty()){
+                sendMessage("Please specify a room. Usage: /join <room>. Type /rooms for a list of rooms.");
+                return;
+            }
+            Room target = rooms.get(roomId);
+            if(target == null){
+                sendMessage("Room " + roomId + " not found. Type /rooms for a list of rooms.");
+                return;
+            }
+            if(!target.addPlayer(this)){
+                sendMessage("Cannot join, the room is full or the game is in process.");
+                return;
+            }
+            broadcastToAll(nickname + " joined the game");
+            broadcastToAll(target.playerCounter + "/" + Room.MAX_PLAYERS + " players joined the game");
+            broadcastToAll("To start the game type /start");
+        }
+
+        /**
+         * Handles the /rooms command, listing all open rooms.
+         */
+        public void commandRooms(){
+            if(rooms.isEmpty()){
+                sendMessage("There are no rooms. Type /create to create a game.");
+                return;
+            }
+            StringBuilder roomList = new StringBuilder();
+            for(Room r : rooms.values()){
+                roomList.append(r.describe()).append("\n");
+            }
+            sendMessage(roomList.toString().trim());
+        }
+
+        /**
+         * Handles the /spectate command to watch the game of a room without playing.
+         *
+         * @param roomId the id of the room to watch
+         */
+        public void commandSpectate(String roomId){
+            if(room != null || spectating != null){
+                sendMessage("You are already in a room. Type /leave first.");
+                return;
+            }
+            Room target = rooms.get(roomId);
+            if(target == null){
+                sendMessage("Room " + roomId + " not found. Type /rooms for a list of rooms.");
+                return;
+            }
+            target.addSpectator(this);
+            sendMessage("You are watching room " + target.id + ". Type /leave to return to the lobby.");
+        }
+
+        /**
+         * Handles the /leave command, returning to the lobby from a watched room or a room whose game
+         * has not started yet.
+         */
+        public void commandLeave(){
+            if(spectating != null){
+                spectating.removeSpectator(this);
+                sendMessage("You returned to the lobby.");
+            }else if(room != null && !room.isGameRunning()){
+                broadcastExceptSelf(nickname + " left the game", nickname);
+                room.removePlayer(this);
+                sendMessage("You returned to the lobby.");
+            }else if(room != null){
+                sendMessage("You cannot leave while the game is being played");
             }else{
-                sendMessage("Cannot join, game is in process.");
-                commandNoJoin();
+                sendMessage("You are not in a room.");
             }
         }
 
+        /**
+         * Removes this client from its room or watched room and from the lobby before it disconnects.
+         */
+        private void leaveAudience(){
+            if(room != null){
+                room.leave(this);
+            }
+            if(spectating != null){
+                spectating.removeSpectator(this);
+            }
+            server.lobby.remove(this);
+        }
+
         /**
          * Handles the /noJoin command to leave the server without joining the game.
          */
         public void commandNoJoin(){
-            // TODO
-            broadcastExceptSelf(nickname + " left the server", nickname);
-            out.println("You left the server ");
-            System.out.println(nickname + " left the room");//message for the server
-            server.removeNickname(nickname);
-            server.connectionsMap.remove(nickname);
-            shutdownClient();
-            server.clientCounter--;
-            System.out.println(server.clientCounter);
+            sendMessage("You left the server ");
+            disconnect();
         }
 
         /**
@@ -397,19 +1128,19 @@ public class Server implements Runnable {
          * @param message the command input from the player, expected to contain the number of days
          */
         public void commandDate(String message){
+            if(player == null){
+                sendMessage("You must join a game first.");
+                return;
+            }
             // Split the input to extract the number of days
             String[] parts = message.split(" ");
             if (parts.length == 2) {
                 try {
                     int days = Integer.parseInt(parts[1]);  // Extract the number of days since the last date
-                    System.out.println("days: " + days);
-                    //Todo
+                    LOG.debug("days: {}", days);
                     player.lastDate = days;
-                    dateCounter++;
+                    room.countDate();
                     sendMessage("Thank you for your response.");
-                    //TODO
-                    //System.out.println(player.lastDate);
-                    System.out.println("---");
                     sendMessage("Please type in your birthday. In this format: /bd yyyy/mm/dd");
 
                 } catch (NumberFormatException e) {
@@ -426,11 +1157,15 @@ public class Server implements Runnable {
          * @param message the command input from the player, expected to contain the birthday in the format yyyy/MM/dd
          */
         public void commandBirthday(String message){
+            if(player == null){
+                sendMessage("You must join a game first.");
+                return;
+            }
             String[] parts = message.split(" ");
             if (parts.length == 2) {
                 try {
                     String birthday = parts[1];
-                    System.out.println("birthday: " + birthday);
+                    LOG.debug("birthday: {}", birthday);
                     String datePattern = "\\d{4}/\\d{2}/\\d{2}";
                     if (!birthday.matches(datePattern)) {
                         sendMessage("Invalid date format. Please use the format '/birthday <yyyy/MM/dd>'. For " +
@@ -440,11 +1175,9 @@ public class Server implements Runnable {
                     SimpleDateFormat sdf = new SimpleDateFormat("yyyy/MM/dd");
                     Date date = sdf.parse(birthday);
                     player.age = date.getTime();
-                    System.out.println(player.age);
-                    birthdayCounter++;
+                    boolean allAnswered = room.countBirthday();
                     sendMessage("Thank you for your response.");
-                    System.out.println("---");
-                    if(dateCounter == playerCounter && birthdayCounter == playerCounter){
+                    if(allAnswered){
                         broadcastToAll("The game is starting now");
                         startGame();
                     }
@@ -461,51 +1194,38 @@ public class Server implements Runnable {
          * Processes the /bye command, allowing the player to leave the server.
          */
         public void commandBye(){
-            if(server.isGameRunning){
-                out.println("You cannot leave while the game is being played");
+            if(room != null && room.isGameRunning()){
+                sendMessage("You cannot leave while the game is being played");
                 return;
             }
-            broadcastExceptSelf(nickname + " left the room", nickname);
-            out.println("You left the server ");
-            System.out.println(nickname + " left the room");//message for the server
-            server.removeNickname(nickname);
-            shutdownClient();
-            server.clientCounter--;
-            System.out.println("clientcounter" + server.clientCounter);
+            sendMessage("You left the server ");
+            disconnect();
         }
 
         /**
          * Processes the /start command, initiating the game if enough players have joined.
          */
         public void commandStart(){
-            if(!hasJoinedGame){
+            if(room == null){
                 sendMessage("You must join the game before you can start it.");
                 return;
             }
-            if(!server.isGameCreated){
-                sendMessage("Game has not been created.");
-                return;
-            }
-            if(!isGameRunning) {
-                if(playerCounter > 1){
-                    broadcastToAll("Game is starting soon.");
-                    isGameRunning = true;
-                    server.connectionsMap.forEach( (key, val) -> {
-                        if(val.hasJoinedGame == false){
-                            val.commandNoJoin();
-                        }
-                    });
-                    System.out.println("server player Mapppo");
-                    System.out.println(server.playerMap);
-                    broadcastToAll("The game will start once all players have entered the time of " +
-                                   "their last date and their birthday.");
-                    broadcastToAll("Please enter the number of days since your last date in this format: /date 60 " +
-                                   "(for example, /date 60 means your last date was 60 days ago).");
-                }else{
-                    broadcastToAll("Game cannot start. Not enough players");
+            if(room.tryStart()){
+                broadcastToAll("Game is starting soon.");
+                LOG.debug(() -> "room " + room.id + " players " + room.playerMap);
+                broadcastToAll("The game will start once all players have entered the time of " +
+                               "their last date and their birthday.");
+                broadcastToAll("Please enter the number of days since your last date in this format: /date 60 " +
+                               "(for example, /date 60 means your last date was 60 days ago).");
+                for(ConnectionHandler member : room.members){
+                    if(member.isBot()){
+                        member.botAnswers();
+                    }
                 }
-            }else{
+            }else if(room.isGameRunning()){
                 sendMessage("Game is already running");
+            }else{
+                broadcastToAll("Game cannot start. Not enough players");
             }
         }
 
@@ -514,14 +1234,7 @@ public class Server implements Runnable {
          * to the player.
          */
         public void commandCardsInfo(){
-            out.println("8-Princess(1): Lose if discarded.\n"
-                        + "7-Countess(1): Must be played if you have King or Prince in hand.\n"
-                        + "6-King(1): Trade hands with another player.\n"
-                        + "5-Prince(2): Choose a player. They discard their hand and draw a new card.\n"
-                        + "4-Handmaid(2): You cannot be chosen until your next turn.\n"
-                        + "3-Baron(2): Compare hands with another player, lower number is out.\n"
-                        + "2-Priest(2): Look at a player's hand.\n"
-                        + "1-Guard(5): Guess a player's hand; if correct the player is out.");
+            send(CARDS_INFO);
         }
 
         /**
@@ -532,19 +1245,44 @@ public class Server implements Runnable {
         public void commandNumber(String message){
             String[] parts = message.split(" ");
             if (parts.length < 2) {
-                sendMessage("Please choose a number between 2 - 8. Usage: '/number number'. For example /number 3 ");
+                guess(-1);
                 return;
             }
-            String numberString = parts[1];
+            int number;
+            try{
+                number = Integer.parseInt(parts[1]);
+            }catch(NumberFormatException e){
+                number = 0;
+            }
+            guess(number);
+        }
 
-            int number = Integer.parseInt(numberString);
-            System.out.println(number);
+        /**
+         * Guesses a number for the Guard card the player is playing.
+         *
+         * @param number the guessed card value between 2 and 8, or -1 if none was given
+         */
+        public void guess(int number){
+            if(player == null || room.game == null){
+                sendMessage("You are not playing a game.");
+                return;
+            }
+            if(player.guardTarget == null){
+                sendMessage("Choose a target for your Guard first. Use: /target <TargetName>");
+                return;
+            }
+            if (number == -1) {
+                sendMessage("Please choose a number between 2 - 8. Usage: '/number number'. For example /number 3 ");
+                return;
+            }
+            LOG.debug("{} = number", number);
             if(number < 2 || number > 8){
                 sendMessage("Please choose a number between 2 - 8. Usage: '/number <number>'. For example /number 7 ");
                 return;
             }
-            player.playCardGuard(number, playerMap.get(guardName));
-            server.game.playerFinishedTurn();
+            Player target = player.guardTarget;
+            player.guardTarget = null;
+            submitAction(Action.guard(target.turnOrder, number));
         }
 
         /**
@@ -553,53 +1291,66 @@ public class Server implements Runnable {
          * @param message the command input from the player, expected to contain a target player's name
          */
         public void commandTarget(String message){
+            String[] parts = message.split(" ");
+            target(parts.length < 2 ? null : parts[1]);
+        }
+
+        /**
+         * Chooses the target of the card the player is playing.
+         *
+         * @param targetName the nickname of the target, or null if none was given
+         */
+        public void target(String targetName){
+            if(player == null || room.game == null){
+                sendMessage("You are not playing a game.");
+                return;
+            }
             if(!player.isMyTurn){
                 sendMessage("Not your turn to target");
                 return;
             }
-            String[] parts = message.split(" ");
-            if (parts.length < 2) {
+            if (targetName == null) {
                 sendMessage("Please specify a target name to attack. Use: /target <TargetName>");
                 return;
             }
-            String targetName = parts[1];
+            if(!Card.needsTarget(player.cardToPlay)){
+                sendMessage("Play a card that needs a target first. Use: /play <CardName>");
+                return;
+            }
+            Player pl = findTarget(targetName);
+            if(pl == null){
+                return;
+            }
+            if(player.cardToPlay == Card.GUARD){
+                player.guardTarget = pl;
+                sendMessage("Number from 2-8 is required. Type /number <number> \n"
+                            + "For example /number 8");
+                return;
+            }
+            submitAction(Action.play(player.cardToPlay, pl.turnOrder));
+        }
 
-            if(!playerMap.containsKey(targetName)){
+        /**
+         * Looks up a player that may be targeted, telling the client why if there is none.
+         *
+         * @param targetName the nickname of the target
+         * @return the target, or null if the player does not exist, is immune or is knocked out
+         */
+        private Player findTarget(String targetName){
+            Player pl = room.playerMap.get(targetName);
+            if(pl == null){
                 sendMessage("Player not found. Please try again.");
-                return;
+                return null;
             }
-            Player pl = playerMap.get(targetName);
             if(pl.isImmune){
                 sendMessage("Target is immune. Choose another target.");
-                return;
+                return null;
             }
-            if(game.knockedOutPlayersSet.contains(pl)){
+            if(pl.isKnockedOutOfRound){
                 sendMessage("Target is already knocked out. Choose another one. Usage: /target <TargetName");
-                return;
-            }
-            switch (player.cardToPlay){
-                case "King":
-                    player.playCardKing(playerMap.get(targetName));
-                    server.game.playerFinishedTurn();
-                    break;
-                case "Prince":
-                    player.playCardPrince(playerMap.get(targetName), game.deck);
-                    server.game.playerFinishedTurn();
-                    break;
-                case "Baron":
-                    player.playCardBaron(playerMap.get(targetName));
-                    server.game.playerFinishedTurn();
-                    break;
-                case "Priest":
-                    player.playCardPriest(playerMap.get(targetName));
-                    server.game.playerFinishedTurn();
-                    break;
-                case "Guard":
-                    guardName = targetName;
-                    sendMessage("Number from 2-8 is required. Type /number <number> \n"
-                                + "For example /number 8");
-                    break;
+                return null;
             }
+            return pl;
         }
 
         /**
@@ -608,84 +1359,278 @@ public class Server implements Runnable {
          * @param message the command input from the player, expected to contain the card name
          */
         public void commandPlay(String message){
-            if(!player.isMyTurn){
-                sendMessage("Not your turn to play");
-                return;
-            }
-            if (player.isKnockedOutOfRound) {
-                sendMessage("You have been knocked out of the round and cannot play.");
+            String[] parts = message.split(" ");
+            playCard(parts.length < 2 ? Action.NONE : Card.byName(parts[1]));
+        }
+
+        /**
+         * Plays a card from the player's hand. Cards that need a target are completed with /target.
+         *
+         * @param card the card value, {@link Card#NONE} for an unknown card or {@link Action#NONE} if
+         *             none was given
+         */
+        public void playCard(int card){
+            if(!canPlay()){
                 return;
             }
-            String[] parts = message.split(" ");
-            if (parts.length < 2) {
+            if (card == Action.NONE) {
                 sendMessage("Please specify a card name to play. Usage: /play <CardName>");
                 return;
             }
-            String cardName = parts[1];
-            player.cardToPlay = cardName;
-            System.out.println(cardName + " = cardName");
+            LOG.debug("{} = card", card);
 
-            if(!cardName.equals(player.hand.get(0).getName()) && !cardName.equals(player.hand.get(1).getName())){
-                System.out.println(player.hand.get(0).getName());
-                System.out.println(player.hand.get(1).getName());
-                System.out.println(player.hand.get(0).getName().equals(cardName));
+            if(!holdsCard(card)){
                 sendMessage("Wrong card name. Please try again in this format: /play <Cardname>. for example /play " +
                             "Princess");
                 return;
             }
-            switch(cardName){
-                case "Princess":
-                    player.playCardPrincess();
-                    server.game.playerFinishedTurn();
-                    return;
-                case "Countess":
-                    player.playCardCountess();
-                    server.game.playerFinishedTurn();
-                    return;
-                case "Handmaid":
-                    player.playCardHandmaid();
-                    server.game.playerFinishedTurn();
-                    return;
-
+            player.cardToPlay = card;
+            if(!Card.needsTarget(card) || onlyNotImmune()){
+                playWithoutTarget(card);
+                return;
             }
+            sendMessage("Target is required. Type /target \n"
+                        + "For example /target Peter");
+        }
 
-            boolean onlyNotImmune =
-                    game.turnOrderMap.size() - game.knockedOutPlayersSet.size() - game.immunePlayersList.size() == 1;
-            System.out.println("onlyImmue " + onlyNotImmune);
-            System.out.println(game.turnOrderMap.size() - game.knockedOutPlayersSet.size() - game.immunePlayersList.size());
-            if(onlyNotImmune){
-                if(player.cardToPlay.equals("Prince")){
-                    sendMessage("You are the only player who is not immune. You automatically target yourself!");
-                    player.playCardPrince(playerMap.get(player.nickname), game.deck);
-                    server.game.playerFinishedTurn();
-                    return;
-                }else{
-                    broadcastToAll(player.nickname + " is the only player who is not immune. The card is discarded " +
-                                   "without an effect");
-                    player.playCardAllImmune(player.cardToPlay);
-                    server.game.playerFinishedTurn();
-                    return;
+        /**
+         * Processes the /move command, which plays a card with its target and number in one step,
+         * e.g. {@code /move Guard Bob 5}.
+         *
+         * @param parameter the card name, followed by the target and the number if the card needs them
+         */
+        public void commandMove(String parameter){
+            String[] parts = parameter.isEmpty() ? new String[0] : parameter.split(" ");
+            int number = -1;
+            if(parts.length > 2){
+                try{
+                    number = Integer.parseInt(parts[2]);
+                }catch(NumberFormatException e){
+                    number = 0;
                 }
             }
-            switch(cardName){
-                case "King", "Prince", "Baron", "Priest", "Guard":
-                    sendMessage("Target is required. Type /target \n"
-                                + "For example /target Peter");
-                    break;
+            move(parts.length > 0 ? Card.byName(parts[0]) : Action.NONE, parts.length > 1 ? parts[1] : null, number);
+        }
+
+        /**
+         * Plays a card with its target and number in one step. Everything is validated before the
+         * card is played, so an invalid move changes nothing and can simply be sent again.
+         *
+         * @param card the card value, {@link Card#NONE} for an unknown card or {@link Action#NONE} if
+         *             none was given
+         * @param targetName the nickname of the target, or null if the card needs none
+         * @param number the guessed number for the Guard, or -1 if none was given
+         */
+        public void move(int card, String targetName, int number){
+            if(!canPlay()){
+                return;
+            }
+            if(card == Action.NONE){
+                sendMessage("Please specify a card. Usage: /move <CardName> [<TargetName>] [<number>]");
+                return;
+            }
+            if(!holdsCard(card)){
+                sendMessage("You do not have this card. Usage: /move <CardName> [<TargetName>] [<number>]");
+                return;
+            }
+            String cardName = Card.name(card);
+            if(!Card.needsTarget(card) || onlyNotImmune()){
+                player.cardToPlay = card;
+                playWithoutTarget(card);
+                return;
+            }
+            if(targetName == null){
+                sendMessage("Target is required. Usage: /move " + cardName + " <TargetName>"
+                            + (card == Card.GUARD ? " <number>" : ""));
+                return;
+            }
+            Player target = findTarget(targetName);
+            if(target == null){
+                return;
+            }
+            if(card == Card.GUARD && (number < 2 || number > 8)){
+                sendMessage("Please choose a number between 2 - 8. Usage: /move Guard " + targetName + " <number>");
+                return;
+            }
+            player.cardToPlay = card;
+            submitAction(new Action(card, target.turnOrder, card == Card.GUARD ? number : Action.NONE));
+        }
+
+        /**
+         * Checks that this client is playing, has the turn and is still in the round.
+         *
+         * @return true if the player may play a card
+         */
+        private boolean canPlay(){
+            if(player == null || room.game == null){
+                sendMessage("You are not playing a game.");
+                return false;
+            }
+            if(!player.isMyTurn){
+                sendMessage("Not your turn to play");
+                return false;
+            }
+            if (player.isKnockedOutOfRound) {
+                sendMessage("You have been knocked out of the round and cannot play.");
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Checks if the player has a card in hand.
+         *
+         * @param card the card value
+         * @return true if the card is in the player's hand
+         */
+        private boolean holdsCard(int card){
+            return room.game.state().holds(player.turnOrder, card);
+        }
+
+        /**
+         * Checks if the player is the only one in the round who may be targeted.
+         *
+         * @return true if all other players are immune or knocked out
+         */
+        private boolean onlyNotImmune(){
+            boolean onlyNotImmune = !Engine.hasTargets(room.game.state());
+            LOG.debug("only immune {}", onlyNotImmune);
+            return onlyNotImmune;
+        }
+
+        /**
+         * Plays a card that does not need a target, or a card that needs a target when no other
+         * player can be targeted: the Prince targets the player, every other card is discarded
+         * without effect.
+         *
+         * @param card the card value
+         */
+        private void playWithoutTarget(int card){
+            if(card == Card.PRINCE){
+                sendMessage("You are the only player who is not immune. You automatically target yourself!");
             }
+            submitAction(Action.play(card));
+        }
 
+        /**
+         * Passes an action to the game, telling the client if the game rejects it.
+         *
+         * @param action the action with the target given as seat
+         */
+        private void submitAction(Action action){
+            Player playing = player;
+            Rejection rejection = room.game.play(playing, action);
+            if(rejection == null){
+                server.metrics.turn.record(System.nanoTime() - commandReceived);
+                //the game may be over now and this client back in the lobby
+                playing.cardToPlay = Card.NONE;
+                return;
+            }
+            switch(rejection){
+                case TARGET_SELF:
+                    sendMessage("You cannot target yourself with the " + Card.name(action.card())
+                                + ". Choose another player.");
+                    break;
+                case MUST_PLAY_COUNTESS:
+                    sendMessage("You have to play the Countess.");
+                    break;
+                default:
+                    sendMessage("You cannot play this now: " + rejection);
+                    break;
+            }
         }
 
         /**
          * Processes the /3cards command, revealing the three discarded cards if only two players are in the game.
          */
         public void command3Cards(){
-            if(playerMap.size() > 2){
+            if(room == null || room.game == null){
+                sendMessage("You are not playing a game.");
+                return;
+            }
+            if(room.playerMap.size() > 2){
                 sendMessage("there are no revealed 3 cards because of the player size");
                 return;
             }
-            sendMessage(game.deck.showThreeRemovedCards());
+            sendMessage(room.game.threeRemovedCards());
+
+        }
+
+        /**
+         * Processes the /bot command, which adds a computer player to the client's room before the
+         * game starts.
+         */
+        public void commandBot(){
+            if(room == null){
+                sendMessage("You must join a game first.");
+                return;
+            }
+            int number = 1;
+            while(!server.isNicknameAvailable("Bot" + number)){
+                number++;
+            }
+            ConnectionHandler handler = new ConnectionHandler("Bot" + number, server, server.newBot());
+            if(!room.addPlayer(handler)){
+                server.removeNickname(handler.nickname);
+                sendMessage("Cannot add a bot, the room is full or the game is in process.");
+                return;
+            }
+            LOG.info("{} joined room {}", handler.nickname, room.id);
+            broadcastToAll(handler.nickname + " joined the game");
+        }
+
+        /**
+         * Lets a computer player answer the questions asked before the game starts.
+         */
+        private void botAnswers(){
+            commandDate("/date " + botRandom.nextInt(1, 366));
+            commandBirthday("/bd " + (1970 + botRandom.nextInt(40)) + "/01/01");
+        }
+
+        /**
+         * Tells a computer player what happened in its round.
+         *
+         * @param seat the seat of the computer player
+         * @param result the step
+         */
+        public void botObserve(int seat, Result result){
+            bot.observe(seat, result);
+        }
+
+        /**
+         * Lets a computer player choose its move. The search runs on its own thread, so the game is
+         * not held up; the move is then played through the same commands a client sends.
+         *
+         * @param state the state of the round when the turn started
+         */
+        public void botTurn(RoundState state){
+            Thread.ofVirtual().name("bot-" + nickname).start(() -> {
+                long start = System.nanoTime();
+                Action action = bot.choose(state, botRandom);
+                LOG.debug(() -> nickname + " chose " + action + " in "
+                                 + (System.nanoTime() - start) / 1_000_000 + " ms");
+                inGame(() -> botMove(state, action));
+            });
+        }
 
+        /**
+         * Plays the move of a computer player with /play, /target and /number, unless the game went on
+         * while it was thinking.
+         *
+         * @param state the state the move was chosen for
+         * @param action the move
+         */
+        private void botMove(RoundState state, Action action){
+            if(room == null || room.game == null || room.game.state() != state){
+                return;
+            }
+            commandPlay("/play " + Card.name(action.card()));
+            if(action.target() != Action.NONE && player != null && player.cardToPlay == action.card()){
+                commandTarget("/target " + room.game.seats[action.target()].nickname);
+            }
+            if(action.guess() != Action.NONE && player != null && player.guardTarget != null){
+                commandNumber("/number " + action.guess());
+            }
         }
 
         /**
@@ -693,10 +1638,11 @@ public class Server implements Runnable {
          */
         public void commandPlayers(){
             StringBuilder playerList = new StringBuilder(5);
-            server.playerMap.forEach( (key,val) -> {
-                System.out.println(key);
-                playerList.append(key).append(" : ");
-            });
+            if(room == null){
+                sendMessage("You have not joined a game. Type /rooms for a list of rooms.");
+                return;
+            }
+            room.playerMap.forEach( (key,val) -> playerList.append(key).append(" : "));
             sendMessage("The players are: " + playerList.toString());
         }
 
@@ -704,34 +1650,116 @@ public class Server implements Runnable {
          * Processes the /score command, providing the current score for each player in the game.
          */
         public void commandScore(){
-            server.game.tokenInfo();
+            if(room == null || room.game == null){
+                sendMessage("You are not playing a game.");
+                return;
+            }
+            room.game.tokenInfo();
+        }
+
+        /**
+         * Processes the /odds command: the cards the player has not seen yet and the chance of every card
+         * in the hands of the other players, from what the player has seen in this round.
+         */
+        public void commandOdds(){
+            if(player == null || room.game == null || room.game.state() == null){
+                sendMessage("You are not playing a game.");
+                return;
+            }
+            RoundState state = room.game.state();
+            Beliefs beliefs = room.game.beliefs(player.turnOrder);
+            StringBuilder odds = new StringBuilder("Unseen cards:");
+            for(int card = Card.GUARD; card <= Card.PRINCESS; card++){
+                odds.append(' ').append(Card.name(card)).append(' ').append(beliefs.unseen(card));
+            }
+            for(int seat = 0; seat < state.players(); seat++){
+                if(seat == player.turnOrder || state.isKnockedOut(seat)){
+                    continue;
+                }
+                odds.append('\n').append(room.game.seats[seat].nickname).append(':');
+                double[] chances = beliefs.odds(seat);
+                for(int card = Card.GUARD; card <= Card.PRINCESS; card++){
+                    if(chances[card] > 0){
+                        odds.append(' ').append(Card.name(card)).append(' ')
+                            .append(Math.round(chances[card] * 100)).append('%');
+                    }
+                }
+            }
+            sendMessage(odds.toString());
+        }
+
+        /**
+         * Releases everything this client holds once it leaves, with /bye or /noJoin, by closing the
+         * connection or by being closed by the server: tells its audience, leaves its room, which ends
+         * a running game for the other players, frees the nickname, stops counting the client and
+         * closes the connection. Can be called from any thread and more than once; only the first call
+         * does anything.
+         */
+        public void disconnect(){
+            if(!disconnected.compareAndSet(false, true)){
+                return;
+            }
+            if(nickname != null){
+                broadcastExceptSelf(nickname + " left the server", nickname);
+            }
+            leaveAudience();
+            if(nickname != null){
+                server.removeNickname(nickname);
+                connectionsMap.remove(nickname, this);
+                LOG.info("{} left the server", nickname);//message for the server
+            }
+            server.releaseClient();
+            LOG.debug("client counter {}", server.connectedClients());
+            shutdownClient();
         }
 
         /**
          * Shuts down the client connection and releases resources.
          */
         public void shutdownClient(){
+            if(bot != null){
+                return;
+            }
+            if(connection != null){
+                connection.close();
+                return;
+            }
+            //the writer sends what is still queued and closes the socket afterwards
+            outbound.close();
+        }
+
+        /**
+         * Closes the socket of this client immediately.
+         */
+        private void closeSocket(){
             try{
-                in.close();
-                out.close();
-                if(!client.isClosed()){
+                if(client != null && !client.isClosed()){
                     client.close();
                 }
             } catch (IOException e) {
                 //or ignore
-                e.printStackTrace();
+                LOG.warn("Cannot close the socket of {}", nickname);
             }
-
         }
     }
 
     /**
-     * The main method to start the server.
+     * The main method to start the server. A wrong command line prints the problem and the usage and
+     * exits with status 2.
      *
-     * @param args command-line arguments (not used)
+     * @param args command-line arguments, see {@link ServerConfig#fromArgs(String[])}
      */
     public static void main(String[] args) {
-        Server server = new Server();
+        ServerConfig config;
+        try{
+            config = ServerConfig.fromArgs(args);
+        }catch(IllegalArgumentException e){
+            System.err.println(e.getMessage());
+            System.err.println(ServerConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+        Server server = new Server(config);
         server.run();
     }
 }
@@ -0,0 +1,128 @@
+package ServerClient;
+
+import java.util.function.Function;
+
+/**
+ * Holds the startup options of the server. The options are read from the command line
+ * in {@link Server#main(String[])}, for example {@code java -jar server.jar --nio --port 9090}.
+ */
+public class ServerConfig {
+
+    /** The port the server listens on. */
+    public int port = 8080;
+    /** If true, connections are served by a single selector thread instead of one thread per client. */
+    public boolean nio = false;
+    /** If true, connection handlers run on virtual threads instead of platform threads. */
+    public boolean virtualThreads = false;
+    /** Maximum number of connected clients. */
+    public int maxClients = Integer.MAX_VALUE;
+    /** Number of threads shared by all games. */
+    public int gameThreads = Runtime.getRuntime().availableProcessors();
+    /** Maximum number of messages queued for one client before the overflow policy applies. */
+    public int outboundCapacity = 1024;
+    /** Maximum number of bytes queued for one client before the overflow policy applies. */
+    public int outboundMaxBytes = 1 << 20;
+    /** What to do with a client whose outbound queue is full. */
+    public OverflowPolicy overflowPolicy = OverflowPolicy.COALESCE;
+    /** Number of threads shared by the searches of all computer players. */
+    public int botThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    /** Time a computer player may think about a move, in milliseconds. */
+    public int botMoveMillis = 50;
+    /** Policy file of the computer players in two player games, or null to always search. */
+    public String policy = null;
+    /** Seed of the server's random generator, or null for a random seed. */
+    public Long seed = null;
+    /** Port of the local metrics endpoint, or null to serve no metrics. */
+    public Integer metricsPort = null;
+    /** Lowest level of the messages the server logs. */
+    public Log.Level logLevel = Log.Level.INFO;
+
+    /** The options of {@link #fromArgs(String[])}, printed when the command line is wrong. */
+    public static final String USAGE = "Usage: Server [--port <number>] [--nio] [--virtual-threads]"
+            + " [--game-threads <number>] [--max-clients <number>]\n"
+            + "              [--outbound-capacity <number>] [--outbound-max-bytes <number>]"
+            + " [--overflow drop-chat|coalesce|disconnect]\n"
+            + "              [--bot-threads <number>] [--bot-move-ms <number>] [--policy <file>] [--seed <number>]\n"
+            + "              [--metrics-port <number>] [--log-level debug|info|warn|error|off]";
+
+    /**
+     * Creates a configuration from the given command-line arguments.
+     *
+     * @param args the command-line arguments
+     * @return the configuration described by the arguments
+     * @throws IllegalArgumentException if an option is unknown, or its value is missing or not valid
+     */
+    public static ServerConfig fromArgs(String[] args) {
+        ServerConfig config = new ServerConfig();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--nio":
+                    config.nio = true;
+                    break;
+                case "--virtual-threads":
+                    config.virtualThreads = true;
+                    break;
+                case "--max-clients":
+                    config.maxClients = value(args, ++i, Integer::parseInt);
+                    break;
+                case "--outbound-capacity":
+                    config.outboundCapacity = value(args, ++i, Integer::parseInt);
+                    break;
+                case "--outbound-max-bytes":
+                    config.outboundMaxBytes = value(args, ++i, Integer::parseInt);
+                    break;
+                case "--overflow":
+                    config.overflowPolicy = value(args, ++i, OverflowPolicy::fromName);
+                    break;
+                case "--game-threads":
+                    config.gameThreads = value(args, ++i, Integer::parseInt);
+                    break;
+                case "--bot-threads":
+                    config.botThreads = value(args, ++i, Integer::parseInt);
+                    break;
+                case "--bot-move-ms":
+                    config.botMoveMillis = value(args, ++i, Integer::parseInt);
+                    break;
+                case "--policy":
+                    config.policy = value(args, ++i, Function.identity());
+                    break;
+                case "--seed":
+                    config.seed = value(args, ++i, Long::parseLong);
+                    break;
+                case "--log-level":
+                    config.logLevel = value(args, ++i, Log.Level::fromName);
+                    break;
+                case "--metrics-port":
+                    config.metricsPort = value(args, ++i, Integer::parseInt);
+                    break;
+                case "--port":
+                    config.port = value(args, ++i, Integer::parseInt);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Reads the value of an option from the command line.
+     *
+     * @param args   the command-line arguments
+     * @param i      the index of the value, right after the option
+     * @param parser converts the value and throws an IllegalArgumentException if it is not valid
+     * @return the converted value
+     * @throws IllegalArgumentException if the value is missing or not valid
+     */
+    static <T> T value(String[] args, int i, Function<String, T> parser) {
+        String option = args[i - 1];
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        try {
+            return parser.apply(args[i]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + option + ": " + args[i]);
+        }
+    }
+}
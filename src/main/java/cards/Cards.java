@@ -1,14 +1,18 @@
 package cards;
 
 /**
- * Represents a card in the game with a name, value, and effect.
- * This class is intended to be extended by specific card types
- * that implement the actual effects in their `applyEffect` method.
+ * Represents a card in the game with a name, value, and effect description.
+ * The effects themselves are played by {@link engine.Engine}; these classes describe the cards to the
+ * players.
  */
 public abstract class Cards {
-    private String name;
-    private int value;
-    private String effect;
+    /** The shared instance of every card type, indexed by value. */
+    private static final Cards[] BY_VALUE = {null, new Guard(), new Priest(), new Baron(), new Handmaid(),
+                                             new Prince(), new King(), new Countess(), new Princess()};
+
+    private final String name;
+    private final int value;
+    private final String effect;
 
     /**
      * Constructs a card with the specified name, value, and effect description.
@@ -51,10 +55,16 @@ public abstract class Cards {
     }
 
     /**
-     * Applies the card's effect. This method is intended to be overridden
-     * by subclasses to provide specific behaviors.
+     * Gets the card with the given value. Cards are immutable, so there is one shared instance per
+     * card type.
+     *
+     * @param value the value of the card, 1 to 8
+     * @return the card
      */
-    public void applyEffect() {
-        // Intentionally left empty. To be implemented by subclasses.
+    public static Cards of(int value) {
+        if (value < 1 || value >= BY_VALUE.length) {
+            throw new IllegalArgumentException("No card has the value " + value);
+        }
+        return BY_VALUE[value];
     }
 }
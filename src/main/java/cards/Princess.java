@@ -1,7 +1,5 @@
 package cards;
 
-import Game.Player;
-
 /**
  * Represents the "Princess" card in the game.
  * If the Princess card is discarded for any reason, the player who discarded it is immediately knocked out
@@ -19,17 +17,4 @@ public class Princess extends Cards {
                              "any remaining effects of that card do not apply (you do not draw a card from the Prince, for example). " +
                              "Effects tied to being knocked out of the round still apply (e.g., Constable, Jester), however.");
     }
-
-    /**
-     * Applies the effect of the Princess card.
-     * The player who discards the Princess is immediately knocked out of the round.
-     * This applies regardless of the reason for discarding the Princess card.
-     *
-     * @param target the player discarding the Princess card, who will be knocked out of the round.
-     */
-    public void applyEffect(Player target) {
-        target.isKnockedOutOfRound = true;
-        target.connectionHandler.broadcastToAll(target.nickname + " discarded the Princess and is knocked out of the round.");
-        target.revealCard();
-    }
 }
@@ -0,0 +1,47 @@
+package engine;
+
+/**
+ * What the player whose turn it is does: the card to play, its target and, for the Guard, the guessed
+ * card. Unused parts are {@link #NONE}.
+ *
+ * @param card   the card to play
+ * @param target the seat of the target, or {@link #NONE}
+ * @param guess  the guessed card for the Guard, or {@link #NONE}
+ */
+public record Action(int card, int target, int guess) {
+
+    public static final int NONE = -1;
+
+    /**
+     * Plays a card without target, or a card whose target cannot be chosen because every other player
+     * is protected.
+     *
+     * @param card the card to play
+     * @return the action
+     */
+    public static Action play(int card) {
+        return new Action(card, NONE, NONE);
+    }
+
+    /**
+     * Plays a card on a target.
+     *
+     * @param card   the card to play
+     * @param target the seat of the target
+     * @return the action
+     */
+    public static Action play(int card, int target) {
+        return new Action(card, target, NONE);
+    }
+
+    /**
+     * Plays the Guard on a target.
+     *
+     * @param target the seat of the target
+     * @param guess  the guessed card, Priest to Princess
+     * @return the action
+     */
+    public static Action guard(int target, int guess) {
+        return new Action(Card.GUARD, target, guess);
+    }
+}
@@ -0,0 +1,348 @@
+package engine;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * What one seat knows about the cards of a round: how many copies of every card it has not seen yet,
+ * which cards of other seats it knows exactly (from a Priest, a Baron or a King), and which values other
+ * seats cannot hold (a Guard that missed, a Baron that was won). It is updated with the events of the
+ * round, each in constant time, and only uses the parts of an event the seat is allowed to see.
+ * <p>
+ * The chance of a card in a hand is taken from the unseen copies of the card, without the values the
+ * hand cannot hold. That is exact as long as nothing is ruled out, and a close approximation otherwise.
+ */
+public final class Beliefs {
+
+    /** How often {@link #determinize(RoundState, RandomGenerator)} shuffles to meet the exclusions. */
+    private static final int DEAL_ATTEMPTS = 8;
+
+    private final int players;
+    private final int observer;
+    /** Copies of every card the observer has not seen, indexed by card value. */
+    private final int[] unseen = new int[Card.PRINCESS + 1];
+    /** The card the observer knows every seat holds, {@link Card#NONE} if it does not. */
+    private final int[] known;
+    /** Bitset of the card values every seat cannot hold, see {@link Card#bit(int)}. */
+    private final int[] excluded;
+    /** The seats of a Baron between two other seats, until the loser is known. */
+    private int baronSeat = Action.NONE;
+    private int baronTarget = Action.NONE;
+
+    /**
+     * Starts tracking from everything a seat can see in a state: the open cards, the discarded cards
+     * and its own cards. Events before this state must not be observed again.
+     *
+     * @param state    the state, usually right after the deal
+     * @param observer the seat whose knowledge is tracked
+     */
+    public Beliefs(RoundState state, int observer) {
+        this.players = state.players();
+        this.observer = observer;
+        this.known = new int[players];
+        this.excluded = new int[players];
+        for (int card = Card.GUARD; card <= Card.PRINCESS; card++) {
+            unseen[card] = Card.copies(card) - state.discarded(card);
+        }
+        for (int card : state.faceUp()) {
+            unseen[card]--;
+        }
+        seen(state.hand(observer));
+        if (state.current() == observer) {
+            seen(state.drawn());
+        }
+    }
+
+    /**
+     * Copies the knowledge of another tracker, e.g. to follow several possible moves.
+     */
+    private Beliefs(Beliefs other) {
+        this.players = other.players;
+        this.observer = other.observer;
+        System.arraycopy(other.unseen, 0, unseen, 0, unseen.length);
+        this.known = other.known.clone();
+        this.excluded = other.excluded.clone();
+        this.baronSeat = other.baronSeat;
+        this.baronTarget = other.baronTarget;
+    }
+
+    /**
+     * Copies this tracker. The copy is updated independently.
+     *
+     * @return the copy
+     */
+    public Beliefs copy() {
+        return new Beliefs(this);
+    }
+
+    /**
+     * Gets the seat whose knowledge is tracked.
+     *
+     * @return the observer
+     */
+    public int observer() {
+        return observer;
+    }
+
+    /**
+     * Counts the copies of a card the observer has not seen: in the deck, in other hands or removed.
+     *
+     * @param card the card value
+     * @return the unseen copies
+     */
+    public int unseen(int card) {
+        return unseen[card];
+    }
+
+    /**
+     * Gets the card the observer knows a seat holds.
+     *
+     * @param seat the seat
+     * @return the card, or {@link Card#NONE} if the observer does not know it
+     */
+    public int known(int seat) {
+        return known[seat];
+    }
+
+    /**
+     * Gets the chance of every card being the card of a seat, from the observer's view.
+     *
+     * @param seat another seat still in the round
+     * @return the probabilities indexed by card value, index 0 is unused
+     */
+    public double[] odds(int seat) {
+        double[] odds = new double[Card.PRINCESS + 1];
+        if (known[seat] != Card.NONE) {
+            odds[known[seat]] = 1;
+            return odds;
+        }
+        int total = weights(seat, excluded[seat], odds);
+        if (total == 0) {
+            // the exclusions are an approximation and may rule out everything that is left
+            total = weights(seat, 0, odds);
+        }
+        for (int card = Card.GUARD; card <= Card.PRINCESS && total > 0; card++) {
+            odds[card] /= total;
+        }
+        return odds;
+    }
+
+    /**
+     * Fills in the unseen copies of the cards a seat may hold.
+     *
+     * @return the sum of the weights
+     */
+    private int weights(int seat, int exclude, double[] weights) {
+        int total = 0;
+        for (int card = Card.GUARD; card <= Card.PRINCESS; card++) {
+            int weight = (exclude & Card.bit(card)) != 0 ? 0 : unseen[card];
+            weights[card] = weight;
+            total += weight;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the card a seat most likely holds.
+     *
+     * @param seat    another seat still in the round
+     * @param minimum the lowest card value to consider, e.g. {@link Card#PRIEST} for a Guard
+     * @return the most likely card, the higher one on a tie
+     */
+    public int likeliest(int seat, int minimum) {
+        double[] odds = odds(seat);
+        int best = minimum;
+        for (int card = minimum; card <= Card.PRINCESS; card++) {
+            if (odds[card] >= odds[best]) {
+                best = card;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Updates the knowledge with the events of a step.
+     *
+     * @param events the events, in order
+     */
+    public void observe(List<Event> events) {
+        for (Event event : events) {
+            observe(event);
+        }
+    }
+
+    /**
+     * Updates the knowledge with one event. Deal events are ignored; the deal is taken from the state
+     * in the constructor.
+     *
+     * @param event the event
+     */
+    public void observe(Event event) {
+        switch (event) {
+            case Event.Drew e -> {
+                if (e.seat() == observer) {
+                    seen(e.card());
+                }
+            }
+            case Event.CardPlayed e -> {
+                baronSeat = Action.NONE;
+                if (e.seat() != observer) {
+                    if (known[e.seat()] == e.card()) {
+                        // the known card was played, the one left is the one just drawn
+                        known[e.seat()] = Card.NONE;
+                    } else {
+                        seen(e.card());
+                    }
+                    excluded[e.seat()] = 0;
+                }
+            }
+            case Event.GuardGuess e -> {
+                if (!e.hit()) {
+                    excluded[e.target()] |= Card.bit(e.guess());
+                }
+            }
+            case Event.PriestPeek e -> {
+                if (e.seat() == observer) {
+                    learn(e.target(), e.card());
+                }
+            }
+            case Event.BaronCompare e -> {
+                if (e.seat() == observer) {
+                    learn(e.target(), e.targetCard());
+                } else if (e.target() == observer) {
+                    learn(e.seat(), e.seatCard());
+                } else {
+                    baronSeat = e.seat();
+                    baronTarget = e.target();
+                }
+            }
+            case Event.PrinceDiscard e -> {
+                if (e.target() != observer) {
+                    reveal(e.target(), e.card());
+                }
+            }
+            case Event.PrinceDraw e -> {
+                if (e.target() == observer) {
+                    seen(e.card());
+                }
+            }
+            case Event.KingSwap e -> kingSwap(e);
+            case Event.KnockedOut e -> {
+                if (e.seat() != observer && e.card() != Card.NONE) {
+                    reveal(e.seat(), e.card());
+                }
+                if (baronSeat != Action.NONE && e.card() != Card.NONE) {
+                    // the winner of the Baron holds a higher card than the loser showed
+                    int winner = e.seat() == baronSeat ? baronTarget : baronSeat;
+                    excluded[winner] |= Card.bit(e.card() + 1) - 1;
+                    baronSeat = Action.NONE;
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Follows the cards of a King. The observer knows both cards if it traded itself; otherwise the
+     * knowledge about the two seats is traded along with their cards.
+     */
+    private void kingSwap(Event.KingSwap e) {
+        if (e.seat() == observer || e.target() == observer) {
+            int other = e.seat() == observer ? e.target() : e.seat();
+            int received = e.seat() == observer ? e.seatCard() : e.targetCard();
+            int given = e.seat() == observer ? e.targetCard() : e.seatCard();
+            if (known[other] != received) {
+                seen(received);
+            }
+            known[other] = given;
+            excluded[other] = 0;
+            return;
+        }
+        int card = known[e.seat()];
+        known[e.seat()] = known[e.target()];
+        known[e.target()] = card;
+        int exclude = excluded[e.seat()];
+        excluded[e.seat()] = excluded[e.target()];
+        excluded[e.target()] = exclude;
+    }
+
+    /**
+     * Notes that the observer learned the card of another seat.
+     */
+    private void learn(int seat, int card) {
+        if (known[seat] != card) {
+            seen(card);
+        }
+        known[seat] = card;
+    }
+
+    /**
+     * Notes that another seat showed its card and no longer holds it.
+     */
+    private void reveal(int seat, int card) {
+        if (known[seat] != card) {
+            seen(card);
+        }
+        known[seat] = Card.NONE;
+        excluded[seat] = 0;
+    }
+
+    /**
+     * Notes that the observer saw a copy of a card for the first time.
+     */
+    private void seen(int card) {
+        unseen[card]--;
+    }
+
+    /**
+     * Deals the cards the observer cannot see anew, like
+     * {@link Engine#determinize(RoundState, int, RandomGenerator)}, but keeps the cards the observer
+     * knows and avoids values a seat cannot hold. A deal that breaks an exclusion is shuffled again a
+     * few times before it is accepted anyway.
+     *
+     * @param state  the current state, as the observer sees it
+     * @param random the source of randomness for the shuffle
+     * @return a state that looks the same to the observer
+     */
+    public RoundState determinize(RoundState state, RandomGenerator random) {
+        long pool = 0;
+        int size = 0;
+        for (int card = Card.GUARD; card <= Card.PRINCESS; card++) {
+            for (int copy = 0; copy < unseen[card]; copy++) {
+                pool |= (long) card << (size++ * PackedDeck.BITS);
+            }
+        }
+        RoundState next = new RoundState(state);
+        for (int attempt = 0; attempt < DEAL_ATTEMPTS; attempt++) {
+            long deck = PackedDeck.shuffle(pool, random);
+            boolean consistent = true;
+            for (int seat = 0; seat < players; seat++) {
+                if (seat == observer || state.isKnockedOut(seat)) {
+                    continue;
+                }
+                int card = known[seat];
+                if (card == Card.NONE) {
+                    card = PackedDeck.top(deck);
+                    deck = PackedDeck.draw(deck);
+                    consistent &= (excluded[seat] & Card.bit(card)) == 0;
+                }
+                next.setHand(seat, card);
+            }
+            if (!consistent && attempt < DEAL_ATTEMPTS - 1) {
+                continue;
+            }
+            if (state.current() != observer && state.drawn() != Card.NONE) {
+                next.drawn = PackedDeck.top(deck);
+                deck = PackedDeck.draw(deck);
+            }
+            if (state.removedCard() != Card.NONE) {
+                next.removed = PackedDeck.top(deck);
+                deck = PackedDeck.draw(deck);
+            }
+            next.deck = deck;
+            break;
+        }
+        return next;
+    }
+}
@@ -0,0 +1,108 @@
+package engine;
+
+/**
+ * The cards of the game as plain values, so the engine can keep hands in ints and decks in a packed
+ * long ({@link PackedDeck}).
+ * The value of a card is also its strength.
+ */
+public final class Card {
+
+    public static final int NONE = 0;
+    public static final int GUARD = 1;
+    public static final int PRIEST = 2;
+    public static final int BARON = 3;
+    public static final int HANDMAID = 4;
+    public static final int PRINCE = 5;
+    public static final int KING = 6;
+    public static final int COUNTESS = 7;
+    public static final int PRINCESS = 8;
+
+    /** Number of cards in the deck. */
+    public static final int DECK_SIZE = 16;
+
+    /** Cards that are played on a player, as mask of {@link #bit(int)}. */
+    public static final int TARGETED = bit(GUARD) | bit(PRIEST) | bit(BARON) | bit(PRINCE) | bit(KING);
+    /** The cards that force the Countess to be played, as mask of {@link #bit(int)}. */
+    public static final int ROYALS = bit(PRINCE) | bit(KING);
+
+    private static final String[] NAMES =
+            {null, "Guard", "Priest", "Baron", "Handmaid", "Prince", "King", "Countess", "Princess"};
+    private static final int[] COPIES = {0, 5, 2, 2, 2, 2, 1, 1, 1};
+
+    private Card() {
+    }
+
+    /**
+     * Gets the name of a card.
+     *
+     * @param card the card value
+     * @return the name, or null if no card has this value
+     */
+    public static String name(int card) {
+        return card > 0 && card < NAMES.length ? NAMES[card] : null;
+    }
+
+    /**
+     * Looks up a card by its name.
+     *
+     * @param name the name of the card, e.g. "Guard"
+     * @return the card value, or {@link #NONE} if there is no such card
+     */
+    public static int byName(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        switch (name) {
+            case "Guard": return GUARD;
+            case "Priest": return PRIEST;
+            case "Baron": return BARON;
+            case "Handmaid": return HANDMAID;
+            case "Prince": return PRINCE;
+            case "King": return KING;
+            case "Countess": return COUNTESS;
+            case "Princess": return PRINCESS;
+            default: return NONE;
+        }
+    }
+
+    /**
+     * Checks if a value is a card.
+     *
+     * @param value the value, e.g. received from a client
+     * @return true for Guard to Princess
+     */
+    public static boolean isCard(int value) {
+        return value >= GUARD && value <= PRINCESS;
+    }
+
+    /**
+     * Gets the bit of a card, so a set of cards (e.g. the two cards of a hand) fits in one int and
+     * hand checks are mask tests.
+     *
+     * @param card the card value
+     * @return the bit of the card, 0 for {@link #NONE}
+     */
+    public static int bit(int card) {
+        return (1 << card) >>> 1;
+    }
+
+    /**
+     * Gets how often a card is in the deck.
+     *
+     * @param card the card value
+     * @return the number of copies
+     */
+    public static int copies(int card) {
+        return COPIES[card];
+    }
+
+    /**
+     * Checks if a card is played on a player.
+     *
+     * @param card the card value
+     * @return true for Guard, Priest, Baron, Prince and King
+     */
+    public static boolean needsTarget(int card) {
+        return (TARGETED & bit(card)) != 0;
+    }
+}
@@ -0,0 +1,151 @@
+package engine;
+
+import java.util.List;
+
+/**
+ * Solves the rest of a round exactly by expectiminimax, knowing every card but not the order of the
+ * deck: the seat whose turn it is plays the action that gives it the highest chance to win, and every
+ * draw is averaged over the cards that may come, weighted by their copies left. The value of a state
+ * is every seat's chance to win the round, where a shared win counts as a share.
+ * <p>
+ * The search grows quickly with the deck, so it is meant for the last few cards. Solved states are kept
+ * in a {@link TranspositionTable}; states that differ only in the order of the deck have the same value
+ * and share an entry. The solver is not thread safe; every thread needs its own.
+ */
+public final class EndgameSolver {
+
+    private final TranspositionTable table;
+    private long nodes;
+
+    /**
+     * Creates a solver.
+     *
+     * @param table the table of solved states, which may be kept across searches
+     */
+    public EndgameSolver(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Gets the table of solved states.
+     *
+     * @return the table
+     */
+    public TranspositionTable table() {
+        return table;
+    }
+
+    /**
+     * Counts the states solved so far, without the ones found in the table.
+     *
+     * @return the number of searched states
+     */
+    public long nodes() {
+        return nodes;
+    }
+
+    /**
+     * Solves a state.
+     *
+     * @param state the state
+     * @return the chance of every seat to win the round
+     */
+    public double[] value(RoundState state) {
+        double[] value = new double[state.players];
+        if (state.isOver()) {
+            int share = Integer.bitCount(state.winners);
+            for (int seat = 0; seat < state.players; seat++) {
+                if ((state.winners & (1 << seat)) != 0) {
+                    value[seat] = 1.0 / share;
+                }
+            }
+            return value;
+        }
+        long key = Zobrist.hash(state);
+        if (table.get(key, value)) {
+            return value;
+        }
+        long start = nodes++;
+        double best = -1;
+        for (Action action : Engine.legalActions(state)) {
+            double[] outcome = value(state, action);
+            if (outcome[state.current] > best) {
+                best = outcome[state.current];
+                value = outcome;
+            }
+        }
+        table.put(key, value, nodes - start);
+        return value;
+    }
+
+    /**
+     * Solves a state after an action.
+     *
+     * @param state  the state
+     * @param action a legal action of the seat whose turn it is
+     * @return the chance of every seat to win the round if the action is played
+     */
+    public double[] value(RoundState state, Action action) {
+        RoundState next = Engine.apply(state, action).state();
+        int draws = state.deckSize() - next.deckSize();
+        if (draws == 0) {
+            return value(next);
+        }
+        double[] sum = new double[state.players];
+        expect(state, action, 0, 0, state.deck, draws, 1, sum);
+        return sum;
+    }
+
+    /**
+     * Finds the best action of the seat whose turn it is.
+     *
+     * @param state the state
+     * @return the action with the highest chance to win, the first one on a tie
+     */
+    public Action best(RoundState state) {
+        List<Action> actions = Engine.legalActions(state);
+        Action best = actions.get(0);
+        double bestValue = -1;
+        for (Action action : actions) {
+            double value = value(state, action)[state.current];
+            if (value > bestValue) {
+                best = action;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Averages an action over the cards it draws: every card that may come next is put on top of the
+     * deck in turn, weighted by its copies, until the cards of all draws are chosen.
+     *
+     * @param prefix     the cards chosen so far, packed like a deck
+     * @param prefixSize the number of cards chosen so far
+     * @param rest       the rest of the deck
+     * @param draws      the number of cards still to choose
+     * @param chance     the chance of the cards chosen so far
+     * @param sum        receives the weighted values
+     */
+    private void expect(RoundState state, Action action, long prefix, int prefixSize, long rest, int draws,
+                        double chance, double[] sum) {
+        if (draws == 0) {
+            RoundState dealt = new RoundState(state);
+            dealt.deck = (rest << (prefixSize * PackedDeck.BITS)) | prefix;
+            double[] value = value(Engine.apply(dealt, action).state());
+            for (int seat = 0; seat < sum.length; seat++) {
+                sum[seat] += chance * value[seat];
+            }
+            return;
+        }
+        int size = PackedDeck.size(rest);
+        for (int card = Card.GUARD; card <= Card.PRINCESS; card++) {
+            int copies = PackedDeck.count(rest, card);
+            if (copies > 0) {
+                long next = PackedDeck.draw(PackedDeck.moveToTop(rest, card));
+                expect(state, action, prefix | ((long) card << (prefixSize * PackedDeck.BITS)), prefixSize + 1,
+                       next, draws - 1, chance * copies / size, sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,517 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * The rules of a round as pure functions: a state and an action go in, the next state and the events
+ * come out. The engine knows nothing about players, connections or messages, so rounds can be
+ * simulated at full speed; the server is an adapter that turns events into messages.
+ */
+public final class Engine {
+
+    /**
+     * The effect of a played card on the state.
+     */
+    @FunctionalInterface
+    private interface Effect {
+        void apply(RoundState state, int seat, int target, int guess, List<Event> events);
+    }
+
+    /** The effect of every card, indexed by card value. */
+    private static final Effect[] EFFECTS = {
+            null,
+            Engine::guard,
+            Engine::priest,
+            Engine::baron,
+            Engine::handmaid,
+            Engine::prince,
+            Engine::king,
+            // the Countess has no effect when played
+            (state, seat, target, guess, events) -> {
+            },
+            // whoever plays the Princess is out
+            (state, seat, target, guess, events) -> knockOut(state, seat, events)
+    };
+
+    private Engine() {
+    }
+
+    /**
+     * Gets the number of tokens of affection a player needs to win the game.
+     *
+     * @param players the number of players, 2 to 4
+     * @return 7 for two, 5 for three and 4 for four players
+     */
+    public static int tokensToWin(int players) {
+        if (players == 2) {
+            return 7;
+        } else if (players == 3) {
+            return 5;
+        }
+        return 4;
+    }
+
+    /**
+     * Shuffles a new deck, removes the hidden card (and three open cards for two players), deals one
+     * card to every seat and starts the turn of the first seat.
+     *
+     * @param players the number of seats, 2 to 4
+     * @param first   the seat that plays first
+     * @param random  the source of randomness for the shuffle
+     * @return the state at the start of the first turn and the deal events
+     */
+    public static Result deal(int players, int first, RandomGenerator random) {
+        if (players < 2 || players > 4) {
+            throw new IllegalArgumentException("A round needs 2 to 4 players, not " + players);
+        }
+        long deck = PackedDeck.shuffle(PackedDeck.FULL, random);
+        RoundState state = new RoundState();
+        state.players = players;
+        state.removed = PackedDeck.top(deck);
+        deck = PackedDeck.draw(deck);
+        if (players == 2) {
+            state.faceUp = PackedDeck.take(deck, 3);
+            deck = PackedDeck.drop(deck, 3);
+        }
+        state.deck = deck;
+        state.alive = (1 << players) - 1;
+        List<Event> events = new ArrayList<>();
+        for (int seat = 0; seat < players; seat++) {
+            state.setHand(seat, draw(state));
+            events.add(new Event.Dealt(seat, state.hand(seat)));
+        }
+        startTurn(state, first, events);
+        return new Result(state, events);
+    }
+
+    /**
+     * Deals a round shuffled by the generator of a seed, see {@link Seeds#forRound(long)}. The same
+     * seed always deals the same round.
+     *
+     * @param players the number of seats, 2 to 4
+     * @param first   the seat that plays first
+     * @param seed    the seed of the round
+     * @return the state at the start of the first turn and the deal events
+     */
+    public static Result deal(int players, int first, long seed) {
+        return deal(players, first, Seeds.forRound(seed));
+    }
+
+    /**
+     * Sets up a round at the start of a turn from given cards instead of a shuffle, e.g. to test a
+     * rule or to study an endgame. Every seat is in the round, unprotected and has discarded nothing;
+     * no cards are removed face up.
+     *
+     * @param hands   the card of every seat, 2 to 4 seats
+     * @param current the seat whose turn it is
+     * @param drawn   the card the current seat drew
+     * @param removed the card removed face down
+     * @param deck    the cards left in the deck, the one drawn next first
+     * @return the state
+     * @throws IllegalArgumentException if the number of seats is wrong or a card is used more often
+     *                                  than the game has copies of it
+     */
+    public static RoundState setUp(int[] hands, int current, int drawn, int removed, int... deck) {
+        if (hands.length < 2 || hands.length > 4) {
+            throw new IllegalArgumentException("A round needs 2 to 4 players, not " + hands.length);
+        }
+        int[] used = new int[Card.PRINCESS + 1];
+        RoundState state = new RoundState();
+        state.players = hands.length;
+        state.alive = (1 << hands.length) - 1;
+        for (int seat = 0; seat < hands.length; seat++) {
+            state.setHand(seat, hands[seat]);
+            used[hands[seat]]++;
+        }
+        state.current = current;
+        state.drawn = drawn;
+        state.removed = removed;
+        used[drawn]++;
+        used[removed]++;
+        for (int i = deck.length - 1; i >= 0; i--) {
+            state.deck = (state.deck << PackedDeck.BITS) | deck[i];
+            used[deck[i]]++;
+        }
+        for (int card = Card.GUARD; card <= Card.PRINCESS; card++) {
+            if (used[card] > Card.copies(card)) {
+                throw new IllegalArgumentException("Card " + card + " is used " + used[card] + " times");
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Checks an action of the seat whose turn it is, without changing anything.
+     *
+     * @param state  the current state
+     * @param action the action
+     * @return why the action is not allowed, or null if it is legal
+     */
+    public static Rejection check(RoundState state, Action action) {
+        if (state.isOver()) {
+            return Rejection.ROUND_OVER;
+        }
+        int seat = state.current;
+        int card = action.card();
+        int other;
+        if (card != Card.NONE && card == state.hand(seat)) {
+            other = state.drawn;
+        } else if (card != Card.NONE && card == state.drawn) {
+            other = state.hand(seat);
+        } else {
+            return Rejection.CARD_NOT_IN_HAND;
+        }
+        if ((Card.bit(card) & Card.ROYALS) != 0 && other == Card.COUNTESS) {
+            return Rejection.MUST_PLAY_COUNTESS;
+        }
+        if (!Card.needsTarget(card)) {
+            return null;
+        }
+        int target = action.target();
+        if (target == Action.NONE) {
+            return hasTargets(state) ? Rejection.TARGET_REQUIRED : null;
+        }
+        if (target < 0 || target >= state.players) {
+            return Rejection.INVALID_TARGET;
+        }
+        if (state.isKnockedOut(target)) {
+            return Rejection.TARGET_KNOCKED_OUT;
+        }
+        if (target == seat) {
+            if (card != Card.PRINCE) {
+                return Rejection.TARGET_SELF;
+            }
+        } else if (state.isProtected(target)) {
+            return Rejection.TARGET_IMMUNE;
+        }
+        if (card == Card.GUARD && (action.guess() < Card.PRIEST || action.guess() > Card.PRINCESS)) {
+            return Rejection.INVALID_GUESS;
+        }
+        return null;
+    }
+
+    /**
+     * Plays an action of the seat whose turn it is and continues with the next turn, or ends the
+     * round.
+     *
+     * @param state  the current state, which is not changed
+     * @param action a legal action, see {@link #check(RoundState, Action)}
+     * @return the next state and the events of the step
+     * @throws IllegalArgumentException if the action is not legal
+     */
+    public static Result apply(RoundState state, Action action) {
+        Rejection rejection = check(state, action);
+        if (rejection != null) {
+            throw new IllegalArgumentException("Illegal action " + action + ": " + rejection);
+        }
+        RoundState next = new RoundState(state);
+        List<Event> events = new ArrayList<>();
+        int seat = next.current;
+        int card = action.card();
+        if (next.hand(seat) == card) {
+            next.setHand(seat, next.drawn);
+        }
+        next.drawn = Card.NONE;
+        next.addDiscard(seat, card);
+        events.add(new Event.CardPlayed(seat, card));
+        resolve(next, seat, action, events);
+        endTurn(next, events);
+        return new Result(next, events);
+    }
+
+    /**
+     * Deals the cards a seat cannot see anew: the cards of the other seats still in the round, the
+     * drawn card if it is not the seat's turn, the removed card and the deck are shuffled together and
+     * dealt back into the same places. Everything the seat has seen stays as it is, so the result is
+     * one of the rounds the seat might be in, e.g. for a search that must not look at hidden cards.
+     *
+     * @param state    the current state
+     * @param observer the seat whose view is kept
+     * @param random   the source of randomness for the shuffle
+     * @return a state that looks the same to the observer
+     */
+    public static RoundState determinize(RoundState state, int observer, RandomGenerator random) {
+        int[] unseen = new int[Card.PRINCESS + 1];
+        for (int card = Card.GUARD; card <= Card.PRINCESS; card++) {
+            unseen[card] = Card.copies(card) - state.discarded(card);
+        }
+        for (int card : state.faceUp()) {
+            unseen[card]--;
+        }
+        unseen[state.hand(observer)]--;
+        if (state.current == observer) {
+            unseen[state.drawn]--;
+        }
+        long pool = 0;
+        int size = 0;
+        for (int card = Card.GUARD; card <= Card.PRINCESS; card++) {
+            for (int copy = 0; copy < unseen[card]; copy++) {
+                pool |= (long) card << (size++ * PackedDeck.BITS);
+            }
+        }
+        pool = PackedDeck.shuffle(pool, random);
+        RoundState next = new RoundState(state);
+        for (int seat = 0; seat < state.players; seat++) {
+            if (seat != observer && !state.isKnockedOut(seat)) {
+                next.setHand(seat, PackedDeck.top(pool));
+                pool = PackedDeck.draw(pool);
+            }
+        }
+        if (state.current != observer && state.drawn != Card.NONE) {
+            next.drawn = PackedDeck.top(pool);
+            pool = PackedDeck.draw(pool);
+        }
+        if (state.removed != Card.NONE) {
+            next.removed = PackedDeck.top(pool);
+            pool = PackedDeck.draw(pool);
+        }
+        next.deck = pool;
+        return next;
+    }
+
+    /**
+     * Checks if the seat whose turn it is holds the Countess together with the King or the Prince.
+     *
+     * @param state the current state
+     * @return true if the Countess must be played
+     */
+    public static boolean mustPlayCountess(RoundState state) {
+        int hand = state.handMask(state.current);
+        return (hand & Card.bit(Card.COUNTESS)) != 0 && (hand & Card.ROYALS) != 0;
+    }
+
+    /**
+     * Checks if the seat whose turn it is can target another seat.
+     *
+     * @param state the current state
+     * @return true if another seat is still in the round and not protected
+     */
+    public static boolean hasTargets(RoundState state) {
+        return state.targets() != 0;
+    }
+
+    /**
+     * Lists every legal action of the seat whose turn it is.
+     *
+     * @param state the current state
+     * @return the legal actions, empty once the round is over
+     */
+    public static List<Action> legalActions(RoundState state) {
+        List<Action> actions = new ArrayList<>();
+        if (state.isOver()) {
+            return actions;
+        }
+        int hand = state.hand(state.current);
+        addActions(state, hand, actions);
+        if (state.drawn != hand) {
+            addActions(state, state.drawn, actions);
+        }
+        return actions;
+    }
+
+    /**
+     * Adds the legal actions playing one card.
+     */
+    private static void addActions(RoundState state, int card, List<Action> actions) {
+        if (!Card.needsTarget(card) || !hasTargets(state)) {
+            addIfLegal(state, Action.play(card), actions);
+            return;
+        }
+        for (int target = 0; target < state.players; target++) {
+            if (card != Card.GUARD) {
+                addIfLegal(state, Action.play(card, target), actions);
+                continue;
+            }
+            for (int guess = Card.PRIEST; guess <= Card.PRINCESS; guess++) {
+                addIfLegal(state, Action.guard(target, guess), actions);
+            }
+        }
+    }
+
+    private static void addIfLegal(RoundState state, Action action, List<Action> actions) {
+        if (check(state, action) == null) {
+            actions.add(action);
+        }
+    }
+
+    /**
+     * Announces the target of a played card and applies its effect from {@link #EFFECTS}.
+     */
+    private static void resolve(RoundState state, int seat, Action action, List<Event> events) {
+        int card = action.card();
+        int target = action.target();
+        if (card == Card.PRINCE && target == Action.NONE) {
+            target = seat;
+        }
+        if (Card.needsTarget(card)) {
+            if (target == Action.NONE) {
+                events.add(new Event.NoTarget(seat, card));
+                return;
+            }
+            events.add(new Event.Targeted(seat, target));
+        }
+        EFFECTS[card].apply(state, seat, target, action.guess(), events);
+    }
+
+    /**
+     * The Guard knocks the target out if the guess is its card.
+     */
+    private static void guard(RoundState state, int seat, int target, int guess, List<Event> events) {
+        boolean hit = state.hand(target) == guess;
+        events.add(new Event.GuardGuess(seat, target, guess, hit));
+        if (hit) {
+            knockOut(state, target, events);
+        }
+    }
+
+    /**
+     * The Priest shows the target's card to the seat.
+     */
+    private static void priest(RoundState state, int seat, int target, int guess, List<Event> events) {
+        events.add(new Event.PriestPeek(seat, target, state.hand(target)));
+    }
+
+    /**
+     * The Baron knocks out the seat with the lower card.
+     */
+    private static void baron(RoundState state, int seat, int target, int guess, List<Event> events) {
+        int seatCard = state.hand(seat);
+        int targetCard = state.hand(target);
+        events.add(new Event.BaronCompare(seat, target, seatCard, targetCard));
+        if (seatCard < targetCard) {
+            knockOut(state, seat, events);
+        } else if (targetCard < seatCard) {
+            knockOut(state, target, events);
+        }
+    }
+
+    /**
+     * The Handmaid protects the seat until its next turn.
+     */
+    private static void handmaid(RoundState state, int seat, int target, int guess, List<Event> events) {
+        state.protectedSeats |= 1 << seat;
+        events.add(new Event.Protected(seat));
+    }
+
+    /**
+     * The King trades the cards of the seat and the target.
+     */
+    private static void king(RoundState state, int seat, int target, int guess, List<Event> events) {
+        int traded = state.hand(seat);
+        state.setHand(seat, state.hand(target));
+        state.setHand(target, traded);
+        events.add(new Event.KingSwap(seat, target, state.hand(seat), traded));
+    }
+
+    /**
+     * Makes the target of a Prince discard its card and draw a new one, from the removed card if the
+     * deck is empty. Discarding the Princess knocks the target out instead.
+     */
+    private static void prince(RoundState state, int seat, int target, int guess, List<Event> events) {
+        int card = state.hand(target);
+        if (card == Card.PRINCESS) {
+            knockOut(state, target, events);
+            return;
+        }
+        events.add(new Event.PrinceDiscard(target, card));
+        state.addDiscard(target, card);
+        boolean removedCard = state.deckSize() == 0;
+        int drawn;
+        if (removedCard) {
+            drawn = state.removed;
+            state.removed = Card.NONE;
+        } else {
+            drawn = draw(state);
+        }
+        state.setHand(target, drawn);
+        events.add(new Event.PrinceDraw(target, drawn, removedCard));
+    }
+
+    /**
+     * Takes a seat out of the round. Its card is discarded face up.
+     */
+    private static void knockOut(RoundState state, int seat, List<Event> events) {
+        int card = state.hand(seat);
+        state.setHand(seat, Card.NONE);
+        state.addDiscard(seat, card);
+        state.knockOut(seat);
+        events.add(new Event.KnockedOut(seat, card));
+    }
+
+    /**
+     * Ends the round if only one seat is left or the deck is empty, otherwise starts the turn of the
+     * next seat still in the round.
+     */
+    private static void endTurn(RoundState state, List<Event> events) {
+        if (state.aliveCount() <= 1) {
+            finish(state, state.alive, false, events);
+            return;
+        }
+        if (state.deckSize() == 0) {
+            showdown(state, events);
+            return;
+        }
+        startTurn(state, state.nextAlive(state.current), events);
+    }
+
+    /**
+     * Lets a seat start its turn: its protection ends and it draws a card.
+     */
+    private static void startTurn(RoundState state, int seat, List<Event> events) {
+        state.current = seat;
+        state.protectedSeats &= ~(1 << seat);
+        state.drawn = draw(state);
+        events.add(new Event.TurnStarted(seat));
+        events.add(new Event.Drew(seat, state.drawn));
+    }
+
+    /**
+     * Takes the top card of the deck.
+     */
+    private static int draw(RoundState state) {
+        int card = PackedDeck.top(state.deck);
+        state.deck = PackedDeck.draw(state.deck);
+        return card;
+    }
+
+    /**
+     * Compares the cards of the seats still in the round once the deck is empty. The highest card
+     * wins; a tie is broken by the higher sum of discarded cards, and if that is tied too, all tied
+     * seats win.
+     */
+    private static void showdown(RoundState state, List<Event> events) {
+        int best = 0;
+        for (int seat = 0; seat < state.players; seat++) {
+            if (!state.isKnockedOut(seat)) {
+                events.add(new Event.Showdown(seat, state.hand(seat), state.discardSum(seat)));
+                best = Math.max(best, state.hand(seat));
+            }
+        }
+        int bestDiscards = -1;
+        int tied = 0;
+        for (int seat = 0; seat < state.players; seat++) {
+            if (!state.isKnockedOut(seat) && state.hand(seat) == best) {
+                tied |= 1 << seat;
+                bestDiscards = Math.max(bestDiscards, state.discardSum(seat));
+            }
+        }
+        int winners = 0;
+        for (int seat = 0; seat < state.players; seat++) {
+            if ((tied & (1 << seat)) != 0 && state.discardSum(seat) == bestDiscards) {
+                winners |= 1 << seat;
+            }
+        }
+        finish(state, winners, true, events);
+    }
+
+    /**
+     * Ends the round.
+     */
+    private static void finish(RoundState state, int winners, boolean deckEmpty, List<Event> events) {
+        state.winners = winners;
+        state.drawn = Card.NONE;
+        events.add(new Event.RoundOver(state.winners(), deckEmpty));
+    }
+}
@@ -0,0 +1,81 @@
+package engine;
+
+/**
+ * Something that happened in a round, returned by the {@link Engine} together with the new state.
+ * Adapters turn events into messages; some events are private and must only be shown to the seats
+ * named in their description.
+ */
+public sealed interface Event {
+
+    /** A seat was dealt its first card. Private to the seat. */
+    record Dealt(int seat, int card) implements Event {
+    }
+
+    /** A seat starts its turn. */
+    record TurnStarted(int seat) implements Event {
+    }
+
+    /** The seat whose turn it is drew a card. Private to the seat. */
+    record Drew(int seat, int card) implements Event {
+    }
+
+    /** A seat played and discarded a card. */
+    record CardPlayed(int seat, int card) implements Event {
+    }
+
+    /** Every other player is protected, so the card is discarded without effect. */
+    record NoTarget(int seat, int card) implements Event {
+    }
+
+    /** A seat was chosen as target. */
+    record Targeted(int seat, int target) implements Event {
+    }
+
+    /** The Guard guessed a card of the target. */
+    record GuardGuess(int seat, int target, int guess, boolean hit) implements Event {
+    }
+
+    /** The Priest looked at the target's card. Private to the seat. */
+    record PriestPeek(int seat, int target, int card) implements Event {
+    }
+
+    /** The Baron compared both cards. Private to both seats. */
+    record BaronCompare(int seat, int target, int seatCard, int targetCard) implements Event {
+    }
+
+    /** The Handmaid protects the seat until its next turn. */
+    record Protected(int seat) implements Event {
+    }
+
+    /** The Prince made the target discard its card. */
+    record PrinceDiscard(int target, int card) implements Event {
+    }
+
+    /**
+     * The target of the Prince drew a new card, from the removed card if the deck was empty.
+     * Private to the target.
+     */
+    record PrinceDraw(int target, int card, boolean removedCard) implements Event {
+    }
+
+    /** The King traded hands. The cards are the new cards of both seats. Private to both seats. */
+    record KingSwap(int seat, int target, int seatCard, int targetCard) implements Event {
+    }
+
+    /** A seat is out of the round and discarded the card it was holding. */
+    record KnockedOut(int seat, int card) implements Event {
+    }
+
+    /** The deck is empty and a seat still in the round shows its card. */
+    record Showdown(int seat, int card, int discardSum) implements Event {
+    }
+
+    /**
+     * The round is over.
+     *
+     * @param winners   the winning seats, more than one if the tie could not be broken
+     * @param deckEmpty true if the round ended because the deck was empty
+     */
+    record RoundOver(int[] winners, boolean deckEmpty) implements Event {
+    }
+}
@@ -0,0 +1,153 @@
+package engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A deck packed into a {@code long}: every card is a four bit code, the card on top of the deck in
+ * the lowest four bits. Card values start at 1, so the deck ends at the first empty nibble and its size
+ * follows from the highest set bit. Drawing is a shift; a deck needs no storage besides the long that
+ * holds it, so dealing, drawing and copying a {@link RoundState} allocate nothing for the deck.
+ */
+public final class PackedDeck {
+
+    /** Bits of one card. */
+    static final int BITS = 4;
+    /** Mask of one card. */
+    static final long MASK = 0xFL;
+
+    /** The 16 cards of the game, unshuffled and sorted by value. */
+    public static final long FULL = full();
+
+    private PackedDeck() {
+    }
+
+    /**
+     * Packs the unshuffled deck.
+     */
+    private static long full() {
+        long deck = 0;
+        int index = 0;
+        for (int card = Card.GUARD; card <= Card.PRINCESS; card++) {
+            for (int copy = 0; copy < Card.copies(card); copy++) {
+                deck |= (long) card << (index++ * BITS);
+            }
+        }
+        return deck;
+    }
+
+    /**
+     * Shuffles a deck with Fisher-Yates, swapping the four bit codes in place.
+     *
+     * @param deck   the deck
+     * @param random the source of randomness
+     * @return the shuffled deck
+     */
+    public static long shuffle(long deck, RandomGenerator random) {
+        for (int i = size(deck) - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int shiftI = i * BITS;
+            int shiftJ = j * BITS;
+            long diff = ((deck >>> shiftI) ^ (deck >>> shiftJ)) & MASK;
+            deck ^= (diff << shiftI) | (diff << shiftJ);
+        }
+        return deck;
+    }
+
+    /**
+     * Gets the number of cards in a deck.
+     *
+     * @param deck the deck
+     * @return the size, 0 to 16
+     */
+    public static int size(long deck) {
+        return (Long.SIZE + BITS - 1 - Long.numberOfLeadingZeros(deck)) / BITS;
+    }
+
+    /**
+     * Gets the card on top of a deck, the one drawn next.
+     *
+     * @param deck the deck
+     * @return the top card, or {@link Card#NONE} if the deck is empty
+     */
+    public static int top(long deck) {
+        return (int) (deck & MASK);
+    }
+
+    /**
+     * Gets a card of a deck.
+     *
+     * @param deck  the deck
+     * @param index the position from the top, 0 is the top card
+     * @return the card, or {@link Card#NONE} if the deck is shorter
+     */
+    public static int card(long deck, int index) {
+        return (int) ((deck >>> (index * BITS)) & MASK);
+    }
+
+    /**
+     * Removes the top card of a deck; get it with {@link #top(long)} first.
+     *
+     * @param deck the deck
+     * @return the deck without its top card
+     */
+    public static long draw(long deck) {
+        return deck >>> BITS;
+    }
+
+    /**
+     * Removes several cards from the top of a deck.
+     *
+     * @param deck  the deck
+     * @param count the number of cards, at most 15
+     * @return the deck without these cards
+     */
+    public static long drop(long deck, int count) {
+        return deck >>> (count * BITS);
+    }
+
+    /**
+     * Gets the cards on top of a deck as a smaller packed deck, e.g. the three cards removed face up.
+     *
+     * @param deck  the deck
+     * @param count the number of cards, at most 15
+     * @return the top cards, packed the same way
+     */
+    public static long take(long deck, int count) {
+        return deck & ((1L << (count * BITS)) - 1);
+    }
+
+    /**
+     * Moves the first copy of a card to the top of a deck, keeping the order of the other cards.
+     *
+     * @param deck the deck
+     * @param card the card, which must be in the deck
+     * @return the deck with the card on top
+     */
+    public static long moveToTop(long deck, int card) {
+        int index = 0;
+        while (card(deck, index) != card) {
+            index++;
+        }
+        int shift = index * BITS;
+        long below = deck & ((1L << shift) - 1);
+        long above = shift + BITS < Long.SIZE ? deck >>> (shift + BITS) : 0;
+        return (((above << shift) | below) << BITS) | card;
+    }
+
+    /**
+     * Counts the copies of a card in a deck.
+     *
+     * @param deck the deck
+     * @param card the card value
+     * @return the number of copies
+     */
+    public static int count(long deck, int card) {
+        int count = 0;
+        for (int i = size(deck) - 1; i >= 0; i--) {
+            if (card(deck, i) == card) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,25 @@
+package engine;
+
+/**
+ * Why the engine refuses an action. Nothing changes when an action is rejected.
+ */
+public enum Rejection {
+    /** The round is already over. */
+    ROUND_OVER,
+    /** The player does not hold the card. */
+    CARD_NOT_IN_HAND,
+    /** The player holds the Countess together with the King or the Prince and must play the Countess. */
+    MUST_PLAY_COUNTESS,
+    /** The card needs a target and another player can be chosen. */
+    TARGET_REQUIRED,
+    /** There is no player in this seat. */
+    INVALID_TARGET,
+    /** The target is protected by the Handmaid. */
+    TARGET_IMMUNE,
+    /** The target is out of the round. */
+    TARGET_KNOCKED_OUT,
+    /** Only the Prince may be played on oneself. */
+    TARGET_SELF,
+    /** The Guard needs a guess from Priest to Princess. */
+    INVALID_GUESS
+}
@@ -0,0 +1,12 @@
+package engine;
+
+import java.util.List;
+
+/**
+ * The outcome of a step of the {@link Engine}: the new state and what happened, in order.
+ *
+ * @param state  the state after the step
+ * @param events the events of the step
+ */
+public record Result(RoundState state, List<Event> events) {
+}
@@ -0,0 +1,283 @@
+package engine;
+
+/**
+ * The complete state of one round: hands, deck, removed cards and who is out or protected.
+ * A state is never changed once the {@link Engine} returned it; every step creates a new one, so
+ * states can be kept, compared and explored freely. It contains hidden information (hands, deck,
+ * removed card) that adapters must only show to the players allowed to see it.
+ * <p>
+ * A state is a handful of primitives: per seat sets are bitsets with one bit per seat, per seat values
+ * are packed into an int. Copying a state is a single small object without arrays, and the alive
+ * count and the next seat in turn are bit operations.
+ */
+public final class RoundState {
+
+    /** Bits per seat of {@link #hands}. */
+    private static final int HAND_BITS = 4;
+    /** Bits per seat of {@link #discardSums}. */
+    private static final int SUM_BITS = 8;
+
+    int players;
+    /** The card of every seat, four bits per seat; {@link Card#NONE} once the seat is out. */
+    int hands;
+    /** The second card of the seat whose turn it is. */
+    int drawn;
+    int current;
+    /** The cards still in the deck, see {@link PackedDeck}. */
+    long deck;
+    /** The card removed face down at the start, {@link Card#NONE} once a Prince used it. */
+    int removed;
+    /** The cards removed face up in a two player round, packed like the deck. */
+    long faceUp;
+    /** Bitset of the seats still in the round. */
+    int alive;
+    /** Bitset of the seats protected by the Handmaid. */
+    int protectedSeats;
+    /** Sum of the values of the cards every seat discarded, eight bits per seat, used to break ties. */
+    int discardSums;
+    /** How many copies of every card were discarded by all seats, four bits per card value. */
+    long discarded;
+    /** Bitset of the winners, 0 while the round is running. */
+    int winners;
+
+    RoundState() {
+    }
+
+    /**
+     * Copies a state so the engine can build the next one.
+     */
+    RoundState(RoundState other) {
+        players = other.players;
+        hands = other.hands;
+        drawn = other.drawn;
+        current = other.current;
+        deck = other.deck;
+        removed = other.removed;
+        faceUp = other.faceUp;
+        alive = other.alive;
+        protectedSeats = other.protectedSeats;
+        discardSums = other.discardSums;
+        discarded = other.discarded;
+        winners = other.winners;
+    }
+
+    /**
+     * Sets the card of a seat.
+     */
+    void setHand(int seat, int card) {
+        int shift = seat * HAND_BITS;
+        hands = (hands & ~(0xF << shift)) | (card << shift);
+    }
+
+    /**
+     * Adds a discarded card to the discard sum of a seat.
+     */
+    void addDiscard(int seat, int card) {
+        discardSums += card << (seat * SUM_BITS);
+        discarded += 1L << (card * PackedDeck.BITS);
+    }
+
+    /**
+     * Takes a seat out of the round.
+     */
+    void knockOut(int seat) {
+        alive &= ~(1 << seat);
+        protectedSeats &= ~(1 << seat);
+    }
+
+    /**
+     * Gets the next seat after a seat that is still in the round, wrapping around.
+     *
+     * @param seat the seat to start after
+     * @return the next seat in turn, or the seat itself if nobody else is left
+     */
+    int nextAlive(int seat) {
+        int after = alive & (-2 << seat);
+        return Integer.numberOfTrailingZeros(after != 0 ? after : alive);
+    }
+
+    /**
+     * Gets the seats still in the round besides the current one that can be targeted.
+     *
+     * @return bitset of the unprotected other seats
+     */
+    int targets() {
+        return alive & ~protectedSeats & ~(1 << current);
+    }
+
+    /**
+     * Gets the number of seats.
+     *
+     * @return the number of players in the round
+     */
+    public int players() {
+        return players;
+    }
+
+    /**
+     * Gets the seat whose turn it is.
+     *
+     * @return the current seat
+     */
+    public int current() {
+        return current;
+    }
+
+    /**
+     * Gets the card a seat holds. During its turn the current seat also holds {@link #drawn()}.
+     *
+     * @param seat the seat
+     * @return the card, or {@link Card#NONE} if the seat is out
+     */
+    public int hand(int seat) {
+        return (hands >>> (seat * HAND_BITS)) & 0xF;
+    }
+
+    /**
+     * Gets the cards a seat holds as mask of {@link Card#bit(int)}.
+     *
+     * @param seat the seat
+     * @return the mask of its card, and of the drawn card if it is the seat's turn
+     */
+    public int handMask(int seat) {
+        return Card.bit(hand(seat)) | (seat == current ? Card.bit(drawn) : 0);
+    }
+
+    /**
+     * Checks if a seat holds a card.
+     *
+     * @param seat the seat
+     * @param card the card value
+     * @return true if the card is the seat's card or, during its turn, the drawn card
+     */
+    public boolean holds(int seat, int card) {
+        return Card.isCard(card) && (handMask(seat) & Card.bit(card)) != 0;
+    }
+
+    /**
+     * Gets the card the current seat drew at the start of its turn.
+     *
+     * @return the drawn card, or {@link Card#NONE} once the round is over
+     */
+    public int drawn() {
+        return drawn;
+    }
+
+    /**
+     * Gets the number of cards left in the deck.
+     *
+     * @return the deck size
+     */
+    public int deckSize() {
+        return PackedDeck.size(deck);
+    }
+
+    /**
+     * Gets the card removed face down at the start of the round.
+     *
+     * @return the removed card, or {@link Card#NONE} once a Prince made a player draw it
+     */
+    public int removedCard() {
+        return removed;
+    }
+
+    /**
+     * Gets the cards removed face up in a two player round.
+     *
+     * @return the face up cards, empty with more than two players
+     */
+    public int[] faceUp() {
+        int[] cards = new int[PackedDeck.size(faceUp)];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = PackedDeck.card(faceUp, i);
+        }
+        return cards;
+    }
+
+    /**
+     * Checks if a seat is out of the round.
+     *
+     * @param seat the seat
+     * @return true if the seat is knocked out
+     */
+    public boolean isKnockedOut(int seat) {
+        return (alive & (1 << seat)) == 0;
+    }
+
+    /**
+     * Checks if a seat is protected by the Handmaid.
+     *
+     * @param seat the seat
+     * @return true if the seat cannot be targeted
+     */
+    public boolean isProtected(int seat) {
+        return (protectedSeats & (1 << seat)) != 0;
+    }
+
+    /**
+     * Gets the sum of the values of the cards a seat discarded.
+     *
+     * @param seat the seat
+     * @return the discard sum
+     */
+    public int discardSum(int seat) {
+        return (discardSums >>> (seat * SUM_BITS)) & 0xFF;
+    }
+
+    /**
+     * Counts the discarded copies of a card, which every seat has seen.
+     *
+     * @param card the card value
+     * @return the number of copies discarded by all seats
+     */
+    public int discarded(int card) {
+        return (int) ((discarded >>> (card * PackedDeck.BITS)) & PackedDeck.MASK);
+    }
+
+    /**
+     * Counts the seats still in the round.
+     *
+     * @return the number of seats that are not knocked out
+     */
+    public int aliveCount() {
+        return Integer.bitCount(alive);
+    }
+
+    /**
+     * Checks if the round is over.
+     *
+     * @return true once the round has winners
+     */
+    public boolean isOver() {
+        return winners != 0;
+    }
+
+    /**
+     * Gets the winners of the round.
+     *
+     * @return the winning seats, or null while the round is running
+     */
+    public int[] winners() {
+        if (winners == 0) {
+            return null;
+        }
+        int[] seats = new int[Integer.bitCount(winners)];
+        int mask = winners;
+        for (int i = 0; i < seats.length; i++) {
+            seats[i] = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+        }
+        return seats;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder hand = new StringBuilder();
+        for (int seat = 0; seat < players; seat++) {
+            hand.append(seat == 0 ? "" : ", ").append(hand(seat));
+        }
+        return "RoundState{current=" + current + ", hands=[" + hand + "], drawn=" + drawn
+               + ", deckSize=" + deckSize() + ", alive=" + Integer.toBinaryString(alive)
+               + ", protected=" + Integer.toBinaryString(protectedSeats) + "}";
+    }
+}
@@ -0,0 +1,51 @@
+package engine;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Creates the random generators of the game. All generators are of one splittable LXM algorithm, so a
+ * server or a simulation has one root generator, every game or simulation thread gets its own split
+ * stream without sharing or locking, and every round is shuffled by a generator created from a single
+ * recorded seed. A round can be replayed exactly from its seed and the actions played.
+ */
+public final class Seeds {
+
+    /** The algorithm of all generators. */
+    public static final String ALGORITHM = "L64X128MixRandom";
+
+    private static final RandomGeneratorFactory<RandomGenerator> FACTORY = RandomGeneratorFactory.of(ALGORITHM);
+
+    private Seeds() {
+    }
+
+    /**
+     * Creates a root generator from a seed, e.g. from the configuration.
+     *
+     * @param seed the seed
+     * @return a generator that always produces the same streams for the same seed
+     */
+    public static SplittableGenerator root(long seed) {
+        return (SplittableGenerator) FACTORY.create(seed);
+    }
+
+    /**
+     * Creates a root generator with a random seed.
+     *
+     * @return a new generator
+     */
+    public static SplittableGenerator root() {
+        return (SplittableGenerator) FACTORY.create();
+    }
+
+    /**
+     * Creates the generator that shuffles a round.
+     *
+     * @param seed the seed of the round
+     * @return the generator
+     */
+    public static RandomGenerator forRound(long seed) {
+        return FACTORY.create(seed);
+    }
+}
@@ -0,0 +1,119 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of solved states for the {@link EndgameSolver}, keyed by {@link Zobrist} keys.
+ * The memory is allocated once and never grows: the table has buckets of two entries, picked by the
+ * low bits of the key. The first entry of a bucket keeps the state that took the most work to solve,
+ * the second one always takes the newest state, so expensive results survive and recent ones are
+ * still found.
+ */
+public final class TranspositionTable {
+
+    /** Values stored per entry, one per seat. */
+    private static final int STRIDE = 4;
+    /** Bytes of one entry: key, work and four values. */
+    public static final int ENTRY_BYTES = Long.BYTES + Integer.BYTES + STRIDE * Float.BYTES;
+
+    private final long[] keys;
+    /** Nodes searched to solve every entry, 0 for an empty entry. */
+    private final int[] work;
+    private final float[] values;
+    private final int mask;
+    private long hits;
+    private long misses;
+    private long replaced;
+
+    /**
+     * Creates a table.
+     *
+     * @param bits the table has 2^bits buckets of two entries, see {@link #ENTRY_BYTES}
+     */
+    public TranspositionTable(int bits) {
+        int entries = 2 << bits;
+        keys = new long[entries];
+        work = new int[entries];
+        values = new float[entries * STRIDE];
+        mask = (1 << bits) - 1;
+    }
+
+    /**
+     * Looks up a state.
+     *
+     * @param key   the key of the state
+     * @param value receives the value of every seat on a hit
+     * @return true if the state was found
+     */
+    public boolean get(long key, double[] value) {
+        int entry = bucket(key);
+        if (work[entry] == 0 || keys[entry] != key) {
+            entry++;
+            if (work[entry] == 0 || keys[entry] != key) {
+                misses++;
+                return false;
+            }
+        }
+        for (int seat = 0; seat < value.length; seat++) {
+            value[seat] = values[entry * STRIDE + seat];
+        }
+        hits++;
+        return true;
+    }
+
+    /**
+     * Stores a solved state, replacing the less valuable entry of its bucket.
+     *
+     * @param key   the key of the state
+     * @param value the value of every seat
+     * @param cost  the nodes searched to solve the state
+     */
+    public void put(long key, double[] value, long cost) {
+        int first = bucket(key);
+        int entry = first + 1;
+        int nodes = (int) Math.max(1, Math.min(cost, Integer.MAX_VALUE));
+        if (keys[first] == key || nodes >= work[first]) {
+            entry = first;
+        }
+        if (work[entry] != 0 && keys[entry] != key) {
+            replaced++;
+        }
+        keys[entry] = key;
+        work[entry] = nodes;
+        for (int seat = 0; seat < value.length; seat++) {
+            values[entry * STRIDE + seat] = (float) value[seat];
+        }
+    }
+
+    /**
+     * Gets the first entry of the bucket of a key.
+     */
+    private int bucket(long key) {
+        return ((int) (key ^ (key >>> 32)) & mask) << 1;
+    }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        Arrays.fill(work, 0);
+        hits = 0;
+        misses = 0;
+        replaced = 0;
+    }
+
+    /**
+     * Gets the memory of the table's arrays.
+     *
+     * @return the size in bytes
+     */
+    public long bytes() {
+        return (long) keys.length * ENTRY_BYTES;
+    }
+
+    @Override
+    public String toString() {
+        return "TranspositionTable{entries=" + keys.length + ", bytes=" + bytes() + ", hits=" + hits
+               + ", misses=" + misses + ", replaced=" + replaced + "}";
+    }
+}
@@ -0,0 +1,83 @@
+package engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Zobrist keys of round states: every part of a state that matters for the rest of the round (the
+ * cards of the seats, the drawn card, the deck, the removed card, who is in, who is protected, the
+ * discard sums and whose turn it is) has a random 64 bit key, and the key of a state is the XOR of the
+ * keys of its parts. The deck is keyed by how many copies of every card it holds, not by its order, so
+ * states that only differ in the order of the deck share a key, as they do for a player.
+ */
+public final class Zobrist {
+
+    /** Largest discard sum that gets its own key. */
+    private static final int MAX_SUM = 0xFF;
+    private static final int SEATS = 4;
+    private static final int CARDS = Card.PRINCESS + 1;
+
+    private static final long[] PLAYERS = new long[SEATS + 1];
+    private static final long[] CURRENT = new long[SEATS];
+    private static final long[][] HAND = new long[SEATS][CARDS];
+    private static final long[] DRAWN = new long[CARDS];
+    private static final long[] REMOVED = new long[CARDS];
+    private static final long[][] DECK = new long[CARDS][Card.DECK_SIZE + 1];
+    private static final long[] ALIVE = new long[SEATS];
+    private static final long[] PROTECTED = new long[SEATS];
+    private static final long[][] DISCARD_SUM = new long[SEATS][MAX_SUM + 1];
+
+    static {
+        // a fixed seed, so keys are the same in every run
+        RandomGenerator random = Seeds.root(0x5EED_10AFL);
+        fill(PLAYERS, random);
+        fill(CURRENT, random);
+        fill(DRAWN, random);
+        fill(REMOVED, random);
+        fill(ALIVE, random);
+        fill(PROTECTED, random);
+        for (int seat = 0; seat < SEATS; seat++) {
+            fill(HAND[seat], random);
+            fill(DISCARD_SUM[seat], random);
+        }
+        for (int card = 0; card < CARDS; card++) {
+            fill(DECK[card], random);
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    private static void fill(long[] keys, RandomGenerator random) {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Computes the key of a state.
+     *
+     * @param state the state
+     * @return the key, equal for states that play out the same
+     */
+    public static long hash(RoundState state) {
+        long key = PLAYERS[state.players] ^ CURRENT[state.current] ^ DRAWN[state.drawn] ^ REMOVED[state.removed];
+        for (int seat = 0; seat < state.players; seat++) {
+            key ^= HAND[seat][state.hand(seat)];
+            key ^= DISCARD_SUM[seat][Math.min(state.discardSum(seat), MAX_SUM)];
+            if ((state.alive & (1 << seat)) != 0) {
+                key ^= ALIVE[seat];
+            }
+            if ((state.protectedSeats & (1 << seat)) != 0) {
+                key ^= PROTECTED[seat];
+            }
+        }
+        int[] counts = new int[CARDS];
+        for (long deck = state.deck; deck != 0; deck = PackedDeck.draw(deck)) {
+            counts[PackedDeck.top(deck)]++;
+        }
+        for (int card = Card.GUARD; card < CARDS; card++) {
+            key ^= DECK[card][counts[card]];
+        }
+        return key;
+    }
+}
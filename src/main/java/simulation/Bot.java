@@ -0,0 +1,35 @@
+package simulation;
+
+import engine.Action;
+import engine.Result;
+import engine.RoundState;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A strategy that plays the seat whose turn it is. A bot gets the whole state of the round, but a fair
+ * bot only looks at what its seat can see: its own hand, the drawn card, the open cards, the discard
+ * sums and who is knocked out or protected.
+ */
+@FunctionalInterface
+public interface Bot {
+
+    /**
+     * Tells the bot what happened in the round, e.g. to track a {@link engine.Beliefs}. Called with the
+     * deal of every round and with every step after it; a fair bot only uses what its seat may see.
+     *
+     * @param seat   the seat of this bot
+     * @param result the state after the step and its events
+     */
+    default void observe(int seat, Result result) {
+    }
+
+    /**
+     * Chooses the action of the current seat.
+     *
+     * @param state  the round, with {@link RoundState#current()} to move
+     * @param random the source of randomness of this bot's thread
+     * @return a legal action, see {@link engine.Engine#legalActions(RoundState)}
+     */
+    Action choose(RoundState state, RandomGenerator random);
+}
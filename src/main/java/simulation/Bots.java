@@ -0,0 +1,86 @@
+package simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The bots that can be named on the command line. Bots may keep state, so every simulation thread
+ * creates its own instances.
+ */
+public final class Bots {
+
+    /** Iterations per move of the search bot in tournaments, which must not depend on timing. */
+    private static final int ISMCTS_ITERATIONS = 500;
+    /** Largest deck the endgame bot solves, the deals it solves per move and its table size. */
+    private static final int ENDGAME_DECK = 3;
+    private static final int ENDGAME_DEALS = 8;
+    private static final int ENDGAME_TABLE_BITS = 14;
+
+    /** Prefix of the names of policy bots, followed by the policy file. */
+    private static final String POLICY_PREFIX = "policy:";
+
+    private static final Map<String, Supplier<Bot>> BOTS = new LinkedHashMap<>();
+
+    static {
+        register("random", RandomBot::new);
+        register("heuristic", HeuristicBot::new);
+        register("ismcts", () -> new IsmctsBot(ISMCTS_ITERATIONS));
+        register("endgame", () -> new EndgameBot(ENDGAME_DECK, ENDGAME_DEALS, ENDGAME_TABLE_BITS));
+    }
+
+    private Bots() {
+    }
+
+    /**
+     * Makes a bot available by name.
+     *
+     * @param name    the name used on the command line
+     * @param factory creates a new instance of the bot
+     */
+    public static synchronized void register(String name, Supplier<Bot> factory) {
+        BOTS.put(name, factory);
+    }
+
+    /**
+     * Creates a bot.
+     *
+     * @param name the registered name, or {@code policy:<file>} for a {@link PolicyBot}
+     * @return a new instance
+     * @throws IllegalArgumentException if no bot has this name or the policy file cannot be read
+     */
+    public static synchronized Bot create(String name) {
+        if (name.startsWith(POLICY_PREFIX)) {
+            return policy(Path.of(name.substring(POLICY_PREFIX.length())));
+        }
+        Supplier<Bot> factory = BOTS.get(name);
+        if (factory == null) {
+            throw new IllegalArgumentException("Unknown bot: " + name + ", known bots are " + BOTS.keySet());
+        }
+        return factory.get();
+    }
+
+    /**
+     * Creates a bot that plays a policy file in two player rounds and like the {@link HeuristicBot}
+     * otherwise.
+     */
+    private static Bot policy(Path file) {
+        try {
+            return new PolicyBot(PolicyTable.open(file), new HeuristicBot());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read policy " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the names of all registered bots.
+     *
+     * @return the names in order of registration
+     */
+    public static synchronized List<String> names() {
+        return List.copyOf(BOTS.keySet());
+    }
+}
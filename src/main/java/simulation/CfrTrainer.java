@@ -0,0 +1,202 @@
+package simulation;
+
+import engine.Action;
+import engine.Beliefs;
+import engine.Engine;
+import engine.Result;
+import engine.RoundState;
+import engine.Seeds;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Approximates an equilibrium of two player rounds with Monte Carlo counterfactual regret minimization
+ * (external sampling) over the {@link InfoSet} abstraction, and writes the average strategy as a
+ * {@link PolicyTable}.
+ * <p>
+ * Every iteration deals a round and walks it once for each seat: the seat being trained tries all its
+ * legal actions, the other seat and the deck are sampled. Regrets are matched over the legal slots of
+ * a key, the average strategy is summed where the other seat plays. The utility is the share of the
+ * round won.
+ */
+public final class CfrTrainer {
+
+    private final float[] regrets = new float[InfoSet.KEYS * InfoSet.ACTIONS];
+    private final float[] strategySums = new float[InfoSet.KEYS * InfoSet.ACTIONS];
+
+    /**
+     * Runs iterations of the trainer.
+     *
+     * @param iterations the number of dealt rounds
+     * @param random     the source of randomness for the deals and the sampled actions
+     */
+    public void train(int iterations, RandomGenerator random) {
+        for (int i = 0; i < iterations; i++) {
+            RoundState state = Engine.deal(2, i & 1, random).state();
+            for (int seat = 0; seat < 2; seat++) {
+                Beliefs[] beliefs = {new Beliefs(state, 0), new Beliefs(state, 1)};
+                traverse(state, beliefs, seat, random);
+            }
+        }
+    }
+
+    /**
+     * Walks a round from a state.
+     *
+     * @param beliefs   what both seats know, owned by this call
+     * @param traverser the seat being trained
+     * @return the expected share of the round won by the traverser
+     */
+    private double traverse(RoundState state, Beliefs[] beliefs, int traverser, RandomGenerator random) {
+        if (state.isOver()) {
+            int[] winners = state.winners();
+            for (int seat : winners) {
+                if (seat == traverser) {
+                    return 1.0 / winners.length;
+                }
+            }
+            return 0;
+        }
+        int seat = state.current();
+        int base = InfoSet.key(state, beliefs[seat]) * InfoSet.ACTIONS;
+        List<Action> actions = Engine.legalActions(state);
+        double[] strategy = strategy(base, actions, seat);
+        if (seat != traverser) {
+            int chosen = sample(strategy, random);
+            for (int i = 0; i < actions.size(); i++) {
+                strategySums[base + InfoSet.slot(actions.get(i), seat)] += (float) strategy[i];
+            }
+            return traverse(step(state, actions.get(chosen), beliefs), beliefs, traverser, random);
+        }
+        double[] utilities = new double[actions.size()];
+        double expected = 0;
+        for (int i = 0; i < actions.size(); i++) {
+            Beliefs[] branch = {beliefs[0].copy(), beliefs[1].copy()};
+            utilities[i] = traverse(step(state, actions.get(i), branch), branch, traverser, random);
+            expected += strategy[i] * utilities[i];
+        }
+        for (int i = 0; i < actions.size(); i++) {
+            regrets[base + InfoSet.slot(actions.get(i), seat)] += (float) (utilities[i] - expected);
+        }
+        return expected;
+    }
+
+    /**
+     * Plays an action and lets both seats observe it.
+     */
+    private static RoundState step(RoundState state, Action action, Beliefs[] beliefs) {
+        Result result = Engine.apply(state, action);
+        beliefs[0].observe(result.events());
+        beliefs[1].observe(result.events());
+        return result.state();
+    }
+
+    /**
+     * Gets the current strategy of a key by regret matching over the legal actions.
+     */
+    private double[] strategy(int base, List<Action> actions, int seat) {
+        double[] strategy = new double[actions.size()];
+        double total = 0;
+        for (int i = 0; i < strategy.length; i++) {
+            strategy[i] = Math.max(0, regrets[base + InfoSet.slot(actions.get(i), seat)]);
+            total += strategy[i];
+        }
+        for (int i = 0; i < strategy.length; i++) {
+            strategy[i] = total > 0 ? strategy[i] / total : 1.0 / strategy.length;
+        }
+        return strategy;
+    }
+
+    /**
+     * Picks an index with the given probabilities.
+     */
+    static int sample(double[] probabilities, RandomGenerator random) {
+        double r = random.nextDouble();
+        for (int i = 0; i < probabilities.length - 1; i++) {
+            r -= probabilities[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return probabilities.length - 1;
+    }
+
+    /**
+     * Writes the average strategy, normalized per key and scaled to bytes.
+     *
+     * @param file the policy file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        byte[] policy = new byte[strategySums.length];
+        for (int base = 0; base < policy.length; base += InfoSet.ACTIONS) {
+            double total = 0;
+            for (int slot = 0; slot < InfoSet.ACTIONS; slot++) {
+                total += strategySums[base + slot];
+            }
+            for (int slot = 0; slot < InfoSet.ACTIONS && total > 0; slot++) {
+                policy[base + slot] = (byte) Math.round(255 * strategySums[base + slot] / total);
+            }
+        }
+        PolicyTable.write(file, InfoSet.KEYS, InfoSet.ACTIONS, policy);
+    }
+
+    /** The options of {@link #main(String[])}. */
+    private static final String USAGE = "Usage: CfrTrainer [--iterations <number>] [--out <file>] [--seed <number>]";
+
+    /**
+     * Trains from the command line, e.g. {@code --iterations 1000000 --out policy.bin --seed 1}.
+     * An unknown option, a missing value or a value that is not a number prints the usage and exits
+     * with status 2, so a typo never trains with the wrong settings.
+     *
+     * @param args the options
+     * @throws IOException if the policy file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int iterations = 100_000;
+        Path out = Path.of("policy.bin");
+        Long seed = null;
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (!option.equals("--iterations") && !option.equals("--out") && !option.equals("--seed")) {
+                usage("Unknown option: " + option);
+            }
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--iterations" -> iterations = Integer.parseInt(value);
+                    case "--out" -> out = Path.of(value);
+                    default -> seed = Long.parseLong(value);
+                }
+            } catch (NumberFormatException e) {
+                usage("Not a number for " + option + ": " + value);
+            }
+        }
+        RandomGenerator random = seed != null ? Seeds.root(seed) : Seeds.root();
+        CfrTrainer trainer = new CfrTrainer();
+        int chunk = Math.max(1, iterations / 10);
+        long start = System.nanoTime();
+        for (int done = 0; done < iterations; done += chunk) {
+            trainer.train(Math.min(chunk, iterations - done), random);
+            System.out.printf("%d of %d iterations in %.1f s%n", Math.min(done + chunk, iterations), iterations,
+                              (System.nanoTime() - start) / 1e9);
+        }
+        trainer.write(out);
+        System.out.println("Policy written to " + out);
+    }
+
+    /**
+     * Reports a wrong command line and exits.
+     */
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+}
@@ -0,0 +1,84 @@
+package simulation;
+
+import engine.Action;
+import engine.Beliefs;
+import engine.EndgameSolver;
+import engine.Engine;
+import engine.Event;
+import engine.Result;
+import engine.RoundState;
+import engine.TranspositionTable;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays the last cards of a round with the {@link EndgameSolver}. The solver needs every card, so the
+ * bot deals the cards it cannot see a few times with {@link Beliefs#determinize(RoundState,
+ * RandomGenerator)}, solves every deal and plays the action with the best average. Before that, it
+ * plays like the {@link HeuristicBot}.
+ */
+public class EndgameBot implements Bot {
+
+    private final int deckLimit;
+    private final int deals;
+    private final EndgameSolver solver;
+    private final HeuristicBot opening = new HeuristicBot();
+    private Beliefs beliefs;
+
+    /**
+     * Creates a bot.
+     *
+     * @param deckLimit the largest deck the bot solves
+     * @param deals     the deals solved per move
+     * @param tableBits the size of the transposition table, see {@link TranspositionTable}
+     */
+    public EndgameBot(int deckLimit, int deals, int tableBits) {
+        this.deckLimit = deckLimit;
+        this.deals = deals;
+        this.solver = new EndgameSolver(new TranspositionTable(tableBits));
+    }
+
+    /**
+     * Counts the cards of the round for the deals and the opening.
+     */
+    @Override
+    public void observe(int seat, Result result) {
+        opening.observe(seat, result);
+        if (beliefs == null || result.events().get(0) instanceof Event.Dealt) {
+            beliefs = new Beliefs(result.state(), seat);
+            return;
+        }
+        beliefs.observe(result.events());
+    }
+
+    /**
+     * Solves once the deck is small enough, otherwise plays the opening.
+     */
+    @Override
+    public Action choose(RoundState state, RandomGenerator random) {
+        List<Action> actions = Engine.legalActions(state);
+        if (actions.size() == 1) {
+            return actions.get(0);
+        }
+        if (state.deckSize() > deckLimit) {
+            return opening.choose(state, random);
+        }
+        int seat = state.current();
+        Beliefs counted = beliefs != null && beliefs.observer() == seat ? beliefs : new Beliefs(state, seat);
+        double[] values = new double[actions.size()];
+        for (int deal = 0; deal < deals; deal++) {
+            RoundState dealt = counted.determinize(state, random);
+            for (int i = 0; i < values.length; i++) {
+                values[i] += solver.value(dealt, actions.get(i))[seat];
+            }
+        }
+        int best = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[best]) {
+                best = i;
+            }
+        }
+        return actions.get(best);
+    }
+}
@@ -0,0 +1,104 @@
+package simulation;
+
+import engine.Action;
+import engine.Beliefs;
+import engine.Card;
+import engine.Engine;
+import engine.Event;
+import engine.Result;
+import engine.RoundState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays by a few rules of thumb: keep the Princess, hide behind the Handmaid, compare with the Baron
+ * only when holding a high card, otherwise play the lower card. Guards guess the likeliest card of the
+ * target by counting the cards the bot has seen, see {@link Beliefs}.
+ */
+public class HeuristicBot implements Bot {
+
+    private Beliefs beliefs;
+
+    /**
+     * Counts the cards of the round.
+     */
+    @Override
+    public void observe(int seat, Result result) {
+        if (beliefs == null || result.events().get(0) instanceof Event.Dealt) {
+            beliefs = new Beliefs(result.state(), seat);
+            return;
+        }
+        beliefs.observe(result.events());
+    }
+
+    /**
+     * Chooses the card by the rules of thumb and then a target and guess for it.
+     */
+    @Override
+    public Action choose(RoundState state, RandomGenerator random) {
+        List<Action> actions = Engine.legalActions(state);
+        int seat = state.current();
+        int card = pickCard(state.hand(seat), state.drawn());
+        List<Action> candidates = new ArrayList<>();
+        for (Action action : actions) {
+            if (action.card() == card) {
+                candidates.add(action);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // the Countess has to be played
+            return actions.get(0);
+        }
+        if (card == Card.GUARD && candidates.get(0).target() != Action.NONE) {
+            return guard(state, candidates, random);
+        }
+        if (card == Card.PRINCE && candidates.size() > 1) {
+            // never discard the own hand if another player can be targeted
+            candidates.removeIf(action -> action.target() == seat);
+        }
+        return candidates.get(random.nextInt(candidates.size()));
+    }
+
+    /**
+     * Chooses which of the two cards to play.
+     */
+    private static int pickCard(int hand, int drawn) {
+        int low = Math.min(hand, drawn);
+        int high = Math.max(hand, drawn);
+        if (high == Card.PRINCESS) {
+            return low;
+        }
+        if (low == Card.HANDMAID || high == Card.HANDMAID) {
+            return Card.HANDMAID;
+        }
+        if (low == Card.BARON) {
+            return high >= Card.PRINCE ? Card.BARON : high;
+        }
+        return low;
+    }
+
+    /**
+     * Chooses the Guard guess with the best chance of all targets and guesses, a random one of them
+     * on a tie.
+     */
+    private Action guard(RoundState state, List<Action> candidates, RandomGenerator random) {
+        Beliefs counted = beliefs != null && beliefs.observer() == state.current()
+                          ? beliefs : new Beliefs(state, state.current());
+        Action best = candidates.get(0);
+        double bestOdds = -1;
+        int ties = 0;
+        for (Action action : candidates) {
+            double odds = counted.odds(action.target())[action.guess()];
+            if (odds > bestOdds) {
+                best = action;
+                bestOdds = odds;
+                ties = 1;
+            } else if (odds == bestOdds && random.nextInt(++ties) == 0) {
+                best = action;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,72 @@
+package simulation;
+
+import engine.Action;
+import engine.Beliefs;
+import engine.Card;
+import engine.RoundState;
+
+/**
+ * The abstraction of a two player decision used by the {@link CfrTrainer} and the {@link PolicyBot}.
+ * A decision is reduced to a key made of what the seat whose turn it is sees: its two cards, the
+ * opponent's card if it is known, whether the opponent is protected, the size of the deck and which
+ * of the four high cards it has not seen yet. Actions are reduced to slots: the card played, the guess
+ * of a Guard and whether a Prince targets the own seat.
+ */
+final class InfoSet {
+
+    /** Number of action slots. */
+    static final int ACTIONS = 17;
+    /** Number of keys. */
+    static final int KEYS = 64 * 9 * 2 * 12 * 16;
+
+    /** Slot of the Prince played on the own seat. */
+    private static final int PRINCE_SELF = 9;
+    /** Slot of the Guard guessing the Priest; the other guesses follow. */
+    private static final int GUARD_GUESS = 8;
+    private static final int[] HIGH_CARDS = {Card.PRINCE, Card.KING, Card.COUNTESS, Card.PRINCESS};
+
+    private InfoSet() {
+    }
+
+    /**
+     * Computes the key of the decision of the seat whose turn it is.
+     *
+     * @param state   the state of a two player round
+     * @param beliefs what the seat knows about the cards
+     * @return the key, 0 to {@link #KEYS} - 1
+     */
+    static int key(RoundState state, Beliefs beliefs) {
+        int seat = state.current();
+        int opponent = 1 - seat;
+        int low = Math.min(state.hand(seat), state.drawn());
+        int high = Math.max(state.hand(seat), state.drawn());
+        int key = (low - 1) * 8 + high - 1;
+        key = key * 9 + beliefs.known(opponent);
+        key = key * 2 + (state.isProtected(opponent) ? 1 : 0);
+        key = key * 12 + Math.min(state.deckSize(), 11);
+        int unseen = 0;
+        for (int i = 0; i < HIGH_CARDS.length; i++) {
+            if (beliefs.unseen(HIGH_CARDS[i]) > 0) {
+                unseen |= 1 << i;
+            }
+        }
+        return key * 16 + unseen;
+    }
+
+    /**
+     * Gets the slot of an action.
+     *
+     * @param action the action
+     * @param seat   the seat that plays it
+     * @return the slot, 1 to {@link #ACTIONS} - 1
+     */
+    static int slot(Action action, int seat) {
+        if (action.card() == Card.GUARD && action.guess() != Action.NONE) {
+            return GUARD_GUESS + action.guess();
+        }
+        if (action.card() == Card.PRINCE && action.target() == seat) {
+            return PRINCE_SELF;
+        }
+        return action.card();
+    }
+}
@@ -0,0 +1,280 @@
+package simulation;
+
+import ServerClient.Log;
+import engine.Action;
+import engine.Beliefs;
+import engine.Engine;
+import engine.Event;
+import engine.Result;
+import engine.RoundState;
+import engine.Seeds;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.random.RandomGenerator;
+
+/**
+ * Chooses by information-set Monte Carlo tree search (single observer). Every iteration deals the
+ * cards the bot cannot see anew with {@link Beliefs#determinize(RoundState, RandomGenerator)}, keeping
+ * the cards it knows, walks down one tree shared by all these deals, choosing by UCB1 among the actions
+ * that are legal in this deal, adds one node, plays the round to the end at random and credits the
+ * winners.
+ * <p>
+ * The search stops after a number of iterations or at a deadline, whichever comes first. With a pool,
+ * several trees are searched in parallel, each with its own deals and generator, and the visits of
+ * their root actions are added up (root parallelization); the trees share nothing while they search.
+ * If no tree is ready in time, e.g. because the pool is busy with other tables, the bot plays the move
+ * of a {@link HeuristicBot} instead.
+ */
+public class IsmctsBot implements Bot {
+
+    private static final Log LOG = Log.get("IsmctsBot");
+    /** Exploration constant of UCB1; rewards are between 0 and 1. */
+    private static final double EXPLORATION = 0.7;
+    /** How long to wait for a tree past the deadline before its result is dropped. */
+    private static final long GRACE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final int iterations;
+    private final long moveNanos;
+    private final int threads;
+    private final ExecutorService pool;
+    private Beliefs beliefs;
+    private final HeuristicBot fallback = new HeuristicBot();
+
+    /**
+     * Creates a bot that searches a fixed number of iterations on the calling thread. Its choices
+     * only depend on the generator, e.g. for tournaments.
+     *
+     * @param iterations the iterations per move
+     */
+    public IsmctsBot(int iterations) {
+        this(iterations, 0, 1, null);
+    }
+
+    /**
+     * Creates a bot.
+     *
+     * @param iterations the iterations per move and tree, or 0 to search until the deadline
+     * @param moveMillis the time per move, or 0 for no deadline
+     * @param threads    the number of trees searched in parallel on the pool
+     * @param pool       the threads that search, or null to search one tree on the calling thread
+     * @throws IllegalArgumentException if neither iterations nor time are limited
+     */
+    public IsmctsBot(int iterations, long moveMillis, int threads, ExecutorService pool) {
+        if (iterations <= 0 && moveMillis <= 0) {
+            throw new IllegalArgumentException("The search needs a limit of iterations or time");
+        }
+        this.iterations = iterations;
+        this.moveNanos = TimeUnit.MILLISECONDS.toNanos(moveMillis);
+        this.threads = Math.max(1, threads);
+        this.pool = pool;
+    }
+
+    /**
+     * Counts the cards of the round for the deals of the search.
+     */
+    @Override
+    public void observe(int seat, Result result) {
+        fallback.observe(seat, result);
+        if (beliefs == null || result.events().get(0) instanceof Event.Dealt) {
+            beliefs = new Beliefs(result.state(), seat);
+            return;
+        }
+        beliefs.observe(result.events());
+    }
+
+    /**
+     * Searches and plays the root action visited most often, or the heuristic move if no tree was
+     * searched in time.
+     */
+    @Override
+    public Action choose(RoundState state, RandomGenerator random) {
+        List<Action> actions = Engine.legalActions(state);
+        if (actions.size() == 1) {
+            return actions.get(0);
+        }
+        long deadline = moveNanos > 0 ? System.nanoTime() + moveNanos : Long.MAX_VALUE;
+        Map<Action, Integer> visits = new HashMap<>();
+        if (pool == null || threads == 1) {
+            search(state, deadline, random).addVisits(visits);
+        } else {
+            int missed = searchParallel(state, deadline, random, visits);
+            if (missed > 0) {
+                LOG.debug("{} of {} search trees missed the deadline", missed, threads);
+            }
+        }
+        if (visits.isEmpty()) {
+            LOG.debug("No search tree finished in time, playing the heuristic move");
+            return fallback.choose(state, random);
+        }
+        Action best = actions.get(random.nextInt(actions.size()));
+        int bestVisits = 0;
+        for (Action action : actions) {
+            int count = visits.getOrDefault(action, 0);
+            if (count > bestVisits) {
+                best = action;
+                bestVisits = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Searches one tree per thread on the pool and adds up their root visits. A tree that has not
+     * finished by a cutoff shortly after the deadline, e.g. because the pool is busy with other
+     * tables, is cancelled and left out. The grace period is shared by all trees, so the move never
+     * takes longer than the deadline plus the grace period.
+     *
+     * @return the number of trees left out
+     */
+    private int searchParallel(RoundState state, long deadline, RandomGenerator random,
+                               Map<Action, Integer> visits) {
+        List<Future<Node>> trees = new ArrayList<>(threads);
+        int missed = 0;
+        for (int i = 0; i < threads; i++) {
+            RandomGenerator treeRandom = Seeds.root(random.nextLong());
+            trees.add(pool.submit(() -> search(state, deadline, treeRandom)));
+        }
+        long cutoff = deadline == Long.MAX_VALUE ? Long.MAX_VALUE : deadline + GRACE_NANOS;
+        for (Future<Node> tree : trees) {
+            try {
+                if (cutoff == Long.MAX_VALUE) {
+                    tree.get().addVisits(visits);
+                } else {
+                    long wait = Math.max(0, cutoff - System.nanoTime());
+                    tree.get(wait, TimeUnit.NANOSECONDS).addVisits(visits);
+                }
+            } catch (TimeoutException | CancellationException e) {
+                tree.cancel(true);
+                missed++;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                trees.forEach(t -> t.cancel(true));
+                return threads;
+            }
+        }
+        return missed;
+    }
+
+    /**
+     * Searches one tree from the view of the seat whose turn it is.
+     *
+     * @return the root of the tree
+     */
+    private Node search(RoundState state, long deadline, RandomGenerator random) {
+        int observer = state.current();
+        // without observed events, only what the state shows is known
+        Beliefs counted = beliefs != null && beliefs.observer() == observer
+                          ? beliefs : new Beliefs(state, observer);
+        Node root = new Node(null, observer);
+        for (int i = 0; (iterations <= 0 || i < iterations) && System.nanoTime() < deadline; i++) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            RoundState round = counted.determinize(state, random);
+            Node node = root;
+            boolean expanded = false;
+            while (!round.isOver() && !expanded) {
+                List<Action> legal = Engine.legalActions(round);
+                Node child = node.child(legal, round.current(), random);
+                expanded = child.visits == 0;
+                round = Engine.apply(round, child.action).state();
+                node = child;
+            }
+            while (!round.isOver()) {
+                List<Action> legal = Engine.legalActions(round);
+                round = Engine.apply(round, legal.get(random.nextInt(legal.size()))).state();
+            }
+            int[] winners = round.winners();
+            for (; node != null; node = node.parent) {
+                node.visits++;
+                for (int seat : winners) {
+                    if (seat == node.seat) {
+                        node.wins += 1.0 / winners.length;
+                    }
+                }
+            }
+        }
+        return root;
+    }
+
+    /**
+     * A node of the tree: the action that led to it, played by {@link #seat}, and how it went.
+     */
+    private static final class Node {
+
+        final Action action;
+        final int seat;
+        Node parent;
+        final Map<Action, Node> children = new HashMap<>();
+        int visits;
+        /** How often the node could have been chosen, i.e. its action was legal in the deal. */
+        int availability;
+        double wins;
+
+        Node(Action action, int seat) {
+            this.action = action;
+            this.seat = seat;
+        }
+
+        /**
+         * Chooses the child to follow in a deal: a random untried legal action if there is one,
+         * otherwise the legal child with the best UCB1 value for the seat that moves.
+         *
+         * @param legal the actions legal in this deal
+         * @param mover the seat that moves
+         */
+        Node child(List<Action> legal, int mover, RandomGenerator random) {
+            List<Action> untried = null;
+            for (Action action : legal) {
+                Node child = children.get(action);
+                if (child == null) {
+                    if (untried == null) {
+                        untried = new ArrayList<>();
+                    }
+                    untried.add(action);
+                } else {
+                    child.availability++;
+                }
+            }
+            if (untried != null) {
+                Node child = new Node(untried.get(random.nextInt(untried.size())), mover);
+                child.parent = this;
+                child.availability = 1;
+                children.put(child.action, child);
+                return child;
+            }
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Action action : legal) {
+                Node child = children.get(action);
+                double value = child.wins / child.visits
+                               + EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+                if (value > bestValue) {
+                    best = child;
+                    bestValue = value;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Adds the visits of the root actions of this tree.
+         */
+        void addVisits(Map<Action, Integer> visits) {
+            for (Node child : children.values()) {
+                visits.merge(child.action, child.visits, Integer::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package simulation;
+
+import engine.Engine;
+import engine.Result;
+import engine.RoundState;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A full game between bots without a server: rounds are played until a seat has the tokens to win,
+ * and the winner of a round starts the next one. Unlike {@link Game.Game}, which lets the youngest of
+ * several winners start, a tie is broken at random, since bots have no age.
+ */
+public final class Match {
+
+    private Match() {
+    }
+
+    /**
+     * Plays a game. A random seat starts the first round; if several players win a round, a random
+     * one of them starts the next.
+     *
+     * @param bots        the bot of every seat, 2 to 4
+     * @param tokensToWin the tokens a seat needs to win the game, see {@link Engine#tokensToWin(int)}
+     * @param random      the source of randomness for the shuffles and the bots
+     * @return the seats that won as a bit set, more than one if they reached the tokens in the same round
+     */
+    public static int play(Bot[] bots, int tokensToWin, RandomGenerator random) {
+        int players = bots.length;
+        int[] tokens = new int[players];
+        int first = random.nextInt(players);
+        int winners = 0;
+        while (winners == 0) {
+            Result result = Engine.deal(players, first, random.nextLong());
+            observe(bots, result);
+            RoundState state = result.state();
+            while (!state.isOver()) {
+                result = Engine.apply(state, bots[state.current()].choose(state, random));
+                observe(bots, result);
+                state = result.state();
+            }
+            int[] roundWinners = state.winners();
+            for (int seat : roundWinners) {
+                if (++tokens[seat] >= tokensToWin) {
+                    winners |= 1 << seat;
+                }
+            }
+            first = roundWinners[random.nextInt(roundWinners.length)];
+        }
+        return winners;
+    }
+
+    /**
+     * Passes a step to every bot.
+     */
+    private static void observe(Bot[] bots, Result result) {
+        for (int seat = 0; seat < bots.length; seat++) {
+            bots[seat].observe(seat, result);
+        }
+    }
+}
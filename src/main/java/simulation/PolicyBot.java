@@ -0,0 +1,79 @@
+package simulation;
+
+import engine.Action;
+import engine.Beliefs;
+import engine.Engine;
+import engine.Event;
+import engine.Result;
+import engine.RoundState;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays two player rounds from a memory-mapped {@link PolicyTable}: the decision is reduced to its
+ * {@link InfoSet} key and an action is drawn with the weights stored for the legal slots, which is
+ * one table read per legal action. Rounds with more players, and keys the trainer never reached, are
+ * left to another bot.
+ */
+public class PolicyBot implements Bot {
+
+    private final PolicyTable table;
+    private final Bot fallback;
+    private Beliefs beliefs;
+
+    /**
+     * Creates a bot.
+     *
+     * @param table    the policy
+     * @param fallback the bot for rounds and decisions the policy does not cover
+     */
+    public PolicyBot(PolicyTable table, Bot fallback) {
+        this.table = table;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Counts the cards of the round for the key, and passes the step on to the other bot.
+     */
+    @Override
+    public void observe(int seat, Result result) {
+        fallback.observe(seat, result);
+        if (beliefs == null || result.events().get(0) instanceof Event.Dealt) {
+            beliefs = new Beliefs(result.state(), seat);
+            return;
+        }
+        beliefs.observe(result.events());
+    }
+
+    /**
+     * Draws an action from the policy.
+     */
+    @Override
+    public Action choose(RoundState state, RandomGenerator random) {
+        int seat = state.current();
+        if (state.players() != 2) {
+            return fallback.choose(state, random);
+        }
+        List<Action> actions = Engine.legalActions(state);
+        Beliefs counted = beliefs != null && beliefs.observer() == seat ? beliefs : new Beliefs(state, seat);
+        int key = InfoSet.key(state, counted);
+        int[] weights = new int[actions.size()];
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = table.weight(key, InfoSet.slot(actions.get(i), seat));
+            total += weights[i];
+        }
+        if (total == 0) {
+            return fallback.choose(state, random);
+        }
+        int r = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return actions.get(i);
+            }
+        }
+        return actions.get(actions.size() - 1);
+    }
+}
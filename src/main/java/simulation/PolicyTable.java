@@ -0,0 +1,118 @@
+package simulation;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A policy table file written by the {@link CfrTrainer} and read by the {@link PolicyBot}. The file
+ * has a header (magic, version, number of keys, number of slots) followed by one byte per key and
+ * slot: the probability of playing the slot, scaled to 0 to 255. The table is memory-mapped, so a
+ * lookup is one read from the page cache and the table takes no heap, however large it is. A file is
+ * mapped once per process and shared by all bots.
+ */
+public final class PolicyTable {
+
+    /** The first bytes of a policy file, "LLCF". */
+    static final int MAGIC = 0x4C4C4346;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+    private static final Map<Path, PolicyTable> MAPPED = new ConcurrentHashMap<>();
+
+    private final MappedByteBuffer table;
+    private final int keys;
+    private final int actions;
+
+    private PolicyTable(MappedByteBuffer table, int keys, int actions) {
+        this.table = table;
+        this.keys = keys;
+        this.actions = actions;
+    }
+
+    /**
+     * Maps a policy file, or returns the table already mapped for it.
+     *
+     * @param file the file
+     * @return the table
+     * @throws IOException if the file cannot be read or is not a policy table of this version
+     */
+    public static PolicyTable open(Path file) throws IOException {
+        Path path = file.toAbsolutePath().normalize();
+        PolicyTable table = MAPPED.get(path);
+        if (table == null) {
+            table = map(path);
+            PolicyTable other = MAPPED.putIfAbsent(path, table);
+            if (other != null) {
+                table = other;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Maps a policy file and checks its header.
+     */
+    private static PolicyTable map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException(path + " is not a policy table of version " + VERSION);
+            }
+            int keys = buffer.getInt(8);
+            int actions = buffer.getInt(12);
+            if (keys != InfoSet.KEYS || actions != InfoSet.ACTIONS
+                || buffer.capacity() != HEADER_BYTES + (long) keys * actions) {
+                throw new IOException(path + " does not match the abstraction of this version");
+            }
+            return new PolicyTable(buffer, keys, actions);
+        }
+    }
+
+    /**
+     * Writes a policy file.
+     *
+     * @param file    the file
+     * @param keys    the number of keys
+     * @param actions the number of slots per key
+     * @param policy  the probability of every slot, key by key, scaled to 0 to 255
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path file, int keys, int actions, byte[] policy) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(keys);
+            out.writeInt(actions);
+            out.write(policy);
+        }
+        MAPPED.remove(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Gets the weight of a slot.
+     *
+     * @param key  the key of the decision
+     * @param slot the slot
+     * @return the weight, 0 to 255; all 0 if the trainer never reached the key
+     */
+    public int weight(int key, int slot) {
+        return table.get(HEADER_BYTES + key * actions + slot) & 0xFF;
+    }
+
+    /**
+     * Gets the number of keys.
+     *
+     * @return the keys of the table
+     */
+    public int keys() {
+        return keys;
+    }
+}
@@ -0,0 +1,23 @@
+package simulation;
+
+import engine.Action;
+import engine.Engine;
+import engine.RoundState;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays a uniformly random legal action. The baseline every other bot has to beat.
+ */
+public class RandomBot implements Bot {
+
+    /**
+     * Picks one of the legal actions.
+     */
+    @Override
+    public Action choose(RoundState state, RandomGenerator random) {
+        List<Action> actions = Engine.legalActions(state);
+        return actions.get(random.nextInt(actions.size()));
+    }
+}
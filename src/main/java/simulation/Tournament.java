@@ -0,0 +1,191 @@
+package simulation;
+
+import engine.Engine;
+import engine.Seeds;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+/**
+ * Plays many games between bots on all cores and reports how often every seat won.
+ * <p>
+ * The games are split in halves on a {@link ForkJoinPool} until a task has at most
+ * {@link #GAMES_PER_TASK} games; every half gets a split of its parent's generator and its own bots,
+ * so threads share nothing but the results they return. The split tree only depends on the number of
+ * games, so a seed gives the same results on any number of threads.
+ */
+public final class Tournament {
+
+    /** Largest number of games played by one task without splitting it. */
+    static final int GAMES_PER_TASK = 64;
+    /** Quantile of the normal distribution for 95% confidence intervals. */
+    private static final double Z = 1.96;
+
+    private Tournament() {
+    }
+
+    /**
+     * The wins of every seat over a number of games. A game won by several seats at once counts as a
+     * share for each of them.
+     *
+     * @param games the number of games
+     * @param wins  the wins of every seat
+     */
+    public record Tally(long games, double[] wins) {
+
+        /**
+         * Adds two tallies.
+         */
+        Tally plus(Tally other) {
+            double[] sum = wins.clone();
+            for (int seat = 0; seat < sum.length; seat++) {
+                sum[seat] += other.wins[seat];
+            }
+            return new Tally(games + other.games, sum);
+        }
+
+        /**
+         * Gets the share of games a seat won.
+         *
+         * @param seat the seat
+         * @return the win rate, 0 to 1
+         */
+        public double winRate(int seat) {
+            return games == 0 ? 0 : wins[seat] / games;
+        }
+
+        /**
+         * Gets the 95% Wilson score interval of a seat's win rate.
+         *
+         * @param seat the seat
+         * @return the lower and upper bound
+         */
+        public double[] confidenceInterval(int seat) {
+            double p = winRate(seat);
+            double z2 = Z * Z / games;
+            double center = (p + z2 / 2) / (1 + z2);
+            double half = Z * Math.sqrt(p * (1 - p) / games + z2 / (4 * games)) / (1 + z2);
+            return new double[]{Math.max(0, center - half), Math.min(1, center + half)};
+        }
+    }
+
+    /**
+     * Plays a range of games, splitting it while it is larger than {@link #GAMES_PER_TASK}.
+     * Tasks only run in the fork/join pool and are never serialized.
+     */
+    @SuppressWarnings("serial")
+    private static final class Games extends RecursiveTask<Tally> {
+
+        private final TournamentConfig config;
+        private final int tokensToWin;
+        private final int count;
+        private final SplittableGenerator random;
+
+        Games(TournamentConfig config, int tokensToWin, int count, SplittableGenerator random) {
+            this.config = config;
+            this.tokensToWin = tokensToWin;
+            this.count = count;
+            this.random = random;
+        }
+
+        /**
+         * Plays the games or forks two halves.
+         */
+        @Override
+        protected Tally compute() {
+            if (count > GAMES_PER_TASK) {
+                int half = count / 2;
+                Games left = new Games(config, tokensToWin, half, random.split());
+                Games right = new Games(config, tokensToWin, count - half, random);
+                left.fork();
+                Tally tally = right.compute();
+                return left.join().plus(tally);
+            }
+            Bot[] bots = new Bot[config.bots.size()];
+            for (int seat = 0; seat < bots.length; seat++) {
+                bots[seat] = Bots.create(config.bots.get(seat));
+            }
+            double[] wins = new double[bots.length];
+            for (int game = 0; game < count; game++) {
+                int winners = Match.play(bots, tokensToWin, random);
+                double share = 1.0 / Integer.bitCount(winners);
+                for (int seat = 0; seat < bots.length; seat++) {
+                    if ((winners & (1 << seat)) != 0) {
+                        wins[seat] += share;
+                    }
+                }
+            }
+            return new Tally(count, wins);
+        }
+    }
+
+    /**
+     * Plays all games of a tournament.
+     *
+     * @param config the options
+     * @return the wins of every seat
+     * @throws IllegalArgumentException if there are no games, the number of bots is not 2 to 4 or a bot
+     *                                  is unknown
+     */
+    public static Tally run(TournamentConfig config) {
+        if (config.games < 1) {
+            throw new IllegalArgumentException("A tournament needs at least 1 game, not " + config.games);
+        }
+        int players = config.bots.size();
+        if (players < 2 || players > 4) {
+            throw new IllegalArgumentException("A game needs 2 to 4 bots, not " + players);
+        }
+        for (String name : config.bots) {
+            Bots.create(name);
+        }
+        int tokensToWin = config.tokensToWin > 0 ? config.tokensToWin : Engine.tokensToWin(players);
+        SplittableGenerator random = config.seed != null ? Seeds.root(config.seed) : Seeds.root();
+        ForkJoinPool pool = new ForkJoinPool(config.threads);
+        try {
+            return pool.invoke(new Games(config, tokensToWin, config.games, random));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs a tournament from the command line and prints the win rate of every seat. A wrong command
+     * line prints the problem and the usage and exits with status 2.
+     *
+     * @param args the options, see {@link TournamentConfig#fromArgs(String[])}
+     */
+    public static void main(String[] args) {
+        TournamentConfig config;
+        try {
+            config = TournamentConfig.fromArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(TournamentConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+        long start = System.nanoTime();
+        Tally tally;
+        try {
+            tally = run(config);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games with %d players on %d threads in %.2f s (%.0f games/s)%n",
+                tally.games(), config.bots.size(), config.threads, seconds, tally.games() / seconds);
+        int width = 12;
+        for (String bot : config.bots) {
+            width = Math.max(width, bot.length() + 2);
+        }
+        System.out.printf("%-6s%-" + width + "s%12s%10s%20s%n", "seat", "bot", "wins", "rate", "95% CI");
+        for (int seat = 0; seat < config.bots.size(); seat++) {
+            double[] ci = tally.confidenceInterval(seat);
+            System.out.printf("%-6d%-" + width + "s%12.1f%9.2f%%%9.2f%% - %6.2f%%%n", seat, config.bots.get(seat),
+                    tally.wins()[seat], 100 * tally.winRate(seat), 100 * ci[0], 100 * ci[1]);
+        }
+    }
+}
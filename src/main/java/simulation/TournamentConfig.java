@@ -0,0 +1,86 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Holds the options of a tournament, read from the command line in {@link Tournament#main(String[])},
+ * for example {@code --games 100000 --bots heuristic,random,random}.
+ */
+public class TournamentConfig {
+
+    /** Number of games to play. */
+    public int games = 10_000;
+    /** The bot of every seat, 2 to 4 names, see {@link Bots}. */
+    public List<String> bots = List.of("heuristic", "random");
+    /** Tokens a seat needs to win a game, or 0 for the rules of the game. */
+    public int tokensToWin = 0;
+    /** Number of threads that play games. */
+    public int threads = Runtime.getRuntime().availableProcessors();
+    /** Seed of the tournament's random generator, or null for a random seed. */
+    public Long seed = null;
+
+    /** The options of {@link #fromArgs(String[])}, printed when the command line is wrong. */
+    public static final String USAGE = "Usage: Tournament [--games <number>] [--bots <name>,<name>,...]"
+            + " [--tokens <number>] [--threads <number>] [--seed <number>]";
+
+    /**
+     * Creates a configuration from the given command-line arguments.
+     *
+     * @param args the command-line arguments
+     * @return the configuration described by the arguments
+     * @throws IllegalArgumentException if an option is unknown, its value is missing or not valid, or
+     *                                  fewer than one game is asked for
+     */
+    public static TournamentConfig fromArgs(String[] args) {
+        TournamentConfig config = new TournamentConfig();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games":
+                    config.games = value(args, ++i, Integer::parseInt);
+                    break;
+                case "--bots":
+                    config.bots = value(args, ++i, names -> new ArrayList<>(List.of(names.split(","))));
+                    break;
+                case "--tokens":
+                    config.tokensToWin = value(args, ++i, Integer::parseInt);
+                    break;
+                case "--threads":
+                    config.threads = value(args, ++i, Integer::parseInt);
+                    break;
+                case "--seed":
+                    config.seed = value(args, ++i, Long::parseLong);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (config.games < 1) {
+            // without games the win rates and their confidence intervals are not defined, see Tournament#run
+            throw new IllegalArgumentException("A tournament needs at least 1 game, not " + config.games);
+        }
+        return config;
+    }
+
+    /**
+     * Reads the value of an option from the command line.
+     *
+     * @param args   the command-line arguments
+     * @param i      the index of the value, right after the option
+     * @param parser converts the value and throws an IllegalArgumentException if it is not valid
+     * @return the converted value
+     * @throws IllegalArgumentException if the value is missing or not valid
+     */
+    private static <T> T value(String[] args, int i, Function<String, T> parser) {
+        String option = args[i - 1];
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        try {
+            return parser.apply(args[i]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + option + ": " + args[i]);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import engine.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeliefsTest {
+
+    @Test
+    void testStartCountsOwnCards(){
+        RoundState state = Engine.deal(2, 0, new Random(1)).state();
+        Beliefs beliefs = new Beliefs(state, 0);
+        int unseen = 0;
+        for(int card = Card.GUARD; card <= Card.PRINCESS; card++){
+            unseen += beliefs.unseen(card);
+        }
+        // the other hand, the removed card and the deck
+        assertEquals(1 + 1 + state.deckSize(), unseen);
+        assertEquals(Card.NONE, beliefs.known(1));
+    }
+
+    @Test
+    void testPriestRevealsCard(){
+        RoundState state = Engine.setUp(new int[]{Card.PRIEST, Card.KING, Card.GUARD}, 0, Card.GUARD, Card.BARON,
+                                        Card.GUARD);
+        Beliefs beliefs = new Beliefs(state, 0);
+        Beliefs other = new Beliefs(state, 2);
+        Result result = Engine.apply(state, Action.play(Card.PRIEST, 1));
+        beliefs.observe(result.events());
+        other.observe(result.events());
+        assertEquals(Card.KING, beliefs.known(1));
+        assertEquals(1.0, beliefs.odds(1)[Card.KING]);
+        // only the seat that played the Priest looked
+        assertEquals(Card.NONE, other.known(1));
+    }
+
+    @Test
+    void testBaronWinnerHoldsAHigherCard(){
+        // seat 0 keeps a Handmaid and loses to the King of seat 1; seat 2 only sees the Handmaid
+        RoundState state = Engine.setUp(new int[]{Card.BARON, Card.KING, Card.GUARD}, 0, Card.HANDMAID, Card.GUARD,
+                                        Card.PRIEST);
+        Beliefs beliefs = new Beliefs(state, 2);
+        beliefs.observe(Engine.apply(state, Action.play(Card.BARON, 1)).events());
+        assertEquals(Card.NONE, beliefs.known(1));
+        double[] odds = beliefs.odds(1);
+        for(int card = Card.GUARD; card <= Card.HANDMAID; card++){
+            assertEquals(0, odds[card], "card " + card);
+        }
+        assertTrue(odds[Card.KING] > 0);
+        assertTrue(odds[Card.PRINCESS] > 0);
+    }
+
+    @Test
+    void testKnowledgeFollowsAKingSwap(){
+        // seat 2 looks at the Baron of seat 1, then seat 0 trades its King for it
+        RoundState state = Engine.setUp(new int[]{Card.KING, Card.BARON, Card.PRIEST}, 2, Card.GUARD, Card.HANDMAID,
+                                        Card.PRINCE, Card.GUARD);
+        Beliefs watcher = new Beliefs(state, 2);
+        Result result = Engine.apply(state, Action.play(Card.PRIEST, 1));
+        watcher.observe(result.events());
+        assertEquals(Card.BARON, watcher.known(1));
+        Beliefs trader = new Beliefs(result.state(), 0);
+        result = Engine.apply(result.state(), Action.play(Card.KING, 1));
+        watcher.observe(result.events());
+        trader.observe(result.events());
+        assertEquals(Card.BARON, watcher.known(0));
+        assertEquals(Card.NONE, watcher.known(1));
+        assertEquals(Card.PRINCE, trader.known(1));
+    }
+
+    @Test
+    void testBeliefsStayConsistentWithTheRound(){
+        Random random = new Random(3);
+        for(int round = 0; round < 300; round++){
+            int players = 2 + round % 3;
+            Result result = Engine.deal(players, 0, random);
+            RoundState state = result.state();
+            Beliefs[] beliefs = new Beliefs[players];
+            for(int seat = 0; seat < players; seat++){
+                beliefs[seat] = new Beliefs(state, seat);
+            }
+            for(Beliefs seen : beliefs){
+                check(state, seen, random);
+            }
+            Playouts.playRandomly(state, random, s -> false, step -> {
+                for(Beliefs seen : beliefs){
+                    seen.observe(step.events());
+                    if(!step.state().isOver()){
+                        check(step.state(), seen, random);
+                    }
+                }
+            });
+        }
+    }
+
+    private static void check(RoundState state, Beliefs beliefs, Random random){
+        int observer = beliefs.observer();
+        if(state.isKnockedOut(observer)){
+            return;
+        }
+        int hidden = state.deckSize() + (state.removedCard() != Card.NONE ? 1 : 0)
+                     + (state.current() != observer ? 1 : 0);
+        for(int seat = 0; seat < state.players(); seat++){
+            if(seat == observer || state.isKnockedOut(seat)){
+                continue;
+            }
+            if(beliefs.known(seat) != Card.NONE){
+                assertEquals(state.hand(seat), beliefs.known(seat), state.toString());
+            }else{
+                hidden++;
+            }
+            assertTrue(beliefs.odds(seat)[state.hand(seat)] > 0, state.toString());
+        }
+        int unseen = 0;
+        for(int card = Card.GUARD; card <= Card.PRINCESS; card++){
+            assertTrue(beliefs.unseen(card) >= 0);
+            unseen += beliefs.unseen(card);
+        }
+        assertEquals(hidden, unseen, state.toString());
+        RoundState deal = beliefs.determinize(state, random);
+        assertEquals(state.hand(observer), deal.hand(observer));
+        assertEquals(state.deckSize(), deal.deckSize());
+    }
+}
@@ -0,0 +1,157 @@
+import ServerClient.BinaryProtocol;
+import ServerClient.Server;
+import ServerClient.ServerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryProtocolTest {
+
+    private int port;
+
+    @Test
+    void testFrameLayout(){
+        assertArrayEquals(new byte[]{0, 3, 0x10, 'h', 'i'}, BinaryProtocol.frame(BinaryProtocol.TEXT, "hi"));
+        assertArrayEquals(new byte[]{0, 2, 0x02, 5}, BinaryProtocol.frame(BinaryProtocol.PLAY, 5));
+        assertArrayEquals(new byte[]{0, 1, 0x05}, BinaryProtocol.frame(BinaryProtocol.STATE, new byte[0], 0, 0));
+    }
+
+    @Test
+    void testFrameTooLong(){
+        assertThrows(IllegalArgumentException.class,
+                     () -> BinaryProtocol.frame(BinaryProtocol.TEXT, new byte[0xFFFF], 0, 0xFFFF));
+    }
+
+    @Test
+    void testHandshakeAndSplitFrames() throws Exception{
+        handshakeAndSplitFrames(false);
+        handshakeAndSplitFrames(true);
+    }
+
+    @Test
+    void testOversizedFrameClosesConnection() throws Exception{
+        oversizedFrameClosesConnection(false);
+        oversizedFrameClosesConnection(true);
+    }
+
+    @Test
+    void testWrongMagicClosesConnection() throws Exception{
+        wrongMagicClosesConnection(false);
+        wrongMagicClosesConnection(true);
+    }
+
+    /**
+     * The text prompt comes before the echoed magic; a login sent one byte at a time is answered.
+     */
+    private void handshakeAndSplitFrames(boolean nio) throws Exception{
+        Server server = start(nio);
+        try(Socket socket = connect()){
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            assertEquals("Please enter a name: ", readLine(in));
+            out.write(BinaryProtocol.MAGIC);
+            out.flush();
+            byte[] echo = new byte[BinaryProtocol.MAGIC.length];
+            in.readFully(echo);
+            assertArrayEquals(BinaryProtocol.MAGIC, echo);
+            for(byte b : BinaryProtocol.frame(BinaryProtocol.LOGIN, "alice")){
+                out.write(b);
+                out.flush();
+                Thread.sleep(5);
+            }
+            assertEquals("Welcome alice", readText(in));
+        }finally{
+            server.shutdownServer();
+        }
+    }
+
+    private void oversizedFrameClosesConnection(boolean nio) throws Exception{
+        Server server = start(nio);
+        try(Socket socket = connect()){
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            readLine(in);
+            out.write(BinaryProtocol.MAGIC);
+            out.write(new byte[]{(byte) 0xFF, (byte) 0xFF, BinaryProtocol.COMMAND});
+            out.flush();
+            // the echoed magic may be discarded when the connection is closed right away
+            int received = 0;
+            while(in.read() != -1){
+                received++;
+            }
+            assertTrue(received <= BinaryProtocol.MAGIC.length);
+        }finally{
+            server.shutdownServer();
+        }
+    }
+
+    private void wrongMagicClosesConnection(boolean nio) throws Exception{
+        Server server = start(nio);
+        try(Socket socket = connect()){
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            readLine(in);
+            out.write(new byte[]{0, 'X', 'X', 1});
+            out.flush();
+            assertEquals(-1, in.read());
+        }finally{
+            server.shutdownServer();
+        }
+    }
+
+    private Server start(boolean nio) throws IOException{
+        ServerConfig config = new ServerConfig();
+        try(ServerSocket probe = new ServerSocket(0)){
+            port = probe.getLocalPort();
+        }
+        config.port = port;
+        config.nio = nio;
+        Server server = new Server(config);
+        Thread thread = new Thread(server);
+        thread.setDaemon(true);
+        thread.start();
+        return server;
+    }
+
+    private Socket connect() throws Exception{
+        for(int attempt = 0; ; attempt++){
+            try{
+                Socket socket = new Socket("localhost", port);
+                socket.setSoTimeout(5000);
+                return socket;
+            }catch(ConnectException e){
+                if(attempt == 100){
+                    throw e;
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private static String readLine(DataInputStream in) throws IOException{
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while((b = in.read()) != '\n'){
+            assertNotEquals(-1, b);
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String readText(DataInputStream in) throws IOException{
+        int length = in.readUnsignedShort();
+        assertEquals(BinaryProtocol.TEXT, in.readUnsignedByte());
+        byte[] text = new byte[length - 1];
+        in.readFully(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+}
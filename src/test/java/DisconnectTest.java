@@ -0,0 +1,176 @@
+import ServerClient.Server;
+import ServerClient.ServerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DisconnectTest {
+
+    private int port;
+
+    @Test
+    void testDroppedClientIsReleased() throws Exception{
+        droppedClientIsReleased(false);
+        droppedClientIsReleased(true);
+    }
+
+    @Test
+    void testDroppedPlayerEndsTheGame() throws Exception{
+        droppedPlayerEndsTheGame(false);
+        droppedPlayerEndsTheGame(true);
+    }
+
+    @Test
+    void testByeReleasesTheClient() throws Exception{
+        Server server = start(false, 1);
+        try{
+            try(Socket socket = connect()){
+                BufferedReader in = reader(socket);
+                PrintWriter out = writer(socket);
+                login(in, out, "alice");
+                out.println("/bye");
+                awaitLine(in, "You left the server");
+                assertNull(in.readLine());
+            }
+            assertReleased(server, "alice");
+        }finally{
+            server.shutdownServer();
+        }
+    }
+
+    /**
+     * With room for one client, a client that closes its connection without /bye must free its
+     * nickname and its place for the next one.
+     */
+    private void droppedClientIsReleased(boolean nio) throws Exception{
+        Server server = start(nio, 1);
+        try{
+            try(Socket socket = connect()){
+                login(reader(socket), writer(socket), "alice");
+            }
+            assertReleased(server, "alice");
+            try(Socket socket = connect()){
+                login(reader(socket), writer(socket), "alice");
+            }
+        }finally{
+            server.shutdownServer();
+        }
+    }
+
+    private void droppedPlayerEndsTheGame(boolean nio) throws Exception{
+        Server server = start(nio, Integer.MAX_VALUE);
+        try(Socket alice = connect()){
+            BufferedReader aliceIn = reader(alice);
+            PrintWriter aliceOut = writer(alice);
+            login(aliceIn, aliceOut, "alice");
+            aliceOut.println("/create");
+            String created = awaitLine(aliceIn, "You created a game in room ");
+            String room = created.substring("You created a game in room ".length()).trim();
+            try(Socket bob = connect()){
+                BufferedReader bobIn = reader(bob);
+                PrintWriter bobOut = writer(bob);
+                login(bobIn, bobOut, "bob");
+                bobOut.println("/join " + room);
+                awaitLine(aliceIn, "bob joined the game");
+                aliceOut.println("/start");
+                awaitLine(bobIn, "Please enter the number of days");
+                bobOut.println("/date 10");
+                bobOut.println("/bd 2000/01/01");
+                aliceOut.println("/date 20");
+                aliceOut.println("/bd 2001/01/01");
+                awaitLine(aliceIn, "The game has started");
+            }
+            awaitLine(aliceIn, "bob left the server. The game is over.");
+            assertReleased(server, "bob");
+            assertFalse(server.rooms.containsKey(room));
+            aliceOut.println("/create");
+            awaitLine(aliceIn, "You created a game in room ");
+        }finally{
+            server.shutdownServer();
+        }
+    }
+
+    /**
+     * Waits until the server has released a client that left.
+     */
+    private static void assertReleased(Server server, String nickname) throws InterruptedException{
+        for(int attempt = 0; attempt < 250; attempt++){
+            if(!server.connectionsMap.containsKey(nickname)
+               && server.connectedClients() == server.connectionsMap.size()){
+                break;
+            }
+            Thread.sleep(20);
+        }
+        assertFalse(server.connectionsMap.containsKey(nickname));
+        assertFalse(server.nicknamesSet.contains(nickname));
+        assertEquals(server.connectionsMap.size(), server.connectedClients());
+    }
+
+    private static void login(BufferedReader in, PrintWriter out, String nickname) throws IOException{
+        awaitLine(in, "Please enter a name: ");
+        out.println(nickname);
+        awaitLine(in, "Welcome " + nickname);
+    }
+
+    /**
+     * Reads lines until one starts with a prefix.
+     *
+     * @return the line
+     */
+    private static String awaitLine(BufferedReader in, String prefix) throws IOException{
+        String line;
+        while((line = in.readLine()) != null){
+            if(line.startsWith(prefix)){
+                return line;
+            }
+        }
+        return fail("connection closed before \"" + prefix + "\"");
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException{
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static PrintWriter writer(Socket socket) throws IOException{
+        return new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+    }
+
+    private Server start(boolean nio, int maxClients) throws IOException{
+        ServerConfig config = new ServerConfig();
+        try(ServerSocket probe = new ServerSocket(0)){
+            port = probe.getLocalPort();
+        }
+        config.port = port;
+        config.nio = nio;
+        config.maxClients = maxClients;
+        Server server = new Server(config);
+        Thread thread = new Thread(server);
+        thread.setDaemon(true);
+        thread.start();
+        return server;
+    }
+
+    private Socket connect() throws Exception{
+        for(int attempt = 0; ; attempt++){
+            try{
+                Socket socket = new Socket("localhost", port);
+                socket.setSoTimeout(5000);
+                return socket;
+            }catch(ConnectException e){
+                if(attempt == 100){
+                    throw e;
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+}
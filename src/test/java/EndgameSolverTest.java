@@ -0,0 +1,88 @@
+import engine.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndgameSolverTest {
+
+    /**
+     * Plays a round at random until the deck has at most the given number of cards.
+     */
+    private static RoundState lateState(int players, int deck, Random random){
+        while(true){
+            RoundState state = Playouts.playRandomly(Engine.deal(players, 0, random).state(), random,
+                                                     s -> s.deckSize() <= deck, step -> {});
+            if(!state.isOver()){
+                return state;
+            }
+        }
+    }
+
+    @Test
+    void testHandSolvedEndgame(){
+        // Handmaid and Countess against a Handmaid, the Princess and a Guard left in the deck.
+        // Protected with the Countess, seat 0 wins if seat 1 draws the Guard: it draws the Princess
+        // itself and keeps it. Keeping the Handmaid loses either way: to the Princess at the showdown
+        // or to the Guard of seat 1, who knows the Handmaid is left.
+        RoundState state = Engine.setUp(new int[]{Card.COUNTESS, Card.HANDMAID}, 0, Card.HANDMAID, Card.PRIEST,
+                                        Card.PRINCESS, Card.GUARD);
+        EndgameSolver solver = new EndgameSolver(new TranspositionTable(8));
+        assertArrayEquals(new double[]{0.5, 0.5}, solver.value(state), 1e-9);
+        assertArrayEquals(new double[]{0.5, 0.5}, solver.value(state, Action.play(Card.HANDMAID)), 1e-9);
+        assertArrayEquals(new double[]{0, 1}, solver.value(state, Action.play(Card.COUNTESS)), 1e-9);
+        assertEquals(Action.play(Card.HANDMAID), solver.best(state));
+    }
+
+    @Test
+    void testValuesAreChances(){
+        Random random = new Random(1);
+        EndgameSolver solver = new EndgameSolver(new TranspositionTable(12));
+        for(int i = 0; i < 50; i++){
+            RoundState state = lateState(2 + i % 3, 3, random);
+            double[] value = solver.value(state);
+            double sum = 0;
+            for(double chance : value){
+                assertTrue(chance >= -1e-9 && chance <= 1 + 1e-9);
+                sum += chance;
+            }
+            assertEquals(1, sum, 1e-6);
+            double best = 0;
+            for(Action action : Engine.legalActions(state)){
+                best = Math.max(best, solver.value(state, action)[state.current()]);
+            }
+            assertEquals(best, value[state.current()], 1e-6);
+        }
+    }
+
+    @Test
+    void testTinyTableGivesSameValues(){
+        Random random = new Random(2);
+        EndgameSolver large = new EndgameSolver(new TranspositionTable(16));
+        EndgameSolver tiny = new EndgameSolver(new TranspositionTable(1));
+        for(int i = 0; i < 20; i++){
+            RoundState state = lateState(3, 3, random);
+            assertArrayEquals(large.value(state), tiny.value(state), 1e-5);
+        }
+        assertTrue(tiny.nodes() >= large.nodes());
+    }
+
+    @Test
+    void testZobristIgnoresDeckOrder(){
+        Random random = new Random(3);
+        RoundState state = lateState(2, 4, random);
+        int same = 0;
+        for(int i = 0; i < 200; i++){
+            RoundState other = Engine.determinize(state, state.current(), random);
+            if(other.hand(0) == state.hand(0) && other.hand(1) == state.hand(1)
+               && other.removedCard() == state.removedCard()){
+                // only the order of the deck may differ
+                assertEquals(Zobrist.hash(state), Zobrist.hash(other));
+                same++;
+            }
+        }
+        assertTrue(same > 0);
+        assertNotEquals(Zobrist.hash(state), Zobrist.hash(Engine.apply(state, Engine.legalActions(state).get(0)).state()));
+    }
+}
@@ -0,0 +1,246 @@
+import engine.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineTest {
+
+    @Test
+    void testDeal(){
+        Result result = Engine.deal(4, 0, new Random(1));
+        RoundState state = result.state();
+        assertEquals(0, state.current());
+        assertEquals(16 - 1 - 4 - 1, state.deckSize());
+        assertEquals(0, state.faceUp().length);
+        for(int seat = 0; seat < 4; seat++){
+            assertNotEquals(Card.NONE, state.hand(seat));
+        }
+        assertNotEquals(Card.NONE, state.drawn());
+        assertEquals(new Event.Drew(0, state.drawn()), result.events().get(result.events().size() - 1));
+    }
+
+    @Test
+    void testDealTwoPlayers(){
+        RoundState state = Engine.deal(2, 1, new Random(2)).state();
+        assertEquals(1, state.current());
+        assertEquals(3, state.faceUp().length);
+        assertEquals(16 - 1 - 3 - 2 - 1, state.deckSize());
+    }
+
+    @Test
+    void testRejectedActionChangesNothing(){
+        RoundState state = Engine.deal(3, 0, new Random(3)).state();
+        int missing = Card.GUARD;
+        while(missing == state.hand(0) || missing == state.drawn()){
+            missing++;
+        }
+        Action action = Action.play(missing);
+        assertEquals(Rejection.CARD_NOT_IN_HAND, Engine.check(state, action));
+        assertThrows(IllegalArgumentException.class, () -> Engine.apply(state, action));
+    }
+
+    @Test
+    void testLegalActionsAreAccepted(){
+        Random random = new Random(4);
+        for(int round = 0; round < 200; round++){
+            RoundState state = Engine.deal(2 + round % 3, 0, random).state();
+            while(!state.isOver()){
+                List<Action> actions = Engine.legalActions(state);
+                assertFalse(actions.isEmpty(), state.toString());
+                for(Action action : actions){
+                    assertNull(Engine.check(state, action));
+                }
+                if(Engine.mustPlayCountess(state)){
+                    assertEquals(List.of(Action.play(Card.COUNTESS)), actions);
+                }
+                RoundState before = state;
+                state = Engine.apply(state, actions.get(random.nextInt(actions.size()))).state();
+                assertNotSame(before, state);
+            }
+            assertTrue(state.winners().length >= 1);
+        }
+    }
+
+    @Test
+    void testStateIsNotChangedByApply(){
+        RoundState state = Engine.deal(4, 0, new Random(5)).state();
+        String before = state.toString();
+        Engine.apply(state, Engine.legalActions(state).get(0));
+        assertEquals(before, state.toString());
+    }
+
+    @Test
+    void testSameSeedDealsSameRound(){
+        assertEquals(Engine.deal(3, 0, 42L).state().toString(), Engine.deal(3, 0, 42L).state().toString());
+        assertEquals(Engine.deal(3, 0, 42L).events(), Engine.deal(3, 0, 42L).events());
+    }
+
+    @Test
+    void testSplitStreamsAreIndependent(){
+        var root = Seeds.root(1);
+        var first = root.split();
+        var second = root.split();
+        assertNotEquals(first.nextLong(), second.nextLong());
+        assertEquals(Seeds.root(1).split().nextLong(), Seeds.root(1).split().nextLong());
+    }
+
+    @Test
+    void testDeterminizeKeepsWhatTheSeatSees(){
+        Random random = new Random(6);
+        RoundState state = Engine.deal(4, 0, random).state();
+        for(int step = 0; step < 3; step++){
+            state = Engine.apply(state, Engine.legalActions(state).get(0)).state();
+        }
+        int observer = state.current();
+        for(int i = 0; i < 50 && !state.isOver(); i++){
+            RoundState deal = Engine.determinize(state, observer, random);
+            assertEquals(state.hand(observer), deal.hand(observer));
+            assertEquals(state.drawn(), deal.drawn());
+            assertEquals(state.deckSize(), deal.deckSize());
+            int[] counts = new int[Card.PRINCESS + 1];
+            for(int seat = 0; seat < 4; seat++){
+                counts[deal.hand(seat)]++;
+            }
+            counts[deal.drawn()]++;
+            counts[deal.removedCard()]++;
+            for(int card = Card.GUARD; card <= Card.PRINCESS; card++){
+                counts[card] += deal.discarded(card);
+            }
+            long deck = 0;
+            for(int card = Card.GUARD; card <= Card.PRINCESS; card++){
+                int inDeck = Card.copies(card) - counts[card];
+                assertTrue(inDeck >= 0, "card " + card + " dealt too often");
+                deck += inDeck;
+            }
+            assertEquals(deal.deckSize(), deck);
+        }
+    }
+
+    @Test
+    void testGuardHit(){
+        RoundState state = Engine.setUp(new int[]{Card.GUARD, Card.PRINCE}, 0, Card.PRIEST, Card.BARON, Card.GUARD);
+        Result result = Engine.apply(state, Action.guard(1, Card.PRINCE));
+        assertTrue(result.events().contains(new Event.GuardGuess(0, 1, Card.PRINCE, true)));
+        assertTrue(result.events().contains(new Event.KnockedOut(1, Card.PRINCE)));
+        assertArrayEquals(new int[]{0}, result.state().winners());
+    }
+
+    @Test
+    void testGuardMiss(){
+        RoundState state = Engine.setUp(new int[]{Card.GUARD, Card.PRINCE}, 0, Card.PRIEST, Card.BARON, Card.GUARD);
+        Result result = Engine.apply(state, Action.guard(1, Card.BARON));
+        assertTrue(result.events().contains(new Event.GuardGuess(0, 1, Card.BARON, false)));
+        assertFalse(result.state().isKnockedOut(1));
+        assertEquals(1, result.state().current());
+    }
+
+    @Test
+    void testGuardCannotNameGuard(){
+        RoundState state = Engine.setUp(new int[]{Card.GUARD, Card.GUARD}, 0, Card.PRIEST, Card.BARON, Card.GUARD);
+        assertEquals(Rejection.INVALID_GUESS, Engine.check(state, Action.guard(1, Card.GUARD)));
+        for(Action action : Engine.legalActions(state)){
+            assertNotEquals(Card.GUARD, action.guess(), action.toString());
+        }
+    }
+
+    @Test
+    void testBaronLowerCardLoses(){
+        RoundState state = Engine.setUp(new int[]{Card.BARON, Card.PRIEST}, 0, Card.GUARD, Card.HANDMAID, Card.GUARD);
+        Result result = Engine.apply(state, Action.play(Card.BARON, 1));
+        assertTrue(result.events().contains(new Event.BaronCompare(0, 1, Card.GUARD, Card.PRIEST)));
+        assertTrue(result.events().contains(new Event.KnockedOut(0, Card.GUARD)));
+        assertArrayEquals(new int[]{1}, result.state().winners());
+    }
+
+    @Test
+    void testBaronTieKnocksOutNobody(){
+        RoundState state = Engine.setUp(new int[]{Card.BARON, Card.PRIEST}, 0, Card.PRIEST, Card.HANDMAID, Card.GUARD);
+        Result result = Engine.apply(state, Action.play(Card.BARON, 1));
+        assertTrue(result.events().contains(new Event.BaronCompare(0, 1, Card.PRIEST, Card.PRIEST)));
+        assertFalse(result.state().isKnockedOut(0));
+        assertFalse(result.state().isKnockedOut(1));
+        assertEquals(1, result.state().current());
+    }
+
+    @Test
+    void testPrinceMakesPrincessDiscard(){
+        RoundState state = Engine.setUp(new int[]{Card.PRINCE, Card.PRINCESS}, 0, Card.GUARD, Card.HANDMAID, Card.GUARD);
+        Result result = Engine.apply(state, Action.play(Card.PRINCE, 1));
+        assertTrue(result.events().contains(new Event.KnockedOut(1, Card.PRINCESS)));
+        assertTrue(result.events().stream().noneMatch(event -> event instanceof Event.PrinceDraw));
+        assertArrayEquals(new int[]{0}, result.state().winners());
+    }
+
+    @Test
+    void testOnlyThePrinceTargetsItsOwnSeat(){
+        RoundState state = Engine.setUp(new int[]{Card.PRINCE, Card.BARON}, 0, Card.KING, Card.HANDMAID,
+                                        Card.PRIEST, Card.GUARD);
+        assertEquals(Rejection.TARGET_SELF, Engine.check(state, Action.play(Card.KING, 0)));
+        Result result = Engine.apply(state, Action.play(Card.PRINCE, 0));
+        assertTrue(result.events().contains(new Event.PrinceDiscard(0, Card.KING)));
+        assertTrue(result.events().contains(new Event.PrinceDraw(0, Card.PRIEST, false)));
+        assertEquals(Card.PRIEST, result.state().hand(0));
+        assertEquals(Card.PRINCE + Card.KING, result.state().discardSum(0));
+        RoundState guard = Engine.setUp(new int[]{Card.GUARD, Card.BARON}, 0, Card.PRIEST, Card.HANDMAID, Card.GUARD);
+        assertEquals(Rejection.TARGET_SELF, Engine.check(guard, Action.guard(0, Card.PRIEST)));
+    }
+
+    @Test
+    void testCountessIsForcedByKingOrPrince(){
+        for(int royal : new int[]{Card.KING, Card.PRINCE}){
+            RoundState state = Engine.setUp(new int[]{Card.COUNTESS, Card.BARON}, 0, royal, Card.GUARD, Card.GUARD);
+            assertTrue(Engine.mustPlayCountess(state));
+            assertEquals(Rejection.MUST_PLAY_COUNTESS, Engine.check(state, Action.play(royal, 1)));
+            assertEquals(List.of(Action.play(Card.COUNTESS)), Engine.legalActions(state));
+        }
+    }
+
+    @Test
+    void testHandmaidProtectsUntilTheNextTurn(){
+        RoundState state = Engine.setUp(new int[]{Card.HANDMAID, Card.GUARD}, 0, Card.PRIEST, Card.BARON,
+                                        Card.GUARD, Card.PRINCE);
+        Result result = Engine.apply(state, Action.play(Card.HANDMAID));
+        assertTrue(result.events().contains(new Event.Protected(0)));
+        state = result.state();
+        assertTrue(state.isProtected(0));
+        assertEquals(Rejection.TARGET_IMMUNE, Engine.check(state, Action.guard(0, Card.PRIEST)));
+        assertEquals(List.of(Action.play(Card.GUARD)), Engine.legalActions(state));
+        result = Engine.apply(state, Action.play(Card.GUARD));
+        assertTrue(result.events().contains(new Event.NoTarget(1, Card.GUARD)));
+        assertFalse(result.state().isKnockedOut(0));
+        assertEquals(0, result.state().current());
+        assertFalse(result.state().isProtected(0));
+    }
+
+    @Test
+    void testKingSwapsHands(){
+        RoundState state = Engine.setUp(new int[]{Card.KING, Card.BARON}, 0, Card.GUARD, Card.PRIEST, Card.GUARD);
+        Result result = Engine.apply(state, Action.play(Card.KING, 1));
+        assertTrue(result.events().contains(new Event.KingSwap(0, 1, Card.BARON, Card.GUARD)));
+        assertEquals(Card.BARON, result.state().hand(0));
+        assertEquals(Card.GUARD, result.state().hand(1));
+    }
+
+    @Test
+    void testShowdownTieIsBrokenAmongTiedSeatsOnly(){
+        // seats 0 and 1 end with a Baron, seat 2 with a Guard but the highest discard sum
+        RoundState state = Engine.setUp(new int[]{Card.BARON, Card.BARON, Card.GUARD}, 0, Card.HANDMAID, Card.GUARD,
+                                        Card.PRIEST, Card.COUNTESS);
+        state = Engine.apply(state, Action.play(Card.HANDMAID)).state();
+        state = Engine.apply(state, Action.play(Card.PRIEST, 2)).state();
+        Result result = Engine.apply(state, Action.play(Card.COUNTESS));
+        assertTrue(result.events().contains(new Event.Showdown(0, Card.BARON, Card.HANDMAID)));
+        assertTrue(result.events().contains(new Event.Showdown(1, Card.BARON, Card.PRIEST)));
+        assertTrue(result.events().contains(new Event.Showdown(2, Card.GUARD, Card.COUNTESS)));
+        assertArrayEquals(new int[]{0}, result.state().winners());
+    }
+
+    @Test
+    void testSetUpRejectsTooManyCopies(){
+        assertThrows(IllegalArgumentException.class,
+                     () -> Engine.setUp(new int[]{Card.PRINCESS, Card.BARON}, 0, Card.PRINCESS, Card.GUARD));
+    }
+}
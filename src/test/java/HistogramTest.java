@@ -0,0 +1,71 @@
+import ServerClient.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+
+    @Test
+    void testSmallValuesAreExact(){
+        Histogram histogram = new Histogram();
+        for(int value = 1; value <= 100; value++){
+            histogram.record(value);
+        }
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.count());
+        assertEquals(5050, snapshot.sum());
+        assertEquals(100, snapshot.max());
+        assertEquals(50, snapshot.percentile(0.5));
+        assertEquals(99, snapshot.percentile(0.99));
+        assertEquals(100, snapshot.percentile(1));
+    }
+
+    @Test
+    void testLargeValuesAreWithinOnePercent(){
+        Histogram histogram = new Histogram();
+        Random random = new Random(1);
+        long[] values = new long[10_000];
+        for(int i = 0; i < values.length; i++){
+            values[i] = 1 + (long) (Math.exp(random.nextDouble() * 25));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        for(double quantile : new double[]{0.5, 0.9, 0.99, 0.999}){
+            long exact = values[(int) Math.ceil(quantile * values.length) - 1];
+            long estimate = snapshot.percentile(quantile);
+            assertTrue(estimate >= exact, quantile + ": " + estimate + " < " + exact);
+            assertTrue(estimate <= exact + exact / 64 + 1, quantile + ": " + estimate + " > " + exact);
+        }
+        assertEquals(values[values.length - 1], snapshot.max());
+    }
+
+    @Test
+    void testConcurrentRecordsAreNotLost() throws InterruptedException{
+        Histogram histogram = new Histogram();
+        Thread[] threads = new Thread[4];
+        for(int t = 0; t < threads.length; t++){
+            threads[t] = new Thread(() -> {
+                for(int i = 0; i < 100_000; i++){
+                    histogram.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads){
+            thread.join();
+        }
+        assertEquals(400_000, histogram.snapshot().count());
+        assertEquals(99_999, histogram.snapshot().max());
+    }
+
+    @Test
+    void testEmptyHistogram(){
+        Histogram.Snapshot snapshot = new Histogram().snapshot();
+        assertEquals(0, snapshot.count());
+        assertEquals(0, snapshot.percentile(0.99));
+    }
+}
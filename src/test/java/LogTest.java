@@ -0,0 +1,88 @@
+import ServerClient.Log;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogTest {
+
+    private final Log log = Log.get("LogTest");
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp(){
+        Log.flush();
+        Log.setSink(new PrintStream(written, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown(){
+        Log.flush();
+        Log.setSink(System.out);
+        Log.setLevel(Log.Level.INFO);
+    }
+
+    private String output(){
+        Log.flush();
+        return written.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testDisabledMessagesAreNotBuilt(){
+        Log.setLevel(Log.Level.INFO);
+        log.debug(() -> fail("the message must not be built"));
+        log.debug("hidden {}", 1);
+        log.info("shown {} and {}", 1, "two");
+        String output = output();
+        assertFalse(output.contains("hidden"));
+        assertTrue(output.contains("INFO  [" + Thread.currentThread().getName() + "] LogTest: shown 1 and two"), output);
+    }
+
+    @Test
+    void testMessagesKeepTheirOrder(){
+        Log.setLevel(Log.Level.DEBUG);
+        for(int i = 0; i < 1000; i++){
+            log.debug("message {}", i);
+        }
+        String output = output();
+        int last = -1;
+        for(int i = 0; i < 1000; i++){
+            int at = output.indexOf("message " + i + "\n");
+            assertTrue(at > last, "message " + i);
+            last = at;
+        }
+    }
+
+    @Test
+    void testErrorsAreWrittenWithTheirTrace(){
+        Log.setLevel(Log.Level.OFF);
+        log.error("not written", new IllegalStateException());
+        Log.setLevel(Log.Level.WARN);
+        log.info("not written");
+        log.error("failed", new IllegalStateException("broken"));
+        String output = output();
+        assertFalse(output.contains("not written"));
+        assertTrue(output.contains("ERROR [" + Thread.currentThread().getName() + "] LogTest: failed"), output);
+        assertTrue(output.contains("java.lang.IllegalStateException: broken"), output);
+    }
+
+    @Test
+    void testIdleWriterWakesUpForTheNextMessage() throws InterruptedException{
+        Log.setLevel(Log.Level.INFO);
+        for(int i = 0; i < 20; i++){
+            // give the writer time to find the ring empty and park
+            Thread.sleep(10);
+            log.info("wake {}", i);
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while(!written.toString(StandardCharsets.UTF_8).contains("wake " + i + "\n")){
+                assertTrue(System.nanoTime() < deadline, "message " + i + " was not written");
+                Thread.sleep(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+import Game.Mailbox;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailboxTest {
+
+    @Test
+    void testTasksRunInPostOrder() throws InterruptedException{
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Mailbox mailbox = new Mailbox(executor);
+        List<Integer> order = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1000);
+        for(int i = 0; i < 1000; i++){
+            int task = i;
+            mailbox.post(() -> {
+                order.add(task);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        for(int i = 0; i < 1000; i++){
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    void testTasksFromManyThreadsNeverOverlap() throws InterruptedException{
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Mailbox mailbox = new Mailbox(executor);
+        int producers = 4;
+        int perProducer = 2000;
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        // only touched by the tasks, so a plain list is enough if they never overlap
+        List<int[]> order = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(producers * perProducer);
+        Thread[] threads = new Thread[producers];
+        for(int p = 0; p < producers; p++){
+            int producer = p;
+            threads[p] = new Thread(() -> {
+                for(int i = 0; i < perProducer; i++){
+                    int sequence = i;
+                    mailbox.post(() -> {
+                        if(running.incrementAndGet() != 1){
+                            overlaps.incrementAndGet();
+                        }
+                        order.add(new int[]{producer, sequence});
+                        running.decrementAndGet();
+                        done.countDown();
+                    });
+                }
+            });
+            threads[p].start();
+        }
+        for(Thread thread : threads){
+            thread.join();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(0, overlaps.get());
+        assertEquals(producers * perProducer, order.size());
+        int[] next = new int[producers];
+        for(int[] task : order){
+            assertEquals(next[task[0]]++, task[1], "tasks of one thread out of order");
+        }
+    }
+
+    @Test
+    void testLongQueueIsRescheduledInBatches() throws InterruptedException{
+        AtomicInteger handovers = new AtomicInteger();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Mailbox mailbox = new Mailbox(task -> {
+            handovers.incrementAndGet();
+            pool.execute(task);
+        });
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(200);
+        mailbox.post(() -> {
+            try{
+                release.await();
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        });
+        for(int i = 0; i < 200; i++){
+            mailbox.post(done::countDown);
+        }
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+        // 201 tasks with at most 64 per handover
+        assertTrue(handovers.get() >= 4, handovers.get() + " handovers");
+    }
+
+    @Test
+    void testFailingTaskDoesNotStopTheMailbox() throws InterruptedException{
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Mailbox mailbox = new Mailbox(executor);
+        CountDownLatch done = new CountDownLatch(1);
+        mailbox.post(() -> {
+            throw new IllegalStateException("expected by the test");
+        });
+        mailbox.post(done::countDown);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,107 @@
+import ServerClient.OutboundQueue;
+import ServerClient.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundQueueTest {
+
+    private static byte[] bytes(String message){
+        return message.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static List<String> drain(OutboundQueue queue){
+        List<String> messages = new ArrayList<>();
+        byte[] message;
+        while((message = queue.poll()) != null){
+            messages.add(new String(message, StandardCharsets.US_ASCII));
+        }
+        return messages;
+    }
+
+    @Test
+    void testDisconnectAtCapacity(){
+        OutboundQueue queue = new OutboundQueue(2, 100, OverflowPolicy.DISCONNECT);
+        assertTrue(queue.offer(bytes("a"), false));
+        assertTrue(queue.offer(bytes("b"), true));
+        assertFalse(queue.offer(bytes("c"), false));
+        assertEquals(List.of("a", "b"), drain(queue));
+    }
+
+    @Test
+    void testDisconnectAtByteLimit(){
+        OutboundQueue queue = new OutboundQueue(10, 10, OverflowPolicy.DISCONNECT);
+        assertTrue(queue.offer(bytes("aaaaaa"), false));
+        assertFalse(queue.offer(bytes("bbbbb"), false));
+        assertTrue(queue.offer(bytes("cccc"), false));
+        assertEquals(List.of("aaaaaa", "cccc"), drain(queue));
+    }
+
+    @Test
+    void testDropChatAtCapacity(){
+        OutboundQueue queue = new OutboundQueue(2, 100, OverflowPolicy.DROP_CHAT);
+        assertTrue(queue.offer(bytes("chat1"), true));
+        assertTrue(queue.offer(bytes("game1"), false));
+        // a new chat message is dropped
+        assertTrue(queue.offer(bytes("chat2"), true));
+        assertEquals(2, queue.size());
+        // a game message replaces the oldest chat message
+        assertTrue(queue.offer(bytes("game2"), false));
+        // only game messages are left
+        assertFalse(queue.offer(bytes("game3"), false));
+        assertEquals(List.of("game1", "game2"), drain(queue));
+    }
+
+    @Test
+    void testDropChatEnforcesByteLimit(){
+        OutboundQueue queue = new OutboundQueue(10, 10, OverflowPolicy.DROP_CHAT);
+        assertTrue(queue.offer(bytes("c1"), true));
+        assertTrue(queue.offer(bytes("c2"), true));
+        assertTrue(queue.offer(bytes("gggg"), false));
+        // 8 bytes queued: both chat messages have to go to make room for 5 more
+        assertTrue(queue.offer(bytes("hhhhh"), false));
+        assertFalse(queue.offer(bytes("ii"), false));
+        assertEquals(List.of("gggg", "hhhhh"), drain(queue));
+    }
+
+    @Test
+    void testDropChatDisconnectsIfChatIsNotEnough(){
+        OutboundQueue queue = new OutboundQueue(10, 10, OverflowPolicy.DROP_CHAT);
+        assertTrue(queue.offer(bytes("cc"), true));
+        assertTrue(queue.offer(bytes("gggggg"), false));
+        assertFalse(queue.offer(bytes("hhhhh"), false));
+    }
+
+    @Test
+    void testCoalesceAtCapacity(){
+        OutboundQueue queue = new OutboundQueue(2, 100, OverflowPolicy.COALESCE);
+        assertTrue(queue.offer(bytes("a"), false));
+        assertTrue(queue.offer(bytes("b"), true));
+        assertTrue(queue.offer(bytes("c"), false));
+        assertEquals(List.of("ab", "c"), drain(queue));
+    }
+
+    @Test
+    void testCoalesceDisconnectsAtByteLimit(){
+        OutboundQueue queue = new OutboundQueue(2, 4, OverflowPolicy.COALESCE);
+        assertTrue(queue.offer(bytes("ab"), false));
+        assertTrue(queue.offer(bytes("cd"), false));
+        assertFalse(queue.offer(bytes("e"), false));
+    }
+
+    @Test
+    void testCorkedQueueHoldsBackAndClosedQueueIgnores(){
+        OutboundQueue queue = new OutboundQueue(2, 100, OverflowPolicy.DISCONNECT);
+        queue.cork();
+        assertTrue(queue.offer(bytes("a"), false));
+        assertNull(queue.poll());
+        assertTrue(queue.uncork());
+        queue.close();
+        assertTrue(queue.offer(bytes("b"), false));
+        assertEquals(List.of("a"), drain(queue));
+    }
+}
@@ -0,0 +1,65 @@
+import engine.Card;
+import engine.PackedDeck;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedDeckTest {
+
+    @Test
+    void testFullDeck(){
+        assertEquals(Card.DECK_SIZE, PackedDeck.size(PackedDeck.FULL));
+        assertEquals(Card.GUARD, PackedDeck.top(PackedDeck.FULL));
+        assertEquals(Card.PRINCESS, PackedDeck.card(PackedDeck.FULL, 15));
+    }
+
+    @Test
+    void testShuffleKeepsCards(){
+        long deck = PackedDeck.shuffle(PackedDeck.FULL, new Random(7));
+        assertNotEquals(PackedDeck.FULL, deck);
+        int[] counts = new int[Card.PRINCESS + 1];
+        for(int i = 0; i < PackedDeck.size(deck); i++){
+            counts[PackedDeck.card(deck, i)]++;
+        }
+        for(int card = Card.GUARD; card <= Card.PRINCESS; card++){
+            assertEquals(Card.copies(card), counts[card]);
+        }
+    }
+
+    @Test
+    void testDrawUntilEmpty(){
+        long deck = PackedDeck.shuffle(PackedDeck.FULL, new Random(8));
+        for(int size = Card.DECK_SIZE; size > 0; size--){
+            assertEquals(size, PackedDeck.size(deck));
+            assertNotEquals(Card.NONE, PackedDeck.top(deck));
+            deck = PackedDeck.draw(deck);
+        }
+        assertEquals(0, PackedDeck.size(deck));
+        assertEquals(Card.NONE, PackedDeck.top(deck));
+    }
+
+    @Test
+    void testRemoveThreeCards(){
+        long deck = PackedDeck.shuffle(PackedDeck.FULL, new Random(9));
+        long removed = PackedDeck.take(deck, 3);
+        long rest = PackedDeck.drop(deck, 3);
+        assertEquals(3, PackedDeck.size(removed));
+        assertEquals(13, PackedDeck.size(rest));
+        assertEquals(PackedDeck.card(deck, 2), PackedDeck.card(removed, 2));
+        assertEquals(PackedDeck.card(deck, 3), PackedDeck.top(rest));
+    }
+
+    @Test
+    void testMoveToTop(){
+        long deck = PackedDeck.shuffle(PackedDeck.FULL, new Random(10));
+        long moved = PackedDeck.moveToTop(deck, Card.PRINCESS);
+        assertEquals(Card.PRINCESS, PackedDeck.top(moved));
+        assertEquals(Card.DECK_SIZE, PackedDeck.size(moved));
+        for(int card = Card.GUARD; card <= Card.PRINCESS; card++){
+            assertEquals(Card.copies(card), PackedDeck.count(moved, card));
+        }
+        assertEquals(deck, PackedDeck.moveToTop(deck, PackedDeck.top(deck)));
+    }
+}
@@ -1,5 +1,6 @@
 import Game.Player;
 import Game.*;
+import ServerClient.Room;
 import ServerClient.Server;
 import cards.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +10,7 @@ import static org.mockito.Mockito.*;
 import org.mockito.ArgumentCaptor;
 
 import java.util.List;
+import java.util.Random;
 
 class PlayerTest {
 
@@ -19,6 +21,10 @@ class PlayerTest {
     void setUp() {
         mockHandler = mock(Server.ConnectionHandler.class);
         player = new Player("TestPlayer", mockHandler);
+        Room room = new Room("1", null);
+        room.game = new Game(room, Runnable::run, new Random());
+        room.game.seats = new Player[]{player};
+        mockHandler.room = room;
     }
 
     @Test
@@ -31,31 +37,21 @@ class PlayerTest {
         // Capturing the argument sent to sendMessage method
         ArgumentCaptor<String> messageCaptor = ArgumentCaptor.forClass(String.class);
 
-        verify(mockHandler, times(3)).sendMessage(messageCaptor.capture());
+        verify(mockHandler, times(4)).sendMessage(messageCaptor.capture());
 
         List<String> allMessages = messageCaptor.getAllValues();
         System.out.println(allMessages); // Gibt alle Nachrichten aus
+        assertEquals("The following players are knocked out of the Round: ", allMessages.get(2));
+        assertEquals("The following players are immune: ", allMessages.get(3));
 
     }
     @Test
-    void testDiscardCard() {
-        Cards card = new Guard();
-        player.drawCard(card);
-        player.discardCard(card);
-        assertEquals(0, player.hand.size());
-        assertEquals(1, player.discardedCards.size());
-        verify(mockHandler, times(1)).broadcastToAll("TestPlayer has discarded Guard1");
+    void testKnockedOutAndImmunePlayersAreListed() {
+        assertEquals("", player.getKnockedOutOfRoundPlayers());
+        assertEquals("", player.getImmunePlayers());
+        player.isKnockedOutOfRound = true;
+        player.isImmune = true;
+        assertEquals("TestPlayer | ", player.getKnockedOutOfRoundPlayers());
+        assertEquals("TestPlayer | ", player.getImmunePlayers());
     }
-
-    @Test
-    void testGotKnockedOutOfRound() {
-        Cards card = new Guard();
-        player.drawCard(card);
-        String discarded = player.gotKnockedOutOfRound();
-        assertTrue(player.isKnockedOutOfRound);
-        System.out.println("Player Knocked Out Status: " + player.isKnockedOutOfRound);
-        System.out.println(discarded);
-        assertTrue(discarded.contains("Guard1"));
-        assertEquals(1, player.discardedCards.size());
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+import engine.Action;
+import engine.Engine;
+import engine.Result;
+import engine.RoundState;
+import simulation.Bot;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plays rounds on for the tests, at random or with bots. Every action is checked to be legal.
+ */
+final class Playouts {
+
+    private Playouts(){
+    }
+
+    /**
+     * Plays random legal actions until the round is over.
+     *
+     * @return the final state
+     */
+    static RoundState playRandomly(RoundState state, RandomGenerator random){
+        return playRandomly(state, random, s -> false, step -> {});
+    }
+
+    /**
+     * Plays random legal actions until the round is over or a condition holds.
+     *
+     * @param until  checked before every step
+     * @param onStep called with every step
+     * @return the state the playout stopped at
+     */
+    static RoundState playRandomly(RoundState state, RandomGenerator random, Predicate<RoundState> until,
+                                   Consumer<Result> onStep){
+        while(!state.isOver() && !until.test(state)){
+            List<Action> actions = Engine.legalActions(state);
+            Result result = Engine.apply(state, actions.get(random.nextInt(actions.size())));
+            onStep.accept(result);
+            state = result.state();
+        }
+        return state;
+    }
+
+    /**
+     * Plays a round with a bot per seat. Every bot observes the deal and every step.
+     *
+     * @param deal the deal of the round
+     * @return the final state
+     */
+    static RoundState playWithBots(Result deal, Bot[] bots, RandomGenerator random){
+        Result result = deal;
+        while(true){
+            for(int seat = 0; seat < bots.length; seat++){
+                bots[seat].observe(seat, result);
+            }
+            RoundState state = result.state();
+            if(state.isOver()){
+                return state;
+            }
+            Action action = bots[state.current()].choose(state, random);
+            assertNull(Engine.check(state, action), action + " in " + state);
+            result = Engine.apply(state, action);
+        }
+    }
+}
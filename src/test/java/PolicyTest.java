@@ -0,0 +1,37 @@
+import engine.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import simulation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolicyTest {
+
+    @Test
+    void testTrainedPolicyPlaysLegalMoves(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("policy.bin");
+        CfrTrainer trainer = new CfrTrainer();
+        trainer.train(300, new Random(1));
+        trainer.write(file);
+        PolicyTable table = PolicyTable.open(file);
+        assertSame(table, PolicyTable.open(file));
+
+        Bot[] bots = {new PolicyBot(table, new RandomBot()), new PolicyBot(table, new RandomBot())};
+        Random random = new Random(2);
+        for(int round = 0; round < 50; round++){
+            assertTrue(Playouts.playWithBots(Engine.deal(2, round & 1, random), bots, random).isOver());
+        }
+    }
+
+    @Test
+    void testRejectsOtherFiles(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("other.bin");
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> PolicyTable.open(file));
+    }
+}
@@ -0,0 +1,57 @@
+import ServerClient.Room;
+import ServerClient.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomTest {
+
+    private final Server server = new Server();
+
+    @AfterEach
+    void tearDown(){
+        server.shutdownServer();
+    }
+
+    @Test
+    void testStartNeedsTwoPlayers(){
+        Room room = server.createRoom();
+        room.playerCounter = 1;
+        assertFalse(room.tryStart());
+        assertFalse(room.isGameRunning());
+    }
+
+    @Test
+    void testOnlyOneOfManyStartsWins() throws InterruptedException{
+        for(int round = 0; round < 100; round++){
+            Room room = server.createRoom();
+            room.playerCounter = 2;
+            CountDownLatch go = new CountDownLatch(1);
+            AtomicInteger started = new AtomicInteger();
+            Thread[] threads = new Thread[4];
+            for(int i = 0; i < threads.length; i++){
+                threads[i] = new Thread(() -> {
+                    try{
+                        go.await();
+                    }catch(InterruptedException e){
+                        return;
+                    }
+                    if(room.tryStart()){
+                        started.incrementAndGet();
+                    }
+                });
+                threads[i].start();
+            }
+            go.countDown();
+            for(Thread thread : threads){
+                thread.join();
+            }
+            assertEquals(1, started.get());
+            assertTrue(room.isGameRunning());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+import ServerClient.Log;
+import ServerClient.OverflowPolicy;
+import ServerClient.ServerConfig;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerConfigTest {
+
+    @Test
+    void testOptions(){
+        ServerConfig config = ServerConfig.fromArgs(new String[]{"--nio", "--port", "9090", "--overflow", "drop-chat",
+                                                                 "--log-level", "debug", "--seed", "7"});
+        assertTrue(config.nio);
+        assertEquals(9090, config.port);
+        assertEquals(OverflowPolicy.DROP_CHAT, config.overflowPolicy);
+        assertEquals(Log.Level.DEBUG, config.logLevel);
+        assertEquals(7L, config.seed);
+    }
+
+    @Test
+    void testUnknownOption(){
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                                                  () -> ServerConfig.fromArgs(new String[]{"--prot", "9090"}));
+        assertEquals("Unknown option: --prot", e.getMessage());
+    }
+
+    @Test
+    void testMissingValue(){
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                                                  () -> ServerConfig.fromArgs(new String[]{"--nio", "--port"}));
+        assertEquals("Missing value for --port", e.getMessage());
+    }
+
+    @Test
+    void testInvalidValue(){
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                                                  () -> ServerConfig.fromArgs(new String[]{"--port", "80a"}));
+        assertEquals("Invalid value for --port: 80a", e.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                     () -> ServerConfig.fromArgs(new String[]{"--overflow", "block"}));
+    }
+}
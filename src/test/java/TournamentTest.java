@@ -0,0 +1,78 @@
+import engine.Action;
+import engine.Engine;
+import org.junit.jupiter.api.Test;
+import simulation.*;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+
+    @Test
+    void testMatchEndsWithWinner(){
+        Random random = new Random(1);
+        for(int players = 2; players <= 4; players++){
+            Bot[] bots = new Bot[players];
+            for(int seat = 0; seat < players; seat++){
+                bots[seat] = seat == 0 ? new HeuristicBot() : new RandomBot();
+            }
+            int winners = Match.play(bots, Engine.tokensToWin(players), random);
+            assertNotEquals(0, winners);
+            assertEquals(0, winners >>> players);
+        }
+    }
+
+    @Test
+    void testSameSeedSameResultOnAnyThreads(){
+        TournamentConfig config = new TournamentConfig();
+        config.games = 500;
+        config.bots = List.of("heuristic", "random", "random");
+        config.seed = 3L;
+        config.threads = 1;
+        Tournament.Tally single = Tournament.run(config);
+        config.threads = 4;
+        Tournament.Tally parallel = Tournament.run(config);
+        assertEquals(500, single.games());
+        assertArrayEquals(single.wins(), parallel.wins());
+        double total = 0;
+        for(double wins : single.wins()){
+            total += wins;
+        }
+        assertEquals(500, total, 1e-9);
+    }
+
+    @Test
+    void testUnknownBot(){
+        TournamentConfig config = new TournamentConfig();
+        config.bots = List.of("random", "nobody");
+        assertThrows(IllegalArgumentException.class, () -> Tournament.run(config));
+    }
+
+    @Test
+    void testBadCommandLine(){
+        assertThrows(IllegalArgumentException.class, () -> TournamentConfig.fromArgs(new String[]{"--games", "0"}));
+        assertThrows(IllegalArgumentException.class, () -> TournamentConfig.fromArgs(new String[]{"--games"}));
+        assertThrows(IllegalArgumentException.class, () -> TournamentConfig.fromArgs(new String[]{"--games", "ten"}));
+        assertThrows(IllegalArgumentException.class, () -> TournamentConfig.fromArgs(new String[]{"--rounds", "10"}));
+        TournamentConfig config = TournamentConfig.fromArgs(new String[]{"--games", "10", "--bots", "random,heuristic"});
+        assertEquals(10, config.games);
+        assertEquals(List.of("random", "heuristic"), config.bots);
+        config.games = 0;
+        assertThrows(IllegalArgumentException.class, () -> Tournament.run(config));
+    }
+
+    @Test
+    void testIsmctsPlaysLegalMovesInTime(){
+        Random random = new Random(7);
+        Bot search = new IsmctsBot(0, 20, 1, null);
+        Bot timed = (state, generator) -> {
+            long start = System.nanoTime();
+            Action action = search.choose(state, generator);
+            assertTrue(System.nanoTime() - start < 200_000_000L);
+            return action;
+        };
+        Playouts.playWithBots(Engine.deal(3, 0, random), new Bot[]{timed, timed, timed}, random);
+    }
+}